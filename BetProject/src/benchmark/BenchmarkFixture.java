@@ -0,0 +1,121 @@
+package benchmark;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import bet.Sport;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerType;
+import customer.GoldCustomer;
+import customer.PlatinumCustomer;
+import main.BetOrganization;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The data set a benchmark stage operates on, generated deterministically from a seed.
+ * <p>
+ * A fixture holds a list of bets, split between football and basketball bets according to the
+ * sport mix, and a list of customers spread evenly across the {@link CustomerType} tiers.
+ * Depending on the stage, the customers are also populated with wagers and registered, together
+ * with the bets, in the {@link BetOrganization} singleton.
+ * </p>
+ * <p>
+ * Since customer bets are indexed globally, the {@link BetOrganization} singleton should be cleared
+ * before a new fixture is populated.
+ * </p>
+ */
+final class BenchmarkFixture {
+
+    /**
+     * The number of bets generated for every fixture.
+     */
+    static final int BET_COUNT = 200;
+
+    /**
+     * The generated list of {@link Bet} objects.
+     */
+    final List<Bet> bets = new ArrayList<>();
+
+    /**
+     * The generated list of {@link Customer} objects.
+     */
+    final List<Customer> customers = new ArrayList<>();
+
+    /**
+     * The {@link Random} instance used to generate the fixture.
+     */
+    private final Random random;
+
+    /**
+     * The parameters the fixture is generated for.
+     */
+    private final BenchmarkParams params;
+
+    /**
+     * Constructs a new fixture of bets and customers (without wagers) for the specified parameters.
+     *
+     * @param params The {@link BenchmarkParams} describing the size and mix of the fixture.
+     * @param seed   The seed of the random generator, so that the same fixture is generated on every run.
+     */
+    BenchmarkFixture(BenchmarkParams params, long seed) {
+        this.params = params;
+        this.random = new Random(seed);
+
+        int footballBets = (int) Math.round(BET_COUNT * params.footballShare());
+        for (int i = 0; i < BET_COUNT; i++) {
+            String game = "Home Team " + i + " vs Away Team " + i;
+            double odds = 1.5 + random.nextInt(12) / 10.0;
+            bets.add(i < footballBets ? new FootballBet(game, odds) : new BasketballBet(game, odds));
+        }
+
+        for (int i = 0; i < params.customers(); i++) {
+            String fullName = "Customer " + i;
+            customers.add(switch (CustomerType.values()[i % CustomerType.values().length]) {
+                case BASIC -> new Customer(fullName);
+                case GOLD -> new GoldCustomer(fullName);
+                case PLATINUM -> new PlatinumCustomer(fullName);
+            });
+        }
+    }
+
+    /**
+     * Places the configured number of random wagers for every customer of the fixture.
+     */
+    void populateWagers() {
+        for (Customer customer : customers) {
+            for (int i = 0; i < params.wagersPerCustomer(); i++) {
+                Bet bet = bets.get(random.nextInt(bets.size()));
+                Sport sport = bet.getSport();
+                int stake = random.nextInt(1, customer.getMaxStake() + 1);
+
+                customer.increaseTotalSpentMinorUnits(Money.toMinorUnits(stake));
+                customer.addCustomerBet(new CustomerBet(bet, stake, sport.getChoice(random.nextInt(sport.getChoiceCount()))));
+            }
+        }
+    }
+
+    /**
+     * Sets a random game result on every bet of the fixture.
+     */
+    void resolveBets() {
+        bets.forEach(bet -> {
+            Sport sport = bet.getSport();
+            bet.setGameResult(sport.getChoice(random.nextInt(sport.getChoiceCount())));
+        });
+    }
+
+    /**
+     * Registers the bets and customers of this fixture in the {@link BetOrganization} singleton.
+     */
+    void register() {
+        BetOrganization betOrganization = BetOrganization.INSTANCE;
+        bets.forEach(betOrganization::addBet);
+        customers.forEach(betOrganization::addCustomer);
+    }
+
+}
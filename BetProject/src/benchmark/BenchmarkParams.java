@@ -0,0 +1,27 @@
+package benchmark;
+
+/**
+ * The parameters of a single benchmark configuration.
+ * <p>
+ * Each stage of the benchmark suite is measured once for every combination of customer count,
+ * number of wagers per customer and sport mix given on the command line.
+ * </p>
+ *
+ * @param customers         The number of customers of the generated book.
+ * @param wagersPerCustomer The number of wagers placed by each customer.
+ * @param footballShare     The share of football bets among the generated bets, between 0.0 and 1.0;
+ *                          the remaining bets are basketball bets.
+ */
+public record BenchmarkParams(int customers, int wagersPerCustomer, double footballShare) {
+
+    /**
+     * Returns a short description of the parameters, used in the benchmark report.
+     *
+     * @return A string summarizing the parameters.
+     */
+    @Override
+    public String toString() {
+        return "customers=" + customers + " wagers=" + wagersPerCustomer + " football=" + footballShare;
+    }
+
+}
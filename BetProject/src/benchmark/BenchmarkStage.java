@@ -0,0 +1,222 @@
+package benchmark;
+
+import bet.Bet;
+import bet.Sport;
+import customer.Customer;
+import main.BetOrganization;
+import main.GameEmulator;
+import util.DummyData;
+import util.WorkloadGenerator;
+import util.WorkloadProfile;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The stages of the betting simulation measured by the benchmark suite.
+ * <p>
+ * Each stage prepares, outside the measured time, a fresh {@link BenchmarkFixture} in the state the
+ * stage expects (e.g., with wagers placed and game results set before settlement), and returns the
+ * operation to be measured. Every operation returns a result depending on the work it has done (e.g., the
+ * gains of a settled customer), which the {@link BetBenchmark} consumes, so that none of the work can be
+ * eliminated as dead code.
+ * </p>
+ */
+enum BenchmarkStage {
+
+    /**
+     * Measures {@link DummyData#populateCustomersWithRandomBets(java.util.List, java.util.List)}, called
+     * once per configured wager per customer; the result is the number of wagers of the last customer.
+     */
+    POPULATE {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newFixture(params, seed);
+            return () -> {
+                for (int i = 0; i < params.wagersPerCustomer(); i++) {
+                    DummyData.populateCustomersWithRandomBets(fixture.customers, fixture.bets);
+                }
+                return fixture.customers.getLast().getCustomerBetList().size();
+            };
+        }
+    },
+
+    /**
+     * Measures {@link WorkloadGenerator#generate(java.util.function.Consumer, java.util.function.Consumer)}
+     * streaming a workload of the configured size directly into the {@link BetOrganization} singleton; the result
+     * is the total spent amount of the generated customers.
+     */
+    GENERATE {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BetOrganization.INSTANCE.clear();
+            int footballBets = (int) Math.round(BenchmarkFixture.BET_COUNT * params.footballShare());
+            WorkloadProfile profile = new WorkloadProfile(params.customers(), footballBets,
+                    BenchmarkFixture.BET_COUNT - footballBets, params.wagersPerCustomer(), 1.0, 0.2, 0.05);
+            WorkloadGenerator generator = new WorkloadGenerator(profile, seed, Runtime.getRuntime().availableProcessors());
+            return () -> {
+                long[] totalSpent = new long[1];
+                generator.generate(BetOrganization.INSTANCE::addBet, customer -> {
+                    BetOrganization.INSTANCE.addCustomer(customer);
+                    totalSpent[0] += customer.getTotalSpentMinorUnits();
+                });
+                return totalSpent[0];
+            };
+        }
+    },
+
+    /**
+     * Measures {@link BetOrganization#placeBet(customer.Customer, bet.Bet, int, char)} with one virtual
+     * thread per customer, each placing the configured number of wagers concurrently with the others.
+     * Wagers that would take the cumulative stake of a customer on a bet above their maximum stake are rejected,
+     * and still measured; the result is the number of accepted wagers.
+     */
+    PLACEMENT {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newFixture(params, seed);
+            fixture.register();
+            return () -> {
+                LongAdder accepted = new LongAdder();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int i = 0; i < fixture.customers.size(); i++) {
+                        Customer customer = fixture.customers.get(i);
+                        SplittableRandom random = new SplittableRandom(seed + i);
+                        executor.execute(() -> {
+                            for (int j = 0; j < params.wagersPerCustomer(); j++) {
+                                Bet bet = fixture.bets.get(random.nextInt(fixture.bets.size()));
+                                Sport sport = bet.getSport();
+                                try {
+                                    BetOrganization.INSTANCE.placeBet(customer, bet, random.nextInt(1, customer.getMaxStake() + 1),
+                                            sport.getChoice(random.nextInt(sport.getChoiceCount())));
+                                    accepted.increment();
+                                } catch (IllegalArgumentException e) {
+                                    // The cumulative stake of the customer on the bet is capped; the rejection is part of the load.
+                                }
+                            }
+                        });
+                    }
+                }
+                return accepted.sum();
+            };
+        }
+    },
+
+    /**
+     * Measures {@link GameEmulator#generateRandomGameResults(java.util.List)} over the bets of the fixture; the
+     * result is the game result of the last bet.
+     */
+    GAME_RESULTS {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newFixture(params, seed);
+            return () -> {
+                GameEmulator.INSTANCE.generateRandomGameResults(fixture.bets);
+                return fixture.bets.getLast().getGameResult();
+            };
+        }
+    },
+
+    /**
+     * Measures the sequential {@link BetOrganization#calculateGainsPerCustomer()}; the result is the total gains
+     * of the last customer.
+     */
+    SETTLEMENT {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newResolvedFixture(params, seed);
+            return () -> {
+                BetOrganization.INSTANCE.calculateGainsPerCustomer();
+                return fixture.customers.getLast().getTotalGainsMinorUnits();
+            };
+        }
+    },
+
+    /**
+     * Measures {@link BetOrganization#calculateGainsPerCustomer(int)} using every available processor; the result
+     * is the total gains of the last customer.
+     */
+    PARALLEL_SETTLEMENT {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newResolvedFixture(params, seed);
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            return () -> {
+                BetOrganization.INSTANCE.calculateGainsPerCustomer(parallelism);
+                return fixture.customers.getLast().getTotalGainsMinorUnits();
+            };
+        }
+    },
+
+    /**
+     * Measures {@link BetOrganization#settleBet(bet.Bet)} called for every bet of the fixture; the result is the
+     * total gains of the last customer.
+     */
+    SETTLEMENT_BY_BET {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newResolvedFixture(params, seed);
+            return () -> {
+                fixture.bets.forEach(BetOrganization.INSTANCE::settleBet);
+                return fixture.customers.getLast().getTotalGainsMinorUnits();
+            };
+        }
+    },
+
+    /**
+     * Measures {@link BetOrganization#showCustomersResults(boolean)} without console output; the result is the
+     * number of reported customers.
+     */
+    REPORT {
+        @Override
+        LongSupplier prepare(BenchmarkParams params, long seed) {
+            BenchmarkFixture fixture = newResolvedFixture(params, seed);
+            BetOrganization.INSTANCE.calculateGainsPerCustomer();
+            return () -> {
+                BetOrganization.INSTANCE.showCustomersResults(false);
+                return fixture.customers.size();
+            };
+        }
+    };
+
+    /**
+     * Prepares the state needed by this stage and returns the operation to be measured.
+     *
+     * @param params The {@link BenchmarkParams} of the current configuration.
+     * @param seed   The seed used to generate the fixture.
+     * @return The operation to be measured, returning a result that depends on its work.
+     */
+    abstract LongSupplier prepare(BenchmarkParams params, long seed);
+
+    /**
+     * Clears the {@link BetOrganization} singleton and generates a new fixture without wagers.
+     *
+     * @param params The {@link BenchmarkParams} of the current configuration.
+     * @param seed   The seed used to generate the fixture.
+     * @return The generated {@link BenchmarkFixture}.
+     */
+    private static BenchmarkFixture newFixture(BenchmarkParams params, long seed) {
+        BetOrganization.INSTANCE.clear();
+        return new BenchmarkFixture(params, seed);
+    }
+
+    /**
+     * Generates a new fixture with wagers placed and game results set, and registers it in the
+     * {@link BetOrganization} singleton.
+     *
+     * @param params The {@link BenchmarkParams} of the current configuration.
+     * @param seed   The seed used to generate the fixture.
+     * @return The generated {@link BenchmarkFixture}.
+     */
+    private static BenchmarkFixture newResolvedFixture(BenchmarkParams params, long seed) {
+        BenchmarkFixture fixture = newFixture(params, seed);
+        fixture.populateWagers();
+        fixture.resolveBets();
+        fixture.register();
+        return fixture;
+    }
+
+}
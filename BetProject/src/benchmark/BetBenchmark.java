@@ -0,0 +1,161 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Entry point of the benchmark suite for the main stages of the betting simulation.
+ * <p>
+ * Every selected {@link BenchmarkStage} is measured for every combination of the configured customer
+ * counts, wagers per customer and sport mixes. Each measured iteration runs the stage once on a freshly
+ * prepared fixture (single-shot time), after a number of warmup iterations. For every configuration,
+ * the mean time per operation, its spread across the measured iterations (minimum, maximum and standard
+ * deviation), the resulting throughput and the number of bytes allocated per operation by the benchmark
+ * thread are reported: a standard deviation that is large relative to the mean means the iterations are too
+ * few, or the warmup too short, for the mean to be trusted.
+ * </p>
+ * <p>
+ * The result of every operation, warmup iterations included, is written to a volatile sink, so that the JIT
+ * compiler cannot eliminate any of the measured work as dead code.
+ * </p>
+ * <p>
+ * The suite is configured with command-line arguments of the form {@code --name=value}, where lists
+ * are comma-separated:
+ * <ul>
+ *     <li>{@code --customers} - the customer counts (default {@code 10000,100000}).</li>
+ *     <li>{@code --wagers} - the wagers per customer (default {@code 5}).</li>
+ *     <li>{@code --football} - the shares of football bets (default {@code 0.5}).</li>
+ *     <li>{@code --stages} - the {@link BenchmarkStage} names (default: every stage).</li>
+ *     <li>{@code --warmup} - the number of warmup iterations (default {@code 3}).</li>
+ *     <li>{@code --iterations} - the number of measured iterations (default {@code 5}).</li>
+ *     <li>{@code --seed} - the seed of the generated fixtures (default {@code 42}).</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Allocations are measured with {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()},
+ * so allocations made by worker threads (e.g., during parallel settlement) are not included.
+ * </p>
+ */
+public final class BetBenchmark {
+
+    /**
+     * The {@link com.sun.management.ThreadMXBean} used to measure the bytes allocated by the benchmark thread.
+     */
+    private static final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The sink the result of every measured operation is written to, so that its work is never eliminated.
+     */
+    private static volatile long sink;
+
+    /**
+     * Runs the benchmark suite with the given configuration.
+     *
+     * @param args Command-line arguments of the form {@code --name=value}, as described in the class documentation.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int[] customerCounts = parseInts(options.getOrDefault("customers", "10000,100000"));
+        int[] wagerCounts = parseInts(options.getOrDefault("wagers", "5"));
+        double[] footballShares = Arrays.stream(options.getOrDefault("football", "0.5").split(","))
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+        List<BenchmarkStage> stages = options.containsKey("stages")
+                ? Arrays.stream(options.get("stages").split(",")).map(BenchmarkStage::valueOf).toList()
+                : List.of(BenchmarkStage.values());
+        int warmupIterations = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        System.out.printf("%-20s %-45s %12s %12s %12s %12s %12s %14s%n",
+                "Stage", "Parameters", "Mean ms/op", "Min ms/op", "Max ms/op", "Stdev ms/op", "ops/s", "Alloc B/op");
+        for (BenchmarkStage stage : stages) {
+            for (int customers : customerCounts) {
+                for (int wagers : wagerCounts) {
+                    for (double footballShare : footballShares) {
+                        BenchmarkParams params = new BenchmarkParams(customers, wagers, footballShare);
+                        run(stage, params, warmupIterations, iterations, seed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Measures a single stage for a single configuration and prints the results.
+     *
+     * @param stage            The {@link BenchmarkStage} to be measured.
+     * @param params           The {@link BenchmarkParams} of the configuration.
+     * @param warmupIterations The number of iterations run before measuring.
+     * @param iterations       The number of measured iterations.
+     * @param seed             The seed of the generated fixtures.
+     * @throws IllegalArgumentException If the number of measured iterations is not positive.
+     */
+    private static void run(BenchmarkStage stage, BenchmarkParams params, int warmupIterations, int iterations, long seed) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("The number of measured iterations must be positive");
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = stage.prepare(params, seed).getAsLong();
+        }
+
+        long[] elapsedNanos = new long[iterations];
+        long totalAllocatedBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            LongSupplier operation = stage.prepare(params, seed);
+
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long result = operation.getAsLong();
+            elapsedNanos[i] = System.nanoTime() - start;
+            totalAllocatedBytes += threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            sink = result;
+        }
+
+        LongSummaryStatistics statistics = Arrays.stream(elapsedNanos).summaryStatistics();
+        double meanNanos = statistics.getAverage();
+        double variance = Arrays.stream(elapsedNanos)
+                .mapToDouble(elapsed -> (elapsed - meanNanos) * (elapsed - meanNanos))
+                .sum() / Math.max(1, iterations - 1);
+        double meanMillis = meanNanos / 1e6;
+        System.out.printf("%-20s %-45s %12.3f %12.3f %12.3f %12.3f %12.2f %14d%n",
+                stage, params, meanMillis, statistics.getMin() / 1e6, statistics.getMax() / 1e6,
+                Math.sqrt(variance) / 1e6, 1000.0 / meanMillis, totalAllocatedBytes / iterations);
+    }
+
+    /**
+     * Parses command-line arguments of the form {@code --name=value}.
+     *
+     * @param args The command-line arguments.
+     * @return A {@link Map} from each option name to its value.
+     * @throws IllegalArgumentException If an argument is not of the form {@code --name=value}.
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid argument '" + arg + "', expected --name=value");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Parses a comma-separated list of integers.
+     *
+     * @param values The comma-separated list.
+     * @return The parsed integers.
+     */
+    private static int[] parseInts(String values) {
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+}
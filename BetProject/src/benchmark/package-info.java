@@ -0,0 +1,9 @@
+/**
+ * This package contains the benchmark suite of the betting simulation.
+ * <p>
+ * The {@code benchmark} package includes the {@link benchmark.BetBenchmark} entry point, which measures the
+ * time and the allocations of the main stages of {@link main.BetMain} (bet population, game result generation,
+ * settlement and reporting) over generated books of configurable size and sport mix.
+ * </p>
+ */
+package benchmark;
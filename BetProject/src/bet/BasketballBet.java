@@ -17,14 +17,15 @@ public final class BasketballBet extends Bet {
      * Constructs a new {@code BasketballBet} instance with the specified game details and odds.
      * <p>
      * The betting choices for a basketball game are predefined as '1' and '2', representing
-     * the two possible outcomes for the game.
+     * the two possible outcomes for the game, and are shared with every other basketball bet through
+     * {@link Sport#BASKETBALL}.
      * </p>
      *
      * @param game A {@link String} describing the basketball game matchup (e.g., "Lakers vs Warriors").
      * @param odds The decimal odds associated with this betting option.
      */
     public BasketballBet(String game, double odds) {
-        super(game, odds, new char[]{'1', '2'});
+        super(game, odds, Sport.BASKETBALL);
     }
 
 }
@@ -1,5 +1,10 @@
 package bet;
 
+import util.Money;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Represents a generic betting option for a sports game, with specific odds, choices,
  * and a result that can be set once the game outcome is determined.
@@ -15,12 +20,29 @@ package bet;
  *     <li>For football bets: '1' for a win by the home team, 'X' for a draw, and '2' for an away team win.</li>
  *     <li>For basketball bets: '1' for a win by the first team and '2' for a win by the second team.</li>
  * </ul>
+ * The choices are held by the {@link Sport} of the bet, shared by every bet of that sport.
+ * </p>
+ * <p>
+ * The game name of every bet is interned by the {@link BetCatalog} when the bet is constructed. The bet is
+ * registered in the catalog, which assigns it a dense id, the first time its id is requested, once the bet is
+ * fully constructed; bets whose id is never needed are never held by the catalog.
  * </p>
  */
 public abstract sealed class Bet permits BasketballBet, FootballBet {
 
     /**
-     * A {@link String} describing the game matchup (e.g., "Team A vs Team B").
+     * The {@link IGameResultListener} objects notified whenever the result of any game is set.
+     */
+    private static final List<IGameResultListener> gameResultListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The registration of this bet in the {@link BetCatalog}, assigned the first time its id is requested: the
+     * generation of the catalog in the high 32 bits and the id in the low 32 bits; {@code -1} until then.
+     */
+    private volatile long registration = -1;
+
+    /**
+     * A {@link String} describing the game matchup (e.g., "Team A vs Team B"), interned by the {@link BetCatalog}.
      */
     private final String game;
 
@@ -30,40 +52,96 @@ public abstract sealed class Bet permits BasketballBet, FootballBet {
     private final double odds;
 
     /**
-     * An array of characters representing the possible outcomes for the bet.
+     * The odds of this bet in fixed-point odds units (see {@link Money#toOddsUnits(double)}),
+     * used to calculate exact payouts.
+     */
+    private final long oddsUnits;
+
+    /**
+     * The sport of this bet, holding the possible outcomes for the bet.
      * <p>
-     * This array varies depending on the type of sport. For example:
+     * The outcomes vary depending on the type of sport. For example:
      * <ul>
      *     <li>For football: '1', 'X', '2'.</li>
      *     <li>For basketball: '1', '2'.</li>
      * </ul>
      * </p>
      */
-    private final char[] availableChoices;
+    private final Sport sport;
 
     /**
      * The final result of the game associated with this bet.
      * <p>
      * Initially set to '-', indicating the result is not yet determined.
      * This value is updated using the {@link #setGameResult(char)} method once the game outcome is known.
+     * It is volatile, so that a placement checking it sees a result set concurrently by another thread.
      * </p>
      */
-    private char gameResult;
+    private volatile char gameResult;
 
     /**
-     * Constructs a new {@code Bet} instance with the specified game details, odds, and available choices.
+     * Constructs a new {@code Bet} instance with the specified game details, odds, and sport.
      *
-     * @param game             A {@link String} describing the game matchup (e.g., "Team A vs Team B").
-     * @param odds             The decimal odds for this bet.
-     * @param availableChoices An array of characters representing the possible outcomes for the bet.
+     * @param game  A {@link String} describing the game matchup (e.g., "Team A vs Team B").
+     * @param odds  The decimal odds for this bet.
+     * @param sport The {@link Sport} of the bet, defining the possible outcomes for the bet.
      */
-    public Bet(String game, double odds, char[] availableChoices) {
-        this.game = game;
+    public Bet(String game, double odds, Sport sport) {
+        this.game = BetCatalog.INSTANCE.intern(game);
         this.odds = odds;
-        this.availableChoices = availableChoices;
+        this.oddsUnits = Money.toOddsUnits(odds);
+        this.sport = sport;
         this.gameResult = '-';
     }
 
+    /**
+     * Retrieves the id of this bet, registering the bet in the {@link BetCatalog} if it has no id yet.
+     *
+     * @return The dense id of the bet.
+     * @throws IllegalStateException If the catalog has been cleared since the bet was registered, so that its id
+     *                               may have been given to another bet.
+     */
+    public int getId() {
+        long betRegistration = registration;
+        if (betRegistration < 0) {
+            betRegistration = register();
+        }
+        if ((int) (betRegistration >>> 32) != BetCatalog.INSTANCE.getGeneration()) {
+            throw new IllegalStateException("The bet catalog has been cleared since '" + game + "' was registered");
+        }
+        return (int) betRegistration;
+    }
+
+    /**
+     * Registers this bet in the {@link BetCatalog}, unless another thread has just done it.
+     *
+     * @return The registration of the bet, as returned by {@link BetCatalog#register(Bet)}.
+     */
+    private synchronized long register() {
+        if (registration < 0) {
+            registration = BetCatalog.INSTANCE.register(this);
+        }
+        return registration;
+    }
+
+    /**
+     * Retrieves the sport of this bet.
+     *
+     * @return The {@link Sport} of the bet.
+     */
+    public Sport getSport() {
+        return sport;
+    }
+
+    /**
+     * Retrieves the description of the game matchup of this bet.
+     *
+     * @return A {@link String} describing the game matchup (e.g., "Team A vs Team B").
+     */
+    public String getGame() {
+        return game;
+    }
+
     /**
      * Retrieves the odds associated with this bet.
      *
@@ -73,6 +151,15 @@ public abstract sealed class Bet permits BasketballBet, FootballBet {
         return odds;
     }
 
+    /**
+     * Retrieves the odds associated with this bet in fixed-point odds units.
+     *
+     * @return The odds for this bet, in ten-thousandths.
+     */
+    public long getOddsUnits() {
+        return oddsUnits;
+    }
+
     /**
      * Retrieves the final result of the game associated with this bet.
      *
@@ -87,21 +174,78 @@ public abstract sealed class Bet permits BasketballBet, FootballBet {
      * <p>
      * This should be one of the values in {@link #getAvailableChoices()}, representing the
      * outcome as per the betting choices defined for the specific sport type.
+     * Once the result is set, every registered {@link IGameResultListener} is notified.
      * </p>
      *
      * @param gameResult A {@code char} representing the outcome of the game.
      */
     public void setGameResult(char gameResult) {
         this.gameResult = gameResult;
+        for (IGameResultListener listener : gameResultListeners) {
+            listener.onGameResult(this);
+        }
+    }
+
+    /**
+     * Restores the result of the game for this bet, as it was persisted, without notifying any
+     * {@link IGameResultListener}.
+     * <p>
+     * This is meant for loading a bet whose result was already known, and processed, when it was saved: the
+     * listeners were notified back then, so notifying them again would, e.g., queue the bet for settlement or
+     * journal its result a second time.
+     * </p>
+     *
+     * @param gameResult A {@code char} representing the outcome of the game.
+     */
+    public void restoreGameResult(char gameResult) {
+        this.gameResult = gameResult;
     }
 
     /**
      * Retrieves the available choices for this bet.
+     * <p>
+     * The choices are shared by every bet of the same sport, so a new copy is returned on each call;
+     * {@link Sport#getChoiceCount()} and {@link Sport#getChoice(int)} of {@link #getSport()} access them
+     * without copying.
+     * </p>
      *
      * @return An array of {@code char} values representing the possible outcomes for this bet.
      */
     public char[] getAvailableChoices() {
-        return availableChoices;
+        return sport.getChoices();
+    }
+
+    /**
+     * Retrieves the position of the given choice within the available choices of this bet.
+     * <p>
+     * The position can be used to address per-choice data (e.g., the wagers placed on a specific
+     * outcome) through a small array instead of a map keyed by the choice character.
+     * </p>
+     *
+     * @param choice A {@code char} representing one of the possible outcomes of the bet.
+     * @return The index of the choice in {@link #getAvailableChoices()} (its {@link Sport} ordinal), or
+     * {@code -1} if the choice is not available for this bet.
+     */
+    public int getChoiceIndex(char choice) {
+        return sport.getChoiceOrdinal(choice);
+    }
+
+    /**
+     * Registers a listener to be notified whenever the result of a game is set.
+     *
+     * @param listener The {@link IGameResultListener} to be registered.
+     */
+    public static void addGameResultListener(IGameResultListener listener) {
+        gameResultListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously registered game result listener.
+     *
+     * @param listener The {@link IGameResultListener} to be unregistered.
+     */
+    public static void removeGameResultListener(IGameResultListener listener) {
+        gameResultListeners.remove(listener);
     }
 
 }
@@ -0,0 +1,135 @@
+package bet;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton catalog of the bets addressed by id.
+ * <p>
+ * A {@link Bet} is registered in the catalog the first time its id is requested with {@link Bet#getId()}, and
+ * assigned a dense {@code int} id (0, 1, 2, ...) in registration order. Wagers and per-bet tables can therefore
+ * refer to a bet by its id and address per-bet data through plain arrays, instead of through maps keyed by the
+ * bet object; the bet itself can be retrieved back with {@link #getBet(int)}.
+ * </p>
+ * <p>
+ * The catalog also interns the names of the games, so that bets created for the same game (e.g., when the same
+ * fixtures are imported or generated again) share a single {@link String}.
+ * </p>
+ * <p>
+ * The id of a bet never changes, so the catalog is shared by every organization and is not cleared when an
+ * organization is: a bet that outlives the organization it was added to keeps its id, and no other bet is ever
+ * given the same id. The catalog holds its bets and names until it is explicitly cleared with {@link #clear()},
+ * which restarts the ids from 0 in a new generation: a bet registered in an earlier generation can no longer
+ * be used by any structure addressing bets by id (e.g., a {@code customer.WagerStore}), and
+ * {@link Bet#getId()} rejects it rather than return an id that a newer bet may have.
+ * </p>
+ */
+public enum BetCatalog {
+
+    /**
+     * The singleton instance of the {@code bet.BetCatalog}.
+     */
+    INSTANCE;
+
+    /**
+     * The interned game names, each mapped to itself.
+     */
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * The registered bets, indexed by id; the array is replaced by a larger copy when full, under the lock of
+     * the catalog.
+     */
+    private volatile Bet[] bets = new Bet[1024];
+
+    /**
+     * The number of registered bets; written under the lock of the catalog, after the bet is stored, so that
+     * every bet with an id below the read size is visible.
+     */
+    private volatile int size;
+
+    /**
+     * The generation of the ids, increased by every {@link #clear()}.
+     */
+    private volatile int generation;
+
+    /**
+     * Returns the canonical instance of a game name, so that equal names are held only once.
+     *
+     * @param name The name to be interned.
+     * @return The interned {@link String}, equal to the given name.
+     */
+    public String intern(String name) {
+        String interned = names.get(name);
+        if (interned != null) {
+            return interned;
+        }
+        interned = names.putIfAbsent(name, name);
+        return interned != null ? interned : name;
+    }
+
+    /**
+     * Registers a new bet and assigns it the next id.
+     *
+     * @param bet The {@link Bet} to be registered.
+     * @return The registration of the bet: the current generation in the high 32 bits, and the id of the bet in
+     * the low 32 bits.
+     */
+    synchronized long register(Bet bet) {
+        int id = size;
+        if (id == bets.length) {
+            bets = Arrays.copyOf(bets, id * 2);
+        }
+        bets[id] = bet;
+        size = id + 1;
+        return (long) generation << 32 | id;
+    }
+
+    /**
+     * Returns the generation of the ids, which changes every time the catalog is cleared.
+     *
+     * @return The current generation.
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Retrieves the bet with the given id.
+     *
+     * @param id The id of the bet, as returned by {@link Bet#getId()}.
+     * @return The {@link Bet} with the given id.
+     * @throws IndexOutOfBoundsException If no bet has the given id.
+     */
+    public Bet getBet(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No bet with id " + id);
+        }
+        return bets[id];
+    }
+
+    /**
+     * Returns the number of registered bets, which is also the next id to be assigned.
+     *
+     * @return The number of bets.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every bet and interned name from the catalog, and restarts the ids from 0 in a new generation.
+     * <p>
+     * This is a reset of every structure addressing bets by id: the bets registered before can no longer be used
+     * by such structures, as {@link Bet#getId()} rejects them.
+     * </p>
+     */
+    public synchronized void clear() {
+        names.clear();
+        bets = new Bet[1024];
+        size = 0;
+        generation++;
+    }
+
+}
@@ -18,14 +18,15 @@ public final class FootballBet extends Bet {
      * Constructs a new {@code FootballBet} instance with the specified game details and odds.
      * <p>
      * The betting choices for a football game are predefined as '1', 'X', and '2', representing
-     * the possible outcomes of a home win, draw, or away win, respectively.
+     * the possible outcomes of a home win, draw, or away win, respectively, and are shared with every
+     * other football bet through {@link Sport#FOOTBALL}.
      * </p>
      *
      * @param game A {@link String} describing the football game matchup (e.g., "Manchester United vs Liverpool").
      * @param odds The decimal odds associated with this betting option.
      */
     public FootballBet(String game, double odds) {
-        super(game, odds, new char[]{'1', 'X', '2'});
+        super(game, odds, Sport.FOOTBALL);
     }
 
 }
@@ -0,0 +1,21 @@
+package bet;
+
+/**
+ * Interface for components that need to be notified as soon as the result of a game is set.
+ * <p>
+ * Listeners are registered with {@link Bet#addGameResultListener(IGameResultListener)} and are notified
+ * by {@link Bet#setGameResult(char)} on the thread that sets the result, so implementations should return
+ * quickly (e.g., by handing the result over to another thread).
+ * </p>
+ */
+@FunctionalInterface
+public interface IGameResultListener {
+
+    /**
+     * Called after the result of the game of a bet has been set.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    void onGameResult(Bet bet);
+
+}
@@ -0,0 +1,85 @@
+package bet;
+
+/**
+ * Enum representing the sports that can be bet on, each with its own immutable table of choices.
+ * <p>
+ * Every bet of a sport shares the choice table of the sport, instead of holding its own array of choices.
+ * Within a table, each choice is identified by its ordinal (its position in the table), so that per-choice
+ * data and the choices of wagers can be encoded as small integers:
+ * </p>
+ * <ul>
+ *     <li>{@link #FOOTBALL} - '1' (home win), 'X' (draw) and '2' (away win), with ordinals 0, 1 and 2.</li>
+ *     <li>{@link #BASKETBALL} - '1' (first team win) and '2' (second team win), with ordinals 0 and 1.</li>
+ * </ul>
+ */
+public enum Sport {
+
+    /**
+     * Football, with the choices '1', 'X' and '2'.
+     */
+    FOOTBALL('1', 'X', '2'),
+
+    /**
+     * Basketball, with the choices '1' and '2'.
+     */
+    BASKETBALL('1', '2');
+
+    /**
+     * The choices of this sport, indexed by ordinal; never modified nor exposed.
+     */
+    private final char[] choices;
+
+    /**
+     * Initializes a {@code Sport} with its table of choices.
+     *
+     * @param choices The choices of the sport, in ordinal order.
+     */
+    Sport(char... choices) {
+        this.choices = choices;
+    }
+
+    /**
+     * Returns the number of choices of this sport.
+     *
+     * @return The number of choices.
+     */
+    public int getChoiceCount() {
+        return choices.length;
+    }
+
+    /**
+     * Returns the choice with the given ordinal.
+     *
+     * @param ordinal The ordinal of the choice, between 0 (inclusive) and {@link #getChoiceCount()} (exclusive).
+     * @return The choice, as a {@code char}.
+     * @throws ArrayIndexOutOfBoundsException If the ordinal is out of range.
+     */
+    public char getChoice(int ordinal) {
+        return choices[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the given choice.
+     *
+     * @param choice A {@code char} representing a possible outcome.
+     * @return The ordinal of the choice, or {@code -1} if the choice is not available for this sport.
+     */
+    public int getChoiceOrdinal(char choice) {
+        for (int ordinal = 0; ordinal < choices.length; ordinal++) {
+            if (choices[ordinal] == choice) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the choices of this sport.
+     *
+     * @return A new array of {@code char} values, in ordinal order.
+     */
+    public char[] getChoices() {
+        return choices.clone();
+    }
+
+}
@@ -4,5 +4,10 @@
  * The {@code bet} package includes classes such as {@link bet.BasketballBet} and {@link bet.FootballBet},
  * which represent specific types of sports bets. The {@link bet.Bet} class is a generic base class for any kind of bet.
  * </p>
+ * <p>
+ * Every bet of a {@link bet.Sport} shares the immutable choice table of the sport, and has its game name interned
+ * by the {@link bet.BetCatalog}, which also assigns it a dense integer id once the id is needed. The id of a bet
+ * never changes and is never given to another bet, unless the catalog itself is cleared.
+ * </p>
  */
 package bet;
\ No newline at end of file
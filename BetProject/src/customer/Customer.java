@@ -1,7 +1,11 @@
 package customer;
 
+import util.Money;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a customer with betting capabilities, including a list of bets, total gains,
@@ -10,6 +14,11 @@ import java.util.List;
  * This class can be extended to support various customer tiers (e.g., Basic, Gold, Platinum),
  * each with a different betting limit defined by {@link CustomerType}.
  * </p>
+ * <p>
+ * The total gains and total spent amount are kept in minor units (see {@link Money}) in {@link LongAdder}
+ * objects, so that they are exact and can be increased concurrently without contention. Every change of
+ * the totals marks the customer to be moved to their new position on the {@link Leaderboard}.
+ * </p>
  */
 public sealed class Customer implements IGiveBetList permits GoldCustomer, PlatinumCustomer {
 
@@ -27,20 +36,45 @@ public sealed class Customer implements IGiveBetList permits GoldCustomer, Plati
      */
     private final int maxStake;
 
+    /**
+     * The type of the customer (Basic, Gold, Platinum), which determines their maximum stake.
+     */
+    private final CustomerType customerType;
+
     /**
      * A list of {@link CustomerBet} objects placed by the customer.
      */
     private final List<CustomerBet> customerBets = new ArrayList<>();
 
     /**
-     * The total amount of money the customer has gained from their successful bets.
+     * The total amount of money the customer has gained from their successful bets, in minor units.
+     */
+    private final LongAdder totalGainsMinorUnits = new LongAdder();
+
+    /**
+     * The total amount of money the customer has spent on placing bets, in minor units.
+     */
+    private final LongAdder totalSpentMinorUnits = new LongAdder();
+
+    /**
+     * The current position of the customer on the {@link Leaderboard}; {@code null} until they are first ranked.
+     */
+    private Leaderboard.Standing standing;
+
+    /**
+     * {@code true} while the customer is queued to be moved on the {@link Leaderboard}.
      */
-    private double totalGains = 0.0;
+    private final AtomicBoolean rankingChanged = new AtomicBoolean();
 
     /**
-     * The total amount of money the customer has spent on placing bets.
+     * The exact tally of the stakes of the customer per bet; {@code null} until the {@link StakeGuard} needs it.
      */
-    private double totalSpent = 0.0;
+    private StakeTally stakeTally;
+
+    /**
+     * The {@link StakeGuard} epoch in which the last wager of the customer was recorded.
+     */
+    private int stakeGuardEpoch;
 
     /**
      * Constructs a customer with a basic betting limit, corresponding to the {@link CustomerType#BASIC} type.
@@ -50,6 +84,7 @@ public sealed class Customer implements IGiveBetList permits GoldCustomer, Plati
     public Customer(String fullName) {
         this.fullName = fullName;
         this.maxStake = CustomerType.BASIC.getMaxStake();
+        this.customerType = CustomerType.BASIC;
     }
 
     /**
@@ -67,6 +102,25 @@ public sealed class Customer implements IGiveBetList permits GoldCustomer, Plati
             case CustomerType.PLATINUM -> this.maxStake = CustomerType.PLATINUM.getMaxStake();
             default -> this.maxStake = CustomerType.BASIC.getMaxStake();
         }
+        this.customerType = customerType;
+    }
+
+    /**
+     * Gets the full name of the customer.
+     *
+     * @return The full name of the customer.
+     */
+    public String getFullName() {
+        return fullName;
+    }
+
+    /**
+     * Gets the type of the customer, which determines their maximum stake.
+     *
+     * @return The {@link CustomerType} of the customer.
+     */
+    public CustomerType getCustomerType() {
+        return customerType;
     }
 
     /**
@@ -80,29 +134,115 @@ public sealed class Customer implements IGiveBetList permits GoldCustomer, Plati
 
     /**
      * Adds a new bet to the customer's list of bets.
+     * <p>
+     * The bet is also registered in the {@link CustomerBetIndex}, so that it can be settled
+     * directly once the result of its game is known. If it is still open, its potential payout is added to the
+     * {@link LiabilityIndex}.
+     * </p>
+     * <p>
+     * The bet is recorded by the {@link StakeGuard} first, so that the cumulative stake of the customer on the
+     * bet is known to later placements. The limits themselves are not checked here, so that the bets already
+     * accepted (e.g., restored from a snapshot) are always added.
+     * </p>
      *
      * @param customerBet The {@link CustomerBet} object representing the bet to be added.
      */
     public void addCustomerBet(CustomerBet customerBet) {
+        addCustomerBet(customerBet, true);
+    }
+
+    /**
+     * Adds a new bet to the customer's list of bets, without registering it in the {@link CustomerBetIndex}.
+     * <p>
+     * This method is meant for the organizations that index and settle the bets of their customers themselves,
+     * e.g., on the shard owning the customer; the bet is otherwise added as by
+     * {@link #addCustomerBet(CustomerBet)}.
+     * </p>
+     *
+     * @param customerBet The {@link CustomerBet} object representing the bet to be added.
+     */
+    public void addUnindexedCustomerBet(CustomerBet customerBet) {
+        addCustomerBet(customerBet, false);
+    }
+
+    /**
+     * Adds a new bet to the customer's list of bets, optionally registering it in the {@link CustomerBetIndex}.
+     *
+     * @param customerBet The {@link CustomerBet} object representing the bet to be added.
+     * @param indexed     {@code true} if the bet is to be registered in the {@link CustomerBetIndex}.
+     */
+    private void addCustomerBet(CustomerBet customerBet, boolean indexed) {
+        customerBet.setCustomer(this);
+        StakeGuard.INSTANCE.record(this, customerBet);
         customerBets.add(customerBet);
+        if (indexed) {
+            CustomerBetIndex.INSTANCE.register(customerBet);
+        }
+        if (customerBet.getSettlementState() == SettlementState.OPEN) {
+            LiabilityIndex.INSTANCE.add(customerBet);
+        }
     }
 
     /**
      * Increases the customer's total gains by a specified amount.
+     * <p>
+     * This method can be called concurrently, e.g., when the customer's bets are settled in parallel.
+     * </p>
      *
-     * @param gain The amount to add to the customer's total gains.
+     * @param gainMinorUnits The amount to add to the customer's total gains, in minor units.
      */
-    public void increaseTotalGains(double gain) {
-        totalGains += gain;
+    public void increaseTotalGainsMinorUnits(long gainMinorUnits) {
+        totalGainsMinorUnits.add(gainMinorUnits);
+        Leaderboard.INSTANCE.update(this);
     }
 
     /**
      * Increases the total amount the customer has spent on bets by a specified amount.
+     * <p>
+     * This method can be called concurrently, e.g., when bets are placed concurrently.
+     * </p>
+     *
+     * @param spentMinorUnits The amount to add to the customer's total spent amount, in minor units.
+     */
+    public void increaseTotalSpentMinorUnits(long spentMinorUnits) {
+        totalSpentMinorUnits.add(spentMinorUnits);
+        Leaderboard.INSTANCE.update(this);
+    }
+
+    /**
+     * Retrieves the total amount of money the customer has gained from their successful bets.
+     *
+     * @return The customer's total gains.
+     */
+    public double getTotalGains() {
+        return Money.toAmount(totalGainsMinorUnits.sum());
+    }
+
+    /**
+     * Retrieves the total amount of money the customer has gained from their successful bets, in minor units.
+     *
+     * @return The customer's total gains in minor units.
+     */
+    public long getTotalGainsMinorUnits() {
+        return totalGainsMinorUnits.sum();
+    }
+
+    /**
+     * Retrieves the total amount of money the customer has spent on placing bets.
      *
-     * @param spent The amount to add to the customer's total spent amount.
+     * @return The customer's total spent amount.
      */
-    public void increaseTotalSpent(double spent) {
-        totalSpent += spent;
+    public double getTotalSpent() {
+        return Money.toAmount(totalSpentMinorUnits.sum());
+    }
+
+    /**
+     * Retrieves the total amount of money the customer has spent on placing bets, in minor units.
+     *
+     * @return The customer's total spent amount in minor units.
+     */
+    public long getTotalSpentMinorUnits() {
+        return totalSpentMinorUnits.sum();
     }
 
     /**
@@ -115,6 +255,82 @@ public sealed class Customer implements IGiveBetList permits GoldCustomer, Plati
         return customerBets;
     }
 
+    /**
+     * Retrieves the current position of the customer on the {@link Leaderboard}.
+     * Must be called while holding the lock of the leaderboard.
+     *
+     * @return The {@link Leaderboard.Standing} of the customer; {@code null} if they have not been ranked yet.
+     */
+    Leaderboard.Standing getStanding() {
+        return standing;
+    }
+
+    /**
+     * Sets the current position of the customer on the {@link Leaderboard}.
+     * Must be called while holding the lock of the leaderboard.
+     *
+     * @param standing The new {@link Leaderboard.Standing} of the customer.
+     */
+    void setStanding(Leaderboard.Standing standing) {
+        this.standing = standing;
+    }
+
+    /**
+     * Retrieves the exact tally of the stakes of the customer per bet.
+     * Must be called by the thread adding a bet to the customer.
+     *
+     * @return The {@link StakeTally} of the customer; {@code null} if it has not been built yet.
+     */
+    StakeTally getStakeTally() {
+        return stakeTally;
+    }
+
+    /**
+     * Sets the exact tally of the stakes of the customer per bet.
+     * Must be called by the thread adding a bet to the customer.
+     *
+     * @param stakeTally The new {@link StakeTally} of the customer.
+     */
+    void setStakeTally(StakeTally stakeTally) {
+        this.stakeTally = stakeTally;
+    }
+
+    /**
+     * Retrieves the {@link StakeGuard} epoch in which the last wager of the customer was recorded.
+     * Must be called by the thread adding a bet to the customer.
+     *
+     * @return The epoch of the last recorded wager.
+     */
+    int getStakeGuardEpoch() {
+        return stakeGuardEpoch;
+    }
+
+    /**
+     * Sets the {@link StakeGuard} epoch in which the last wager of the customer was recorded.
+     * Must be called by the thread adding a bet to the customer.
+     *
+     * @param stakeGuardEpoch The epoch of the last recorded wager.
+     */
+    void setStakeGuardEpoch(int stakeGuardEpoch) {
+        this.stakeGuardEpoch = stakeGuardEpoch;
+    }
+
+    /**
+     * Marks the customer to be moved on the {@link Leaderboard}.
+     *
+     * @return {@code true} if the customer was not marked yet, and must therefore be queued.
+     */
+    boolean markRankingChanged() {
+        return rankingChanged.compareAndSet(false, true);
+    }
+
+    /**
+     * Unmarks the customer once they have been dequeued by the {@link Leaderboard}, before their totals are read.
+     */
+    void clearRankingChanged() {
+        rankingChanged.set(false);
+    }
+
     /**
      * Returns a string representation of the customer, including their full name,
      * total amount spent, and total gains.
@@ -123,9 +339,23 @@ public sealed class Customer implements IGiveBetList permits GoldCustomer, Plati
      */
     @Override
     public String toString() {
-        return "Customer full name: " + fullName +
-               ",\nCustomer total spent: " + totalSpent +
-               ",\nCustomer total gains: " + totalGains;
+        return appendTo(new StringBuilder(96)).toString();
+    }
+
+    /**
+     * Appends the string representation of the customer, as returned by {@link #toString()}, to a builder.
+     * <p>
+     * This lets the report render many customers into one reusable buffer, without creating an intermediate
+     * string for each of them.
+     * </p>
+     *
+     * @param builder The {@link StringBuilder} to append to.
+     * @return The given builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        return builder.append("Customer full name: ").append(fullName)
+                .append(",\nCustomer total spent: ").append(getTotalSpent())
+                .append(",\nCustomer total gains: ").append(getTotalGains());
     }
 
 }
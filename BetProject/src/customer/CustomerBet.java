@@ -1,12 +1,18 @@
 package customer;
 
 import bet.Bet;
+import metrics.BetMetrics;
+import util.Money;
 
 /**
  * Represents a customer's individual bet, including the bet details, stake amount, choice, and potential payout.
  * <p>
  * Each {@code CustomerBet} instance encapsulates a specific {@link Bet}, the amount staked by the customer,
- * the customer's choice for the bet, and an adjustable payout amount.
+ * the customer's choice for the bet, and the payout amount set when the bet is settled.
+ * </p>
+ * <p>
+ * Each customer bet also carries a {@link SettlementState}, which ensures that it is settled only once,
+ * however many times its bet is settled.
  * </p>
  */
 public final class CustomerBet {
@@ -27,9 +33,30 @@ public final class CustomerBet {
     private final char choice;
 
     /**
-     * The payout amount for this bet, which is adjusted based on the outcome of the bet.
+     * The payout amount for this bet in minor units, set by {@link #settle(SettlementState, long)}.
+     */
+    private long payoutMinorUnits;
+
+    /**
+     * The {@link Customer} who placed this bet.
+     * <p>
+     * This field is assigned when the bet is added to a customer through
+     * {@link Customer#addCustomerBet(CustomerBet)}, so that the bet can be settled directly
+     * from the {@link CustomerBetIndex} without scanning every customer.
+     * </p>
+     */
+    private Customer customer;
+
+    /**
+     * The settlement state of this bet; {@link SettlementState#OPEN} until the bet is settled.
+     */
+    private SettlementState settlementState;
+
+    /**
+     * {@code true} once the placement of this bet has been counted by the {@link BetMetrics}, so that its
+     * settlement is counted too.
      */
-    private double payout;
+    private boolean placementRecorded;
 
     /**
      * Constructs a new {@code CustomerBet} with specified details of the bet, stake, and choice.
@@ -42,7 +69,8 @@ public final class CustomerBet {
         this.bet = bet;
         this.stake = stake;
         this.choice = choice;
-        payout = 0.0;
+        payoutMinorUnits = 0;
+        settlementState = SettlementState.OPEN;
     }
 
     /**
@@ -73,12 +101,93 @@ public final class CustomerBet {
     }
 
     /**
-     * Sets the payout amount for this bet based on its outcome.
+     * Returns the payout amount for this bet.
+     *
+     * @return The payout amount; {@code 0.0} if the bet has not been settled as won.
+     */
+    public synchronized double getPayout() {
+        return Money.toAmount(payoutMinorUnits);
+    }
+
+    /**
+     * Returns the payout amount for this bet in minor units.
+     *
+     * @return The payout amount in minor units; {@code 0} if the bet has not been settled as won.
+     */
+    public synchronized long getPayoutMinorUnits() {
+        return payoutMinorUnits;
+    }
+
+    /**
+     * Returns the settlement state of this bet.
+     *
+     * @return The {@link SettlementState} of this bet.
+     */
+    public synchronized SettlementState getSettlementState() {
+        return settlementState;
+    }
+
+    /**
+     * Counts the placement of this bet by the {@link BetMetrics}, if it is still open.
+     * <p>
+     * This is meant for the organizations placing a new wager, before adding it to its customer: the bets added
+     * otherwise (e.g., restored from a snapshot, replayed from a journal or imported) were placed earlier, so
+     * neither their placement nor their settlement is counted.
+     * </p>
+     */
+    public synchronized void recordPlacement() {
+        if (settlementState == SettlementState.OPEN && !placementRecorded) {
+            placementRecorded = true;
+            BetMetrics.INSTANCE.recordWagerPlaced(stake);
+        }
+    }
+
+    /**
+     * Settles this bet with the specified final state and payout, if it has not been settled yet.
+     * <p>
+     * A bet is settled at most once: if it is no longer {@link SettlementState#OPEN}, this method has
+     * no effect and returns {@code false}, so the caller must not credit or refund the customer again.
+     * The settlement of a bet that has already been added to a customer releases its potential payout from the
+     * {@link LiabilityIndex}; the settlement of a bet whose placement was counted (see {@link #recordPlacement()})
+     * is counted by the {@link BetMetrics}.
+     * </p>
+     *
+     * @param state            The final {@link SettlementState} of this bet.
+     * @param payoutMinorUnits The calculated payout amount for this bet, in minor units.
+     * @return {@code true} if this call settled the bet; {@code false} if it was already settled.
+     */
+    public synchronized boolean settle(SettlementState state, long payoutMinorUnits) {
+        if (settlementState != SettlementState.OPEN) {
+            return false;
+        }
+        this.settlementState = state;
+        this.payoutMinorUnits = payoutMinorUnits;
+        if (customer != null) {
+            LiabilityIndex.INSTANCE.release(this);
+        }
+        if (placementRecorded) {
+            BetMetrics.INSTANCE.recordWagerSettled(stake);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the customer who placed this bet.
+     *
+     * @return The {@link Customer} who placed this bet, or {@code null} if the bet has not been
+     * added to a customer yet.
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Sets the customer who placed this bet.
      *
-     * @param payout The calculated payout amount for this bet.
+     * @param customer The {@link Customer} who placed this bet.
      */
-    public void setPayout(double payout) {
-        this.payout = payout;
+    void setCustomer(Customer customer) {
+        this.customer = customer;
     }
 
 }
@@ -0,0 +1,95 @@
+package customer;
+
+import bet.Bet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton reverse index from a {@link Bet} to the {@link CustomerBet} objects placed on it,
+ * grouped by the chosen outcome.
+ * <p>
+ * The index is maintained by {@link Customer#addCustomerBet(CustomerBet)}, so every bet added to a
+ * customer is also reachable from the bet it was placed on. Once the result of a game is known,
+ * the winning bets can be retrieved with a single lookup instead of scanning every customer.
+ * </p>
+ * <p>
+ * For each bet, the wagers are kept in one list per available choice, addressed by
+ * {@link Bet#getChoiceIndex(char)} (e.g., '1', 'X', '2' for football bets).
+ * </p>
+ * <p>
+ * Customer bets may be registered concurrently by different threads. The customer bets of a
+ * bet should be retrieved once their registration is complete (e.g., after the game has finished).
+ * </p>
+ */
+public enum CustomerBetIndex {
+
+    /**
+     * The singleton instance of the {@code customer.CustomerBetIndex}.
+     */
+    INSTANCE;
+
+    /**
+     * A {@link Map} from each {@link Bet} to its customer bets, one {@link List} per available choice.
+     */
+    private final Map<Bet, List<List<CustomerBet>>> customerBetsByBet = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a customer bet in the group of the bet and choice it was placed on.
+     * <p>
+     * Customer bets with a choice that is not available for their bet are ignored, as they can never win.
+     * </p>
+     *
+     * @param customerBet The {@link CustomerBet} to be registered.
+     */
+    void register(CustomerBet customerBet) {
+        Bet bet = customerBet.getBet();
+        int choiceIndex = bet.getChoiceIndex(customerBet.getChoice());
+        if (choiceIndex < 0) {
+            return;
+        }
+
+        List<CustomerBet> group = customerBetsByBet.computeIfAbsent(bet, key -> {
+            List<List<CustomerBet>> groups = new ArrayList<>(key.getSport().getChoiceCount());
+            for (int i = 0; i < key.getSport().getChoiceCount(); i++) {
+                groups.add(new ArrayList<>());
+            }
+            return groups;
+        }).get(choiceIndex);
+
+        synchronized (group) {
+            group.add(customerBet);
+        }
+    }
+
+    /**
+     * Retrieves the customer bets placed on a specific choice of a bet.
+     *
+     * @param bet    The {@link Bet} whose customer bets are requested.
+     * @param choice The choice the customer bets were placed on.
+     * @return An unmodifiable snapshot {@link List} of {@link CustomerBet} objects, copied under the lock of the
+     * group so that it can be iterated while customer bets are still being registered; empty if no customer bet
+     * was placed on that choice.
+     */
+    public List<CustomerBet> getCustomerBets(Bet bet, char choice) {
+        List<List<CustomerBet>> groups = customerBetsByBet.get(bet);
+        int choiceIndex = bet.getChoiceIndex(choice);
+        if (groups == null || choiceIndex < 0) {
+            return List.of();
+        }
+        List<CustomerBet> group = groups.get(choiceIndex);
+        synchronized (group) {
+            return List.copyOf(group);
+        }
+    }
+
+    /**
+     * Removes every customer bet from the index.
+     */
+    public void clear() {
+        customerBetsByBet.clear();
+    }
+
+}
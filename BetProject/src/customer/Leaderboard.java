@@ -0,0 +1,193 @@
+package customer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Singleton leaderboard of the customers of each {@link CustomerType}, ranked by net gains.
+ * <p>
+ * The net gains of a customer are their total gains minus their total spent amount. Instead of sorting every
+ * customer on each query, the leaderboard keeps the customers of each type in a sorted set, ordered by net
+ * gains. Whenever {@link Customer#increaseTotalGainsMinorUnits(long)} or
+ * {@link Customer#increaseTotalSpentMinorUnits(long)} changes the totals of a customer, the customer is only
+ * marked as changed, without blocking; the next query moves every changed customer to their new position,
+ * in {@code O(log n)} time each, and then reads the biggest winners or losers from either end of the set in
+ * {@code O(N)} time. A customer whose totals change many times between two queries (e.g., while a batch of
+ * wagers is placed or settled) is therefore moved only once.
+ * </p>
+ * <p>
+ * The changes are applied and the board is read under a lock, so a query always ranks every customer by totals
+ * that are at least as recent as the last change completed before the query started.
+ * Only customers whose totals have changed appear on the board.
+ * </p>
+ */
+public enum Leaderboard {
+
+    /**
+     * The singleton instance of the {@code customer.Leaderboard}.
+     */
+    INSTANCE;
+
+    /**
+     * The standings of the customers of each type, indexed by {@link CustomerType} ordinal; guarded by {@link #lock}.
+     */
+    private final List<NavigableSet<Standing>> standingsByType = new ArrayList<>();
+
+    /**
+     * The customers whose totals have changed since they were last moved on the board, each queued once.
+     */
+    private final Queue<Customer> changedCustomers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The lock guarding the standings, held while the changes are applied and the board is read.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The next sequence number, breaking the ties between customers with equal net gains; guarded by {@link #lock}.
+     */
+    private long nextSequence;
+
+    /**
+     * Creates an empty board for every customer type.
+     */
+    Leaderboard() {
+        for (int i = 0; i < CustomerType.values().length; i++) {
+            standingsByType.add(new TreeSet<>(ranking()));
+        }
+    }
+
+    /**
+     * Marks a customer whose totals have changed, so that they are moved to their new position by the next query.
+     *
+     * @param customer The {@link Customer} whose totals have changed.
+     */
+    void update(Customer customer) {
+        if (customer.markRankingChanged()) {
+            changedCustomers.add(customer);
+        }
+    }
+
+    /**
+     * Retrieves the customers of a type with the highest net gains.
+     *
+     * @param customerType The {@link CustomerType} of the customers.
+     * @param count        The maximum number of customers to be retrieved.
+     * @return A {@link List} of at most {@code count} {@link LeaderboardEntry} objects, from the highest net gains down.
+     */
+    public List<LeaderboardEntry> getBiggestWinners(CustomerType customerType, int count) {
+        lock.lock();
+        try {
+            applyChanges();
+            return collect(standingsByType.get(customerType.ordinal()).iterator(), count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the customers of a type with the lowest net gains.
+     *
+     * @param customerType The {@link CustomerType} of the customers.
+     * @param count        The maximum number of customers to be retrieved.
+     * @return A {@link List} of at most {@code count} {@link LeaderboardEntry} objects, from the lowest net gains up.
+     */
+    public List<LeaderboardEntry> getBiggestLosers(CustomerType customerType, int count) {
+        lock.lock();
+        try {
+            applyChanges();
+            return collect(standingsByType.get(customerType.ordinal()).descendingIterator(), count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every customer from the board.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (Customer customer = changedCustomers.poll(); customer != null; customer = changedCustomers.poll()) {
+                customer.clearRankingChanged();
+            }
+            standingsByType.forEach(NavigableSet::clear);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves every changed customer to the position of their current net gains.
+     * Must be called while holding the lock.
+     * <p>
+     * A customer is unmarked before their totals are read, so a change completed after that read marks them
+     * again and is applied by the next query.
+     * </p>
+     */
+    private void applyChanges() {
+        for (Customer customer = changedCustomers.poll(); customer != null; customer = changedCustomers.poll()) {
+            customer.clearRankingChanged();
+
+            NavigableSet<Standing> standings = standingsByType.get(customer.getCustomerType().ordinal());
+            long netGains = customer.getTotalGainsMinorUnits() - customer.getTotalSpentMinorUnits();
+            Standing previous = customer.getStanding();
+            if (previous != null && previous.netGainsMinorUnits() == netGains && standings.contains(previous)) {
+                continue;
+            }
+
+            long sequence = previous != null ? previous.sequence() : nextSequence++;
+            Standing current = new Standing(customer, netGains, sequence);
+            if (previous != null) {
+                standings.remove(previous);
+            }
+            standings.add(current);
+            customer.setStanding(current);
+        }
+    }
+
+    /**
+     * Returns the order of the standings: by descending net gains, then by ascending sequence number.
+     *
+     * @return The {@link Comparator} of the standings.
+     */
+    private static Comparator<Standing> ranking() {
+        return Comparator.comparingLong(Standing::netGainsMinorUnits)
+                .reversed()
+                .thenComparingLong(Standing::sequence);
+    }
+
+    /**
+     * Collects the first standings of an iteration as leaderboard entries.
+     *
+     * @param iterator The {@link Iterator} over the standings, in the requested order.
+     * @param count    The maximum number of standings to be collected.
+     * @return A {@link List} of at most {@code count} {@link LeaderboardEntry} objects.
+     */
+    private static List<LeaderboardEntry> collect(Iterator<Standing> iterator, int count) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.max(count, 0));
+        while (entries.size() < count && iterator.hasNext()) {
+            Standing standing = iterator.next();
+            entries.add(new LeaderboardEntry(standing.customer(), standing.netGainsMinorUnits()));
+        }
+        return entries;
+    }
+
+    /**
+     * The position of a customer on the board.
+     *
+     * @param customer           The {@link Customer} of the standing.
+     * @param netGainsMinorUnits The net gains of the customer, in minor units.
+     * @param sequence           The sequence number of the customer, unique on the board.
+     */
+    record Standing(Customer customer, long netGainsMinorUnits, long sequence) {
+    }
+
+}
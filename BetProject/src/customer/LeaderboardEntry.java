@@ -0,0 +1,22 @@
+package customer;
+
+import util.Money;
+
+/**
+ * An entry of the {@link Leaderboard}: a customer together with their net gains when the board was queried.
+ *
+ * @param customer           The {@link Customer} of the entry.
+ * @param netGainsMinorUnits The net gains of the customer (total gains minus total spent amount), in minor units.
+ */
+public record LeaderboardEntry(Customer customer, long netGainsMinorUnits) {
+
+    /**
+     * Returns the net gains of the customer of the entry.
+     *
+     * @return The net gains; negative if the customer has lost money.
+     */
+    public double netGains() {
+        return Money.toAmount(netGainsMinorUnits);
+    }
+
+}
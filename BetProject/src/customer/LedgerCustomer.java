@@ -0,0 +1,133 @@
+package customer;
+
+import util.Money;
+
+import java.util.List;
+
+/**
+ * Lightweight, read-only view of a single customer held in an {@link OffHeapLedger}.
+ * <p>
+ * A {@code LedgerCustomer} exposes the same information as a {@link Customer}, but does not hold any of it:
+ * every getter reads the customer record of the ledger, so the view always reflects the current totals of
+ * the customer (e.g., their gains after {@link OffHeapLedger#settle()}).
+ * </p>
+ */
+public final class LedgerCustomer {
+
+    /**
+     * The {@link OffHeapLedger} holding the customer.
+     */
+    private final OffHeapLedger ledger;
+
+    /**
+     * The id of the customer in the ledger.
+     */
+    private final int id;
+
+    /**
+     * Constructs a new {@code LedgerCustomer} view of the specified customer.
+     *
+     * @param ledger The {@link OffHeapLedger} holding the customer.
+     * @param id     The id of the customer in the ledger.
+     */
+    LedgerCustomer(OffHeapLedger ledger, int id) {
+        this.ledger = ledger;
+        this.id = id;
+    }
+
+    /**
+     * Returns the id of this customer in the ledger.
+     *
+     * @return The id of the customer.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the full name of the customer.
+     *
+     * @return The full name of the customer.
+     */
+    public String getFullName() {
+        return ledger.getFullName(id);
+    }
+
+    /**
+     * Returns the type of the customer.
+     *
+     * @return The {@link CustomerType} of the customer.
+     */
+    public CustomerType getCustomerType() {
+        return ledger.getCustomerType(id);
+    }
+
+    /**
+     * Returns the total amount the customer has spent on placing bets.
+     *
+     * @return The total amount spent.
+     */
+    public double getTotalSpent() {
+        return Money.toAmount(getTotalSpentMinorUnits());
+    }
+
+    /**
+     * Returns the total amount the customer has spent on placing bets, in minor units.
+     *
+     * @return The total amount spent, in minor units.
+     */
+    public long getTotalSpentMinorUnits() {
+        return ledger.getTotalSpentMinorUnits(id);
+    }
+
+    /**
+     * Returns the total gains of the customer from their successful bets.
+     *
+     * @return The total gains.
+     */
+    public double getTotalGains() {
+        return Money.toAmount(getTotalGainsMinorUnits());
+    }
+
+    /**
+     * Returns the total gains of the customer from their successful bets, in minor units.
+     *
+     * @return The total gains, in minor units.
+     */
+    public long getTotalGainsMinorUnits() {
+        return ledger.getTotalGainsMinorUnits(id);
+    }
+
+    /**
+     * Retrieves the wagers placed by the customer, in the order they were placed.
+     *
+     * @return A {@link List} of {@link LedgerWager} views; empty if the customer has no wagers.
+     */
+    public List<LedgerWager> getWagers() {
+        return ledger.getCustomerWagers(id);
+    }
+
+    /**
+     * Appends the string representation of the customer, in the same format as {@link Customer#toString()},
+     * to a builder.
+     *
+     * @param builder The {@link StringBuilder} to append to.
+     * @return The given builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        return builder.append("Customer full name: ").append(getFullName())
+                .append(",\nCustomer total spent: ").append(getTotalSpent())
+                .append(",\nCustomer total gains: ").append(getTotalGains());
+    }
+
+    /**
+     * Returns a string representation of the customer, in the same format as {@link Customer#toString()}.
+     *
+     * @return A string summarizing the customer's information.
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(96)).toString();
+    }
+
+}
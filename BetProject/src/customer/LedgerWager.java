@@ -0,0 +1,109 @@
+package customer;
+
+import bet.Bet;
+import util.Money;
+
+/**
+ * Lightweight, read-only view of a single wager held in an {@link OffHeapLedger}.
+ * <p>
+ * A {@code LedgerWager} exposes the same information as a {@link CustomerBet}, but does not hold any of it:
+ * every getter reads the wager record of the ledger, so the view always reflects the current state of the
+ * wager (e.g., its payout after {@link OffHeapLedger#settle()}).
+ * </p>
+ */
+public final class LedgerWager {
+
+    /**
+     * The {@link OffHeapLedger} holding the wager.
+     */
+    private final OffHeapLedger ledger;
+
+    /**
+     * The id of the wager in the ledger.
+     */
+    private final long id;
+
+    /**
+     * Constructs a new {@code LedgerWager} view of the specified wager.
+     *
+     * @param ledger The {@link OffHeapLedger} holding the wager.
+     * @param id     The id of the wager in the ledger.
+     */
+    LedgerWager(OffHeapLedger ledger, long id) {
+        this.ledger = ledger;
+        this.id = id;
+    }
+
+    /**
+     * Returns the id of this wager in the ledger.
+     *
+     * @return The id of the wager.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the bet details associated with this wager.
+     *
+     * @return The {@link Bet} object representing the details of the bet.
+     */
+    public Bet getBet() {
+        return ledger.getBet(id);
+    }
+
+    /**
+     * Retrieves the customer who placed this wager.
+     *
+     * @return The {@link LedgerCustomer} view of the customer who placed this wager.
+     */
+    public LedgerCustomer getCustomer() {
+        return new LedgerCustomer(ledger, ledger.getCustomerId(id));
+    }
+
+    /**
+     * Returns the amount of money staked on this wager.
+     *
+     * @return The amount of the stake placed by the customer.
+     */
+    public int getStake() {
+        return ledger.getStake(id);
+    }
+
+    /**
+     * Returns the choice made by the customer for this wager.
+     *
+     * @return The customer's choice as a character.
+     */
+    public char getChoice() {
+        return ledger.getChoice(id);
+    }
+
+    /**
+     * Returns the settlement state of this wager.
+     *
+     * @return The {@link SettlementState} of the wager.
+     */
+    public SettlementState getSettlementState() {
+        return ledger.getSettlementState(id);
+    }
+
+    /**
+     * Returns the payout of this wager.
+     *
+     * @return The payout amount; {@code 0.0} unless the wager has been settled as won.
+     */
+    public double getPayout() {
+        return Money.toAmount(getPayoutMinorUnits());
+    }
+
+    /**
+     * Returns the payout of this wager, in minor units.
+     *
+     * @return The payout, in minor units; {@code 0} unless the wager has been settled as won.
+     */
+    public long getPayoutMinorUnits() {
+        return ledger.getPayoutMinorUnits(id);
+    }
+
+}
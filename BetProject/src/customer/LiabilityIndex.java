@@ -0,0 +1,208 @@
+package customer;
+
+import bet.Bet;
+import util.Money;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton holding the running liability (exposure) of the house for every outcome of every bet.
+ * <p>
+ * The liability of an outcome is the amount the house pays if that outcome wins, i.e., the sum of
+ * {@code stake × odds} over the open customer bets placed on it. It is increased by
+ * {@link Customer#addCustomerBet(CustomerBet)} when an open customer bet is added, and released by
+ * {@link CustomerBet#settle(SettlementState, long)} when it is settled (won, lost or void), so it always
+ * reflects the open customer bets without scanning any customer.
+ * </p>
+ * <p>
+ * For each bet, the liabilities are kept in minor units (see {@link Money}) in one {@link LongAdder} per
+ * available choice, addressed by {@link Bet#getChoiceIndex(char)}. Placements and settlements update them
+ * without locking, and readers query them in constant time without ever blocking a placement.
+ * </p>
+ * <p>
+ * The accumulators of a bet are removed as soon as a release leaves no liability on any of its outcomes, i.e.,
+ * once the bet is settled or voided, so that the index only holds the bets with open customer bets. To remove
+ * them without locking the placements, the accumulators of a bet are retired before being removed: a placement
+ * that finds them retired after adding its payout takes it back, and adds it again to the accumulators that
+ * replace them. Conversely, the accumulators are only removed if no payout was added before they were retired.
+ * </p>
+ */
+public enum LiabilityIndex {
+
+    /**
+     * The singleton instance of the {@code customer.LiabilityIndex}.
+     */
+    INSTANCE;
+
+    /**
+     * A {@link Map} from each {@link Bet} with open customer bets to its liabilities in minor units.
+     */
+    private final Map<Bet, Liabilities> liabilitiesByBet = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the potential payout of an open customer bet to the liability of its outcome.
+     * <p>
+     * Customer bets with a choice that is not available for their bet are ignored, as they can never win.
+     * </p>
+     *
+     * @param customerBet The open {@link CustomerBet} that has been placed.
+     */
+    void add(CustomerBet customerBet) {
+        Bet bet = customerBet.getBet();
+        int choiceIndex = bet.getChoiceIndex(customerBet.getChoice());
+        if (choiceIndex < 0) {
+            return;
+        }
+
+        long payout = Money.payout(customerBet.getStake(), bet.getOddsUnits());
+        while (true) {
+            Liabilities liabilities = liabilitiesByBet.get(bet);
+            if (liabilities == null) {
+                liabilities = liabilitiesByBet.computeIfAbsent(bet, Liabilities::new);
+            }
+            LongAdder liability = liabilities.adders[choiceIndex];
+            liability.add(payout);
+            if (!liabilities.retired) {
+                return;
+            }
+            // The accumulators are being removed: take the payout back, and add it to their replacement.
+            liability.add(-payout);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Releases the potential payout of a customer bet that has just been settled from the liability of its
+     * outcome, removing the accumulators of its bet if no liability is left on any outcome.
+     *
+     * @param customerBet The {@link CustomerBet} that has been settled.
+     */
+    void release(CustomerBet customerBet) {
+        Bet bet = customerBet.getBet();
+        int choiceIndex = bet.getChoiceIndex(customerBet.getChoice());
+        Liabilities liabilities = liabilitiesByBet.get(bet);
+        if (choiceIndex < 0 || liabilities == null) {
+            return;
+        }
+
+        liabilities.adders[choiceIndex].add(-Money.payout(customerBet.getStake(), bet.getOddsUnits()));
+        if (liabilities.isEmpty()) {
+            liabilitiesByBet.computeIfPresent(bet, (key, current) -> {
+                current.retired = true;
+                if (current.isEmpty()) {
+                    return null;
+                }
+                current.retired = false;
+                return current;
+            });
+        }
+    }
+
+    /**
+     * Retrieves the amount the house pays if the given outcome of a bet wins.
+     *
+     * @param bet    The {@link Bet} whose liability is requested.
+     * @param choice The outcome of the bet.
+     * @return The liability of the outcome; {@code 0.0} if no open customer bet is placed on it.
+     */
+    public double getLiability(Bet bet, char choice) {
+        return Money.toAmount(getLiabilityMinorUnits(bet, choice));
+    }
+
+    /**
+     * Retrieves the amount the house pays if the given outcome of a bet wins, in minor units.
+     *
+     * @param bet    The {@link Bet} whose liability is requested.
+     * @param choice The outcome of the bet.
+     * @return The liability of the outcome in minor units; {@code 0} if no open customer bet is placed on it.
+     */
+    public long getLiabilityMinorUnits(Bet bet, char choice) {
+        Liabilities liabilities = liabilitiesByBet.get(bet);
+        int choiceIndex = bet.getChoiceIndex(choice);
+        if (liabilities == null || choiceIndex < 0) {
+            return 0;
+        }
+        return liabilities.adders[choiceIndex].sum();
+    }
+
+    /**
+     * Retrieves the largest amount the house may pay for a bet, whatever its outcome.
+     *
+     * @param bet The {@link Bet} whose worst-case liability is requested.
+     * @return The liability of the most exposed outcome of the bet; {@code 0.0} if no open customer bet is placed on it.
+     */
+    public double getWorstCaseLiability(Bet bet) {
+        Liabilities liabilities = liabilitiesByBet.get(bet);
+        if (liabilities == null) {
+            return 0.0;
+        }
+
+        long worstCase = 0;
+        for (LongAdder liability : liabilities.adders) {
+            worstCase = Math.max(worstCase, liability.sum());
+        }
+        return Money.toAmount(worstCase);
+    }
+
+    /**
+     * Returns the number of bets with open customer bets held by the index.
+     *
+     * @return The number of bets.
+     */
+    public int getBetCount() {
+        return liabilitiesByBet.size();
+    }
+
+    /**
+     * Removes every liability from the index.
+     */
+    public void clear() {
+        liabilitiesByBet.clear();
+    }
+
+    /**
+     * The liability accumulators of a bet, one {@link LongAdder} per available choice.
+     */
+    private static final class Liabilities {
+
+        /**
+         * The liabilities of the outcomes of the bet in minor units, indexed by choice index.
+         */
+        private final LongAdder[] adders;
+
+        /**
+         * {@code true} while the accumulators are being removed, so that no payout may be added to them.
+         */
+        private volatile boolean retired;
+
+        /**
+         * Creates the accumulators of a bet, with no liability.
+         *
+         * @param bet The {@link Bet} whose liabilities are accumulated.
+         */
+        private Liabilities(Bet bet) {
+            adders = new LongAdder[bet.getSport().getChoiceCount()];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Tests whether no liability is left on any outcome of the bet.
+         *
+         * @return {@code true} if every liability is zero.
+         */
+        private boolean isEmpty() {
+            for (LongAdder adder : adders) {
+                if (adder.sum() != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,553 @@
+package customer;
+
+import bet.Bet;
+import util.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap ledger of customers and their wagers, for books too large to be held as heap objects.
+ * <p>
+ * Unlike {@link Customer} and {@link CustomerBet} objects, the customers and wagers of an {@code OffHeapLedger}
+ * are fixed-width records in direct memory (see {@link OffHeapRecords}), addressed by id: a customer record holds
+ * the totals, the type, the chain of wagers and the location of the UTF-8 full name, itself stored in off-heap
+ * pages; a wager record holds the ledger index of the bet, the customer id, the stake, the choice (as its
+ * {@link bet.Sport} ordinal), the settlement state, the payout, and the links of the chains of wagers of its
+ * customer and of its bet. The garbage collector therefore only sees a few arrays of page references, so its
+ * pauses do not grow with the number of wagers.
+ * </p>
+ * <p>
+ * The bets are indexed by the ledger itself, in the order they are first wagered on, rather than by their
+ * {@link bet.BetCatalog} id, so the records never depend on the catalog. For each bet, the ledger keeps the chain
+ * of its open wagers: {@link #settle()} and {@link #voidBet(Bet)} only walk the chains of the bets they settle,
+ * so their cost grows with the number of bets of the ledger and of wagers they settle, not with the number of
+ * wagers of the ledger.
+ * </p>
+ * <p>
+ * Customers and wagers are added by id, without allocating any object, and are read through lightweight
+ * {@link LedgerCustomer} and {@link LedgerWager} views, created on demand and holding nothing but an id. Amounts of money are stored in minor units (see {@link Money}).
+ * </p>
+ * <p>
+ * This class is not thread-safe: the records are read and written without any synchronization, by the ledger
+ * as well as by its views, so a ledger and its views must be confined to one thread at a time, e.g., handed over
+ * through a lock or a concurrent queue.
+ * </p>
+ */
+public final class OffHeapLedger {
+
+    /**
+     * The size of a customer record, in bytes.
+     */
+    private static final int CUSTOMER_RECORD_SIZE = 48;
+
+    /**
+     * The offset of the total spent amount (long, minor units) within a customer record.
+     */
+    private static final int CUSTOMER_TOTAL_SPENT = 0;
+
+    /**
+     * The offset of the total gains (long, minor units) within a customer record.
+     */
+    private static final int CUSTOMER_TOTAL_GAINS = 8;
+
+    /**
+     * The offset of the id of the first wager (long, {@code -1} if none) within a customer record.
+     */
+    private static final int CUSTOMER_FIRST_WAGER = 16;
+
+    /**
+     * The offset of the id of the last wager (long, {@code -1} if none) within a customer record.
+     */
+    private static final int CUSTOMER_LAST_WAGER = 24;
+
+    /**
+     * The offset of the position of the full name in the name pages (long) within a customer record.
+     */
+    private static final int CUSTOMER_NAME_POSITION = 32;
+
+    /**
+     * The offset of the length of the full name in bytes (int) within a customer record.
+     */
+    private static final int CUSTOMER_NAME_LENGTH = 40;
+
+    /**
+     * The offset of the {@link CustomerType} ordinal (byte) within a customer record.
+     */
+    private static final int CUSTOMER_TYPE = 44;
+
+    /**
+     * The size of a wager record, in bytes.
+     */
+    private static final int WAGER_RECORD_SIZE = 40;
+
+    /**
+     * The offset of the id of the next wager of the same customer (long, {@code -1} if none) within a wager record.
+     */
+    private static final int WAGER_NEXT = 0;
+
+    /**
+     * The offset of the payout (long, minor units) within a wager record.
+     */
+    private static final int WAGER_PAYOUT = 8;
+
+    /**
+     * The offset of the ledger index of the bet (int) within a wager record.
+     */
+    private static final int WAGER_BET = 16;
+
+    /**
+     * The offset of the customer id (int) within a wager record.
+     */
+    private static final int WAGER_CUSTOMER = 20;
+
+    /**
+     * The offset of the stake (int) within a wager record.
+     */
+    private static final int WAGER_STAKE = 24;
+
+    /**
+     * The offset of the choice ordinal (byte) within a wager record.
+     */
+    private static final int WAGER_CHOICE = 28;
+
+    /**
+     * The offset of the {@link SettlementState} ordinal (byte) within a wager record.
+     */
+    private static final int WAGER_STATE = 29;
+
+    /**
+     * The offset of the id of the next open wager on the same bet (long, {@code -1} if none) within a wager record.
+     */
+    private static final int WAGER_NEXT_ON_BET = 32;
+
+    /**
+     * The size of a page of customer names, in bytes; also the maximum size of a single name.
+     */
+    private static final int NAME_PAGE_SIZE = 1 << 20;
+
+    /**
+     * The customer records, indexed by customer id.
+     */
+    private final OffHeapRecords customers = new OffHeapRecords(CUSTOMER_RECORD_SIZE);
+
+    /**
+     * The wager records, indexed by wager id.
+     */
+    private final OffHeapRecords wagers = new OffHeapRecords(WAGER_RECORD_SIZE);
+
+    /**
+     * The direct pages holding the UTF-8 bytes of the customer names.
+     */
+    private final List<ByteBuffer> namePages = new ArrayList<>();
+
+    /**
+     * The position of the next name byte, over all the name pages.
+     */
+    private long namePosition;
+
+    /**
+     * The bets wagered on, indexed by ledger index.
+     */
+    private final List<Bet> bets = new ArrayList<>();
+
+    /**
+     * The ledger index of each bet wagered on.
+     */
+    private final Map<Bet, Integer> betIndexes = new HashMap<>();
+
+    /**
+     * The id of the first open wager on each bet, indexed by ledger index; {@code -1} if the bet has none.
+     */
+    private long[] firstOpenWagers = new long[16];
+
+    /**
+     * The id of the last open wager on each bet, indexed by ledger index; {@code -1} if the bet has none.
+     */
+    private long[] lastOpenWagers = new long[16];
+
+    /**
+     * Adds a new customer to the ledger.
+     *
+     * @param fullName     The full name of the customer.
+     * @param customerType The {@link CustomerType} of the customer.
+     * @return The id of the new customer.
+     * @throws IllegalArgumentException If the UTF-8 encoding of the name is longer than one name page.
+     */
+    public int addCustomer(String fullName, CustomerType customerType) {
+        byte[] name = fullName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_PAGE_SIZE) {
+            throw new IllegalArgumentException("The full name of the customer is too long");
+        }
+        if (NAME_PAGE_SIZE - (int) (namePosition % NAME_PAGE_SIZE) < name.length) {
+            namePosition = (namePosition / NAME_PAGE_SIZE + 1) * NAME_PAGE_SIZE;
+        }
+        int namePage = (int) (namePosition / NAME_PAGE_SIZE);
+        if (namePage == namePages.size()) {
+            namePages.add(ByteBuffer.allocateDirect(NAME_PAGE_SIZE));
+        }
+        namePages.get(namePage).put((int) (namePosition % NAME_PAGE_SIZE), name);
+
+        long id = customers.add();
+        ByteBuffer page = customers.page(id);
+        int offset = customers.offset(id);
+        page.putLong(offset + CUSTOMER_FIRST_WAGER, -1)
+                .putLong(offset + CUSTOMER_LAST_WAGER, -1)
+                .putLong(offset + CUSTOMER_NAME_POSITION, namePosition)
+                .putInt(offset + CUSTOMER_NAME_LENGTH, name.length)
+                .put(offset + CUSTOMER_TYPE, (byte) customerType.ordinal());
+        namePosition += name.length;
+        return (int) id;
+    }
+
+    /**
+     * Places a new wager on behalf of a customer, adding its stake to the customer's total spent amount.
+     *
+     * @param customerId The id of the customer placing the wager.
+     * @param bet        The {@link Bet} the wager is placed on.
+     * @param stake      The amount staked by the customer.
+     * @param choice     The choice made by the customer (e.g., '1', 'X', '2').
+     * @return The id of the new wager.
+     * @throws IllegalArgumentException If the stake or the choice is not valid for this customer and bet.
+     * @throws IndexOutOfBoundsException If no customer has the given id.
+     */
+    public long addWager(int customerId, Bet bet, int stake, char choice) {
+        int maxStake = getCustomerType(customerId).getMaxStake();
+        if (stake <= 0 || stake > maxStake) {
+            throw new IllegalArgumentException("Stake " + stake + " is outside the allowed range 1-" + maxStake);
+        }
+        int choiceOrdinal = bet.getChoiceIndex(choice);
+        if (choiceOrdinal < 0) {
+            throw new IllegalArgumentException("Choice '" + choice + "' is not available for this bet");
+        }
+
+        int betIndex = indexOf(bet);
+        long id = wagers.add();
+        ByteBuffer page = wagers.page(id);
+        int offset = wagers.offset(id);
+        page.putLong(offset + WAGER_NEXT, -1)
+                .putLong(offset + WAGER_NEXT_ON_BET, -1)
+                .putInt(offset + WAGER_BET, betIndex)
+                .putInt(offset + WAGER_CUSTOMER, customerId)
+                .putInt(offset + WAGER_STAKE, stake)
+                .put(offset + WAGER_CHOICE, (byte) choiceOrdinal)
+                .put(offset + WAGER_STATE, (byte) SettlementState.OPEN.ordinal());
+
+        ByteBuffer customerPage = customers.page(customerId);
+        int customerOffset = customers.offset(customerId);
+        long lastWager = customerPage.getLong(customerOffset + CUSTOMER_LAST_WAGER);
+        if (lastWager < 0) {
+            customerPage.putLong(customerOffset + CUSTOMER_FIRST_WAGER, id);
+        } else {
+            wagers.page(lastWager).putLong(wagers.offset(lastWager) + WAGER_NEXT, id);
+        }
+        customerPage.putLong(customerOffset + CUSTOMER_LAST_WAGER, id);
+
+        long lastOpenWager = lastOpenWagers[betIndex];
+        if (lastOpenWager < 0) {
+            firstOpenWagers[betIndex] = id;
+        } else {
+            wagers.page(lastOpenWager).putLong(wagers.offset(lastOpenWager) + WAGER_NEXT_ON_BET, id);
+        }
+        lastOpenWagers[betIndex] = id;
+        addToCustomer(customerId, CUSTOMER_TOTAL_SPENT, Money.toMinorUnits(stake));
+        return id;
+    }
+
+    /**
+     * Settles every open wager whose bet has a determined game result.
+     * <p>
+     * Only the bets of the ledger with open wagers are visited, and the chain of open wagers of each bet with a
+     * determined result is walked and then emptied. A wager whose choice matches the result is settled as
+     * {@link SettlementState#WON}, with its exact payout added to the customer's total gains; any other
+     * wager on a resolved bet is settled as {@link SettlementState#LOST}. Settled wagers are never settled again.
+     * </p>
+     *
+     * @return The number of wagers settled by this call.
+     */
+    public long settle() {
+        long settled = 0;
+        for (int betIndex = 0; betIndex < bets.size(); betIndex++) {
+            if (firstOpenWagers[betIndex] < 0) {
+                continue;
+            }
+            Bet bet = bets.get(betIndex);
+            int result = bet.getChoiceIndex(bet.getGameResult());
+            if (result < 0) {
+                continue;
+            }
+
+            long oddsUnits = bet.getOddsUnits();
+            for (long id = takeOpenWagers(betIndex); id >= 0; ) {
+                ByteBuffer page = wagers.page(id);
+                int offset = wagers.offset(id);
+                if (page.get(offset + WAGER_CHOICE) == result) {
+                    long payout = Money.payout(page.getInt(offset + WAGER_STAKE), oddsUnits);
+                    page.putLong(offset + WAGER_PAYOUT, payout).put(offset + WAGER_STATE, (byte) SettlementState.WON.ordinal());
+                    addToCustomer(page.getInt(offset + WAGER_CUSTOMER), CUSTOMER_TOTAL_GAINS, payout);
+                } else {
+                    page.put(offset + WAGER_STATE, (byte) SettlementState.LOST.ordinal());
+                }
+                settled++;
+                id = page.getLong(offset + WAGER_NEXT_ON_BET);
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Cancels a bet, voiding the open wagers placed on it and refunding their stakes.
+     * <p>
+     * Only the chain of open wagers of the bet is walked.
+     * </p>
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     * @return The number of wagers voided by this call.
+     */
+    public long voidBet(Bet bet) {
+        Integer betIndex = betIndexes.get(bet);
+        if (betIndex == null) {
+            return 0;
+        }
+        long voided = 0;
+        for (long id = takeOpenWagers(betIndex); id >= 0; ) {
+            ByteBuffer page = wagers.page(id);
+            int offset = wagers.offset(id);
+            page.put(offset + WAGER_STATE, (byte) SettlementState.VOID.ordinal());
+            addToCustomer(page.getInt(offset + WAGER_CUSTOMER), CUSTOMER_TOTAL_SPENT,
+                    -Money.toMinorUnits(page.getInt(offset + WAGER_STAKE)));
+            voided++;
+            id = page.getLong(offset + WAGER_NEXT_ON_BET);
+        }
+        return voided;
+    }
+
+    /**
+     * Retrieves the view of a customer.
+     *
+     * @param customerId The id of the customer.
+     * @return The {@link LedgerCustomer} view of the customer.
+     * @throws IndexOutOfBoundsException If no customer has the given id.
+     */
+    public LedgerCustomer getCustomer(int customerId) {
+        customers.page(customerId);
+        return new LedgerCustomer(this, customerId);
+    }
+
+    /**
+     * Retrieves the view of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The {@link LedgerWager} view of the wager.
+     * @throws IndexOutOfBoundsException If no wager has the given id.
+     */
+    public LedgerWager getWager(long wagerId) {
+        wagers.page(wagerId);
+        return new LedgerWager(this, wagerId);
+    }
+
+    /**
+     * Returns the number of customers in the ledger.
+     *
+     * @return The number of customers.
+     */
+    public int getCustomerCount() {
+        return (int) customers.size();
+    }
+
+    /**
+     * Returns the number of wagers in the ledger.
+     *
+     * @return The number of wagers.
+     */
+    public long getWagerCount() {
+        return wagers.size();
+    }
+
+    /**
+     * Removes every customer and wager from the ledger, keeping its memory to be reused.
+     */
+    public void clear() {
+        customers.clear();
+        wagers.clear();
+        namePosition = 0;
+        bets.clear();
+        betIndexes.clear();
+    }
+
+    /**
+     * Retrieves the full name of a customer, decoded from the name pages.
+     *
+     * @param customerId The id of the customer.
+     * @return The full name of the customer.
+     */
+    String getFullName(int customerId) {
+        ByteBuffer page = customers.page(customerId);
+        int offset = customers.offset(customerId);
+        long position = page.getLong(offset + CUSTOMER_NAME_POSITION);
+        byte[] name = new byte[page.getInt(offset + CUSTOMER_NAME_LENGTH)];
+        namePages.get((int) (position / NAME_PAGE_SIZE)).get((int) (position % NAME_PAGE_SIZE), name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retrieves the type of a customer.
+     *
+     * @param customerId The id of the customer.
+     * @return The {@link CustomerType} of the customer.
+     */
+    CustomerType getCustomerType(int customerId) {
+        return CustomerType.values()[customers.page(customerId).get(customers.offset(customerId) + CUSTOMER_TYPE)];
+    }
+
+    /**
+     * Retrieves the total spent amount of a customer.
+     *
+     * @param customerId The id of the customer.
+     * @return The total spent amount, in minor units.
+     */
+    long getTotalSpentMinorUnits(int customerId) {
+        return customers.page(customerId).getLong(customers.offset(customerId) + CUSTOMER_TOTAL_SPENT);
+    }
+
+    /**
+     * Retrieves the total gains of a customer.
+     *
+     * @param customerId The id of the customer.
+     * @return The total gains, in minor units.
+     */
+    long getTotalGainsMinorUnits(int customerId) {
+        return customers.page(customerId).getLong(customers.offset(customerId) + CUSTOMER_TOTAL_GAINS);
+    }
+
+    /**
+     * Retrieves the wagers of a customer, in the order they were placed.
+     *
+     * @param customerId The id of the customer.
+     * @return A {@link List} of {@link LedgerWager} views; empty if the customer has no wagers.
+     */
+    List<LedgerWager> getCustomerWagers(int customerId) {
+        List<LedgerWager> customerWagers = new ArrayList<>();
+        long id = customers.page(customerId).getLong(customers.offset(customerId) + CUSTOMER_FIRST_WAGER);
+        for (; id >= 0; id = wagers.page(id).getLong(wagers.offset(id) + WAGER_NEXT)) {
+            customerWagers.add(new LedgerWager(this, id));
+        }
+        return customerWagers;
+    }
+
+    /**
+     * Retrieves the bet of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The {@link Bet} the wager is placed on.
+     */
+    Bet getBet(long wagerId) {
+        return bets.get(wagers.page(wagerId).getInt(wagers.offset(wagerId) + WAGER_BET));
+    }
+
+    /**
+     * Retrieves the customer id of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The id of the customer who placed the wager.
+     */
+    int getCustomerId(long wagerId) {
+        return wagers.page(wagerId).getInt(wagers.offset(wagerId) + WAGER_CUSTOMER);
+    }
+
+    /**
+     * Retrieves the stake of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The amount staked.
+     */
+    int getStake(long wagerId) {
+        return wagers.page(wagerId).getInt(wagers.offset(wagerId) + WAGER_STAKE);
+    }
+
+    /**
+     * Retrieves the choice of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The choice made by the customer.
+     */
+    char getChoice(long wagerId) {
+        return getBet(wagerId).getSport().getChoice(wagers.page(wagerId).get(wagers.offset(wagerId) + WAGER_CHOICE));
+    }
+
+    /**
+     * Retrieves the settlement state of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The {@link SettlementState} of the wager.
+     */
+    SettlementState getSettlementState(long wagerId) {
+        return SettlementState.values()[wagers.page(wagerId).get(wagers.offset(wagerId) + WAGER_STATE)];
+    }
+
+    /**
+     * Retrieves the payout of a wager.
+     *
+     * @param wagerId The id of the wager.
+     * @return The payout, in minor units; {@code 0} unless the wager has been settled as won.
+     */
+    long getPayoutMinorUnits(long wagerId) {
+        return wagers.page(wagerId).getLong(wagers.offset(wagerId) + WAGER_PAYOUT);
+    }
+
+    /**
+     * Returns the ledger index of a bet, indexing it with an empty chain of open wagers if it is new.
+     *
+     * @param bet The {@link Bet}.
+     * @return The ledger index of the bet.
+     */
+    private int indexOf(Bet bet) {
+        Integer betIndex = betIndexes.get(bet);
+        if (betIndex != null) {
+            return betIndex;
+        }
+        int newIndex = bets.size();
+        if (newIndex == firstOpenWagers.length) {
+            firstOpenWagers = Arrays.copyOf(firstOpenWagers, newIndex * 2);
+            lastOpenWagers = Arrays.copyOf(lastOpenWagers, newIndex * 2);
+        }
+        firstOpenWagers[newIndex] = -1;
+        lastOpenWagers[newIndex] = -1;
+        bets.add(bet);
+        betIndexes.put(bet, newIndex);
+        return newIndex;
+    }
+
+    /**
+     * Empties the chain of open wagers of a bet, whose wagers are about to be settled or voided.
+     *
+     * @param betIndex The ledger index of the bet.
+     * @return The id of the first wager of the chain, linked to the next ones through their
+     * {@link #WAGER_NEXT_ON_BET} field; {@code -1} if the chain was empty.
+     */
+    private long takeOpenWagers(int betIndex) {
+        long first = firstOpenWagers[betIndex];
+        firstOpenWagers[betIndex] = -1;
+        lastOpenWagers[betIndex] = -1;
+        return first;
+    }
+
+    /**
+     * Adds an amount to a total of a customer record.
+     *
+     * @param customerId The id of the customer.
+     * @param field      The offset of the total within the customer record.
+     * @param minorUnits The amount to be added, in minor units.
+     */
+    private void addToCustomer(int customerId, int field, long minorUnits) {
+        ByteBuffer page = customers.page(customerId);
+        int offset = customers.offset(customerId) + field;
+        page.putLong(offset, page.getLong(offset) + minorUnits);
+    }
+
+}
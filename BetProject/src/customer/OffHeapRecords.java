@@ -0,0 +1,120 @@
+package customer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Growable array of fixed-width records held outside the Java heap, addressed by a {@code long} id.
+ * <p>
+ * The records are stored in pages of {@link #PAGE_RECORDS} records, each page being a direct {@link ByteBuffer}
+ * in native byte order. A new page is allocated whenever the last one is full, and existing pages are never
+ * copied nor moved, so the heap only holds the small array of page references, whatever the number of records.
+ * The pages are released by the garbage collector once the records are no longer reachable.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+final class OffHeapRecords {
+
+    /**
+     * The base 2 logarithm of the number of records of a page.
+     */
+    private static final int PAGE_SHIFT = 16;
+
+    /**
+     * The number of records of a page.
+     */
+    static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+
+    /**
+     * The size of a record, in bytes.
+     */
+    private final int recordSize;
+
+    /**
+     * The pages of records; only the first {@code ceil(size / PAGE_RECORDS)} are allocated.
+     */
+    private ByteBuffer[] pages = new ByteBuffer[16];
+
+    /**
+     * The number of records.
+     */
+    private long size;
+
+    /**
+     * Constructs a new, empty {@code OffHeapRecords}.
+     *
+     * @param recordSize The size of a record, in bytes.
+     */
+    OffHeapRecords(int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * Appends a new record, whose bytes are all zero.
+     *
+     * @return The id of the new record.
+     */
+    long add() {
+        int page = (int) (size >>> PAGE_SHIFT);
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, page * 2);
+        }
+        if (pages[page] == null) {
+            pages[page] = ByteBuffer.allocateDirect(PAGE_RECORDS * recordSize).order(ByteOrder.nativeOrder());
+        }
+        return size++;
+    }
+
+    /**
+     * Returns the page holding a record.
+     *
+     * @param id The id of the record.
+     * @return The direct {@link ByteBuffer} of the page.
+     * @throws IndexOutOfBoundsException If no record has the given id.
+     */
+    ByteBuffer page(long id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No record with id " + id);
+        }
+        return pages[(int) (id >>> PAGE_SHIFT)];
+    }
+
+    /**
+     * Returns the offset of a record within its page.
+     *
+     * @param id The id of the record.
+     * @return The offset of the first byte of the record, in bytes.
+     */
+    int offset(long id) {
+        return (int) (id & (PAGE_RECORDS - 1)) * recordSize;
+    }
+
+    /**
+     * Returns the number of records.
+     *
+     * @return The number of records.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Removes every record, keeping the allocated pages to be reused.
+     * <p>
+     * The pages are cleared, so that new records start with all their bytes zero.
+     * </p>
+     */
+    void clear() {
+        for (int page = 0; page < pages.length && pages[page] != null; page++) {
+            ByteBuffer buffer = pages[page];
+            for (int offset = 0; offset < buffer.capacity(); offset += Long.BYTES) {
+                buffer.putLong(offset, 0);
+            }
+        }
+        size = 0;
+    }
+
+}
@@ -0,0 +1,37 @@
+package customer;
+
+/**
+ * Enum representing the settlement state of a {@link CustomerBet}, or of a wager of a {@link WagerStore}.
+ * <p>
+ * Every customer bet starts as {@link #OPEN} and is settled exactly once, moving to one of the
+ * final states:
+ * </p>
+ * <ul>
+ *     <li>{@link #WON} - the customer's choice matched the game result and the payout was credited.</li>
+ *     <li>{@link #LOST} - the customer's choice did not match the game result.</li>
+ *     <li>{@link #VOID} - the bet was cancelled and the stake was refunded.</li>
+ * </ul>
+ */
+public enum SettlementState {
+
+    /**
+     * The customer bet has not been settled yet.
+     */
+    OPEN,
+
+    /**
+     * The customer bet has been settled as won.
+     */
+    WON,
+
+    /**
+     * The customer bet has been settled as lost.
+     */
+    LOST,
+
+    /**
+     * The customer bet has been cancelled and its stake refunded.
+     */
+    VOID
+
+}
@@ -0,0 +1,360 @@
+package customer;
+
+import bet.Bet;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton guarding the placement of bets against the abuse of the stake limits, and flagging repeated wagers.
+ * <p>
+ * The maximum stake of a {@link CustomerType} applies to the cumulative stake a customer places on a
+ * {@link Bet}, so that it cannot be bypassed by betting the same game again and again:
+ * {@link #checkCumulativeStake(Customer, Bet, int)} rejects a placement that would take the customer above their
+ * maximum stake on the bet. A wager placed with the same choice on the same bet as an earlier wager of the
+ * customer is counted as repeated, see {@link #getRepeatedWagers(Customer)}, and the bets on which a customer
+ * holds such wagers are listed by {@link #getRepeatedBets(Customer)}. A voided wager no longer counts towards the
+ * cumulative stake nor the repeated bets, see {@link #release(Customer, CustomerBet)}.
+ * </p>
+ * <p>
+ * Most wagers are the first ones of their customer on their bet, and need no check at all. The guard therefore
+ * keeps a Bloom filter of the {@code (customer, bet)} pairs that have been wagered on: when the filter proves
+ * that the pair is new, the placement is accepted in constant time, without locking nor allocating. Otherwise,
+ * the exact {@link StakeTally} of the customer is consulted; it is built from the bets of the customer the first
+ * time they are needed, and then maintained by {@link Customer#addCustomerBet(CustomerBet)}. A false positive of
+ * the filter only costs an exact lookup, so the decisions are always exact.
+ * </p>
+ * <p>
+ * The filter and the tallies are reset together: every reset starts a new epoch, and a tally built in an earlier
+ * epoch is dropped and rebuilt from the bets of its customer the next time it is needed. A customer whose wagers
+ * were recorded before the reset, and are therefore missing from the new filter, is checked against a rebuilt
+ * tally as well, so a reset never lets a placement bypass the cap.
+ * </p>
+ * <p>
+ * The filter is blocked: the four bits of a pair are all taken from the same 64-bit word, so that checking and
+ * recording a pair touch a single cache line, at the cost of slightly more false positives (around 4% with
+ * eight bits per pair). It initially holds 2<sup>25</sup> bits (4 MB, for four million pairs), and is resized
+ * whenever it is reset: {@link #clear(long)} sizes it for the expected number of pairs, and {@link #clear()} for
+ * the number of pairs recorded since the previous reset, if more than the filter was sized for. A filter that
+ * holds more pairs than it was sized for keeps deciding exactly, but builds the tallies of more customers.
+ * </p>
+ * <p>
+ * The filter is updated concurrently without locking. The tally of a customer is accessed only by the thread
+ * adding a bet to the customer, so the check and the placement of a bet must be serialized per customer, as
+ * done by the placement paths of the organization.
+ * </p>
+ */
+public enum StakeGuard {
+
+    /**
+     * The singleton instance of the {@code customer.StakeGuard}.
+     */
+    INSTANCE;
+
+    /**
+     * The initial number of bits of the Bloom filter; a power of two.
+     */
+    private static final int DEFAULT_FILTER_BITS = 1 << 25;
+
+    /**
+     * The smallest number of bits of the Bloom filter; a power of two.
+     */
+    private static final int MIN_FILTER_BITS = 1 << 16;
+
+    /**
+     * The largest number of bits of the Bloom filter (128 MB); a power of two.
+     */
+    private static final int MAX_FILTER_BITS = 1 << 30;
+
+    /**
+     * The number of bits of the Bloom filter per expected {@code (customer, bet)} pair.
+     */
+    private static final int BITS_PER_PAIR = 8;
+
+    /**
+     * The number of bits of the Bloom filter set for each {@code (customer, bet)} pair, within a single word.
+     */
+    private static final int FILTER_HASHES = 4;
+
+    /**
+     * The bits of the Bloom filter, packed in words of 64 bits; the bits of a pair are all set in a single word.
+     * Replaced by a new filter when the guard is reset.
+     */
+    private volatile AtomicLongArray filter = new AtomicLongArray(DEFAULT_FILTER_BITS / Long.SIZE);
+
+    /**
+     * The number of pairs added to the Bloom filter since it was reset, false positives excluded.
+     */
+    private final LongAdder pairs = new LongAdder();
+
+    /**
+     * The number of wagers placed with the same choice on the same bet as an earlier wager of the same customer.
+     */
+    private final LongAdder repeatedWagers = new LongAdder();
+
+    /**
+     * The number of resets of the guard; the filter and the tallies of earlier epochs are no longer used.
+     */
+    private volatile int epoch;
+
+    /**
+     * Checks that placing a new wager would not take the cumulative stake of a customer on a bet above their
+     * maximum stake.
+     * <p>
+     * Must be called by the thread that then adds the bet to the customer, with the placements of the customer
+     * serialized.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing the wager.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @throws IllegalArgumentException If the cumulative stake of the customer on the bet would exceed their
+     *                                  maximum stake.
+     */
+    public void checkCumulativeStake(Customer customer, Bet bet, int stake) {
+        int currentEpoch = epoch;
+        StakeTally tally = currentTally(customer, currentEpoch);
+        if (tally == null) {
+            if (isFiltered(customer, currentEpoch) && !mightContain(filter, hash(customer, bet))) {
+                return;
+            }
+            tally = tallyOf(customer, currentEpoch);
+        }
+        long staked = tally.getStake(bet);
+        if (staked + stake > customer.getMaxStake()) {
+            throw new IllegalArgumentException("Stake " + stake + " would take the cumulative stake on this bet from "
+                    + staked + " above the maximum of " + customer.getMaxStake());
+        }
+    }
+
+    /**
+     * Records a wager about to be added to a customer, before it is added to their list of bets.
+     *
+     * @param customer    The {@link Customer} the wager is added to.
+     * @param customerBet The {@link CustomerBet} being added.
+     */
+    void record(Customer customer, CustomerBet customerBet) {
+        int currentEpoch = epoch;
+        Bet bet = customerBet.getBet();
+        boolean known = !add(filter, hash(customer, bet));
+        StakeTally tally = currentTally(customer, currentEpoch);
+        if (tally == null) {
+            boolean filtered = isFiltered(customer, currentEpoch);
+            customer.setStakeGuardEpoch(currentEpoch);
+            if (filtered && !known) {
+                return;
+            }
+            tally = tallyOf(customer, currentEpoch);
+        }
+        if (tally.add(bet, customerBet.getStake(), customerBet.getChoice())) {
+            repeatedWagers.increment();
+        }
+    }
+
+    /**
+     * Releases a voided wager, so that its stake no longer counts towards the cumulative stake of its customer on
+     * its bet, nor its choice towards the repeated bets.
+     * <p>
+     * Must be called once the wager has been settled as {@link SettlementState#VOID}, with the placements of the
+     * customer serialized. The stake and the choice of the wager are decremented in the tally of the customer in
+     * constant time. A customer without a tally needs no release: their tally, if ever built, leaves the voided
+     * wagers out. The Bloom filter keeps the pair, which only costs an exact lookup.
+     * </p>
+     *
+     * @param customer    The {@link Customer} who placed the wager.
+     * @param customerBet The voided {@link CustomerBet}.
+     */
+    public void release(Customer customer, CustomerBet customerBet) {
+        StakeTally tally = currentTally(customer, epoch);
+        if (tally != null) {
+            tally.release(customerBet.getBet(), customerBet.getStake(), customerBet.getChoice());
+        }
+    }
+
+    /**
+     * Retrieves the number of wagers placed with the same choice on the same bet as an earlier wager of the
+     * same customer, over every customer.
+     *
+     * @return The number of repeated wagers.
+     */
+    public long getRepeatedWagers() {
+        return repeatedWagers.sum();
+    }
+
+    /**
+     * Retrieves the number of wagers a customer has placed with the same choice on the same bet as one of their
+     * earlier wagers.
+     *
+     * @param customer The {@link Customer} whose repeated wagers are requested.
+     * @return The number of repeated wagers of the customer; {@code 0} if they never bet twice on the same bet.
+     */
+    public int getRepeatedWagers(Customer customer) {
+        StakeTally tally = currentTally(customer, epoch);
+        return tally == null ? 0 : tally.getRepeatedWagers();
+    }
+
+    /**
+     * Retrieves the bets on which a customer holds more than one live wager with the same choice.
+     * <p>
+     * Must be called with the placements of the customer serialized, e.g., once the placements are over.
+     * </p>
+     *
+     * @param customer The {@link Customer} whose repeated bets are requested.
+     * @return A new {@link List} of the repeated {@link Bet} objects, in no particular order; empty if the customer
+     * never bet twice on the same bet since the last reset.
+     */
+    public List<Bet> getRepeatedBets(Customer customer) {
+        StakeTally tally = currentTally(customer, epoch);
+        return tally == null ? List.of() : tally.getRepeatedBets();
+    }
+
+    /**
+     * Resets the Bloom filter, the tallies and the number of repeated wagers, sizing the filter for the number of
+     * pairs recorded since the previous reset if the filter was too small for them.
+     */
+    public void clear() {
+        long recordedPairs = pairs.sum();
+        int bits = filter.length() * Long.SIZE;
+        clear(recordedPairs > bits / BITS_PER_PAIR ? recordedPairs : bits / BITS_PER_PAIR);
+    }
+
+    /**
+     * Resets the Bloom filter, the tallies and the number of repeated wagers, sizing the filter for the expected
+     * number of {@code (customer, bet)} pairs.
+     * <p>
+     * The tallies are reset by starting a new epoch: each of them is dropped, and rebuilt from the bets of its
+     * customer, the next time it is needed. Must not be called concurrently with placements.
+     * </p>
+     *
+     * @param expectedPairs The number of pairs expected until the next reset.
+     */
+    public void clear(long expectedPairs) {
+        long bits = Long.highestOneBit(Math.max(expectedPairs * BITS_PER_PAIR - 1, 1)) << 1;
+        filter = new AtomicLongArray(Math.clamp(bits, MIN_FILTER_BITS, MAX_FILTER_BITS) / Long.SIZE);
+        pairs.reset();
+        repeatedWagers.reset();
+        epoch++;
+    }
+
+    /**
+     * Returns the number of bits of the Bloom filter.
+     *
+     * @return The number of bits.
+     */
+    int getFilterBits() {
+        return filter.length() * Long.SIZE;
+    }
+
+    /**
+     * Returns the tally of a customer, if it has been built in the current epoch.
+     *
+     * @param customer     The {@link Customer} whose tally is requested.
+     * @param currentEpoch The current epoch.
+     * @return The {@link StakeTally} of the customer; {@code null} if it has not been built since the last reset.
+     */
+    private static StakeTally currentTally(Customer customer, int currentEpoch) {
+        StakeTally tally = customer.getStakeTally();
+        return tally != null && tally.getEpoch() == currentEpoch ? tally : null;
+    }
+
+    /**
+     * Tests whether every wager of a customer without a tally is recorded in the current Bloom filter, so that the
+     * filter can prove that a pair of the customer is new.
+     *
+     * @param customer     The {@link Customer}.
+     * @param currentEpoch The current epoch.
+     * @return {@code true} if the customer has no wager, or has recorded their last wager in the current epoch.
+     */
+    private static boolean isFiltered(Customer customer, int currentEpoch) {
+        return customer.getStakeGuardEpoch() == currentEpoch || customer.getCustomerBetList().isEmpty();
+    }
+
+    /**
+     * Returns the tally of a customer, building it from their bets if it has not been built in the current epoch.
+     *
+     * @param customer     The {@link Customer} whose tally is requested.
+     * @param currentEpoch The current epoch.
+     * @return The {@link StakeTally} of the customer.
+     */
+    private static StakeTally tallyOf(Customer customer, int currentEpoch) {
+        StakeTally tally = currentTally(customer, currentEpoch);
+        if (tally == null) {
+            tally = new StakeTally(customer.getCustomerBetList(), currentEpoch);
+            customer.setStakeTally(tally);
+        }
+        return tally;
+    }
+
+    /**
+     * Hashes a {@code (customer, bet)} pair to 64 well-mixed bits.
+     *
+     * @param customer The {@link Customer}.
+     * @param bet      The {@link Bet}.
+     * @return The hash of the pair.
+     */
+    private static long hash(Customer customer, Bet bet) {
+        long hash = ((long) System.identityHashCode(customer) << 32) | bet.getId();
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Returns the bits of the Bloom filter set for a pair, within its word.
+     *
+     * @param hash The hash of the pair, as returned by {@link #hash(Customer, Bet)}.
+     * @return The mask of the bits of the pair.
+     */
+    private static long maskOf(long hash) {
+        long mask = 0;
+        for (int i = 0; i < FILTER_HASHES; i++, hash >>>= 6) {
+            mask |= 1L << hash;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the index of the word of a Bloom filter holding the bits of a pair.
+     *
+     * @param filter The Bloom filter.
+     * @param hash   The hash of the pair, as returned by {@link #hash(Customer, Bet)}.
+     * @return The index of the word.
+     */
+    private static int wordOf(AtomicLongArray filter, long hash) {
+        return (int) (hash >>> 32) & (filter.length() - 1);
+    }
+
+    /**
+     * Tests whether a Bloom filter might contain a pair.
+     *
+     * @param filter The Bloom filter.
+     * @param hash   The hash of the pair, as returned by {@link #hash(Customer, Bet)}.
+     * @return {@code false} if the pair has never been added; {@code true} if it probably has.
+     */
+    private static boolean mightContain(AtomicLongArray filter, long hash) {
+        long mask = maskOf(hash);
+        return (filter.get(wordOf(filter, hash)) & mask) == mask;
+    }
+
+    /**
+     * Adds a pair to a Bloom filter, counting it if it is new.
+     *
+     * @param filter The Bloom filter.
+     * @param hash   The hash of the pair, as returned by {@link #hash(Customer, Bet)}.
+     * @return {@code true} if the pair had never been added; {@code false} if it probably had.
+     */
+    private boolean add(AtomicLongArray filter, long hash) {
+        long mask = maskOf(hash);
+        int word = wordOf(filter, hash);
+        if ((filter.get(word) & mask) == mask) {
+            return false;
+        }
+        if ((filter.getAndAccumulate(word, mask, (bits, set) -> bits | set) & mask) == mask) {
+            return false;
+        }
+        pairs.increment();
+        return true;
+    }
+
+}
@@ -0,0 +1,246 @@
+package customer;
+
+import bet.Bet;
+import bet.Sport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact tally of the live wagers of one customer, per {@link Bet}: the cumulative stake placed on the bet, and
+ * the number of wagers placed on each of its choices.
+ * <p>
+ * The tally is an open-addressing hash table keyed by the {@code (customer, bet)} pairs of its customer, backed
+ * by primitive arrays, so that looking up and updating a bet neither boxes nor allocates, except when the table
+ * grows. A bet is found by its identity, so the tally does not depend on the {@link bet.BetCatalog} ids. The
+ * tally is built by the {@link StakeGuard} only for the customers who bet more than once on the same bet, and is
+ * then kept up to date by {@link Customer#addCustomerBet(CustomerBet)} and, when a wager is voided, by
+ * {@link StakeGuard#release(Customer, CustomerBet)}, which decrements the stake and the choice of the wager in
+ * constant time.
+ * </p>
+ * <p>
+ * This class is not thread-safe: as the list of bets of the customer, it is only accessed by the thread
+ * adding a bet to the customer or voiding one of their wagers, with the placements of the customer serialized.
+ * </p>
+ */
+final class StakeTally {
+
+    /**
+     * The smallest capacity of the table.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The largest number of choices of a {@link Sport}, i.e., the number of choice counts of each slot.
+     */
+    private static final int CHOICES = maxChoiceCount();
+
+    /**
+     * The {@link StakeGuard} epoch in which the tally was built; a tally of an earlier epoch is no longer used.
+     */
+    private final int epoch;
+
+    /**
+     * The bets, by slot; {@code null} for an empty slot.
+     */
+    private Bet[] keys;
+
+    /**
+     * The cumulative stakes of the live wagers placed on the bets, by slot.
+     */
+    private long[] stakes;
+
+    /**
+     * The numbers of live wagers placed on each choice of the bets, {@link #CHOICES} counts per slot, indexed by
+     * choice index (see {@link Bet#getChoiceIndex(char)}).
+     */
+    private int[] choiceCounts;
+
+    /**
+     * The number of bets in the table.
+     */
+    private int size;
+
+    /**
+     * The number of wagers placed with the same choice on the same bet as an earlier live wager.
+     */
+    private int repeatedWagers;
+
+    /**
+     * Constructs a tally of the given customer bets, except the voided ones.
+     *
+     * @param customerBets The {@link CustomerBet} objects already placed by the customer.
+     * @param epoch        The current {@link StakeGuard} epoch.
+     */
+    StakeTally(List<CustomerBet> customerBets, int epoch) {
+        this.epoch = epoch;
+        int capacity = MIN_CAPACITY;
+        while (capacity < customerBets.size() * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        for (CustomerBet customerBet : customerBets) {
+            if (customerBet.getSettlementState() == SettlementState.VOID) {
+                continue;
+            }
+            add(customerBet.getBet(), customerBet.getStake(), customerBet.getChoice());
+        }
+    }
+
+    /**
+     * Returns the {@link StakeGuard} epoch in which the tally was built.
+     *
+     * @return The epoch of the tally.
+     */
+    int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Adds a wager to the tally.
+     *
+     * @param bet    The {@link Bet} the wager is placed on.
+     * @param stake  The amount staked.
+     * @param choice The choice made.
+     * @return {@code true} if a live wager with the same choice was already placed on the bet.
+     */
+    boolean add(Bet bet, int stake, char choice) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int slot = slotOf(bet);
+        if (keys[slot] == null) {
+            keys[slot] = bet;
+            size++;
+        }
+        stakes[slot] += stake;
+
+        int choiceIndex = bet.getChoiceIndex(choice);
+        if (choiceIndex < 0) {
+            return false;
+        }
+        boolean repeated = choiceCounts[slot * CHOICES + choiceIndex]++ > 0;
+        if (repeated) {
+            repeatedWagers++;
+        }
+        return repeated;
+    }
+
+    /**
+     * Removes a voided wager from the tally.
+     *
+     * @param bet    The {@link Bet} the wager was placed on.
+     * @param stake  The amount staked by the wager.
+     * @param choice The choice made by the wager.
+     */
+    void release(Bet bet, int stake, char choice) {
+        int slot = slotOf(bet);
+        if (keys[slot] == null) {
+            return;
+        }
+        stakes[slot] = Math.max(0, stakes[slot] - stake);
+        int choiceIndex = bet.getChoiceIndex(choice);
+        if (choiceIndex >= 0 && choiceCounts[slot * CHOICES + choiceIndex] > 0) {
+            choiceCounts[slot * CHOICES + choiceIndex]--;
+        }
+    }
+
+    /**
+     * Retrieves the cumulative stake placed on a bet.
+     *
+     * @param bet The {@link Bet} whose stake is requested.
+     * @return The sum of the stakes of the live wagers placed on the bet; {@code 0} if there is none.
+     */
+    long getStake(Bet bet) {
+        int slot = slotOf(bet);
+        return keys[slot] == null ? 0 : stakes[slot];
+    }
+
+    /**
+     * Returns the number of wagers placed with the same choice on the same bet as an earlier live wager.
+     *
+     * @return The number of repeated wagers.
+     */
+    int getRepeatedWagers() {
+        return repeatedWagers;
+    }
+
+    /**
+     * Returns the bets on which more than one live wager has been placed with the same choice.
+     *
+     * @return A new {@link List} of the repeated bets, in no particular order.
+     */
+    List<Bet> getRepeatedBets() {
+        List<Bet> repeatedBets = new ArrayList<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == null) {
+                continue;
+            }
+            for (int choiceIndex = 0; choiceIndex < CHOICES; choiceIndex++) {
+                if (choiceCounts[slot * CHOICES + choiceIndex] > 1) {
+                    repeatedBets.add(keys[slot]);
+                    break;
+                }
+            }
+        }
+        return repeatedBets;
+    }
+
+    /**
+     * Finds the slot of a bet: the slot holding it, or the empty slot where it would be inserted.
+     *
+     * @param bet The {@link Bet}.
+     * @return The index of the slot.
+     */
+    private int slotOf(Bet bet) {
+        int mask = keys.length - 1;
+        int slot = (System.identityHashCode(bet) * 0x9E3779B9 >>> 7) & mask;
+        while (keys[slot] != null && keys[slot] != bet) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Allocates empty arrays for the given capacity.
+     *
+     * @param capacity The number of slots; a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new Bet[capacity];
+        stakes = new long[capacity];
+        choiceCounts = new int[capacity * CHOICES];
+    }
+
+    /**
+     * Doubles the capacity of the table, inserting every bet again.
+     */
+    private void grow() {
+        Bet[] oldKeys = keys;
+        long[] oldStakes = stakes;
+        int[] oldChoiceCounts = choiceCounts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                stakes[slot] = oldStakes[i];
+                System.arraycopy(oldChoiceCounts, i * CHOICES, choiceCounts, slot * CHOICES, CHOICES);
+            }
+        }
+    }
+
+    /**
+     * Returns the largest number of choices of a {@link Sport}.
+     *
+     * @return The number of choices.
+     */
+    private static int maxChoiceCount() {
+        int choices = 0;
+        for (Sport sport : Sport.values()) {
+            choices = Math.max(choices, sport.getChoiceCount());
+        }
+        return choices;
+    }
+
+}
@@ -0,0 +1,397 @@
+package customer;
+
+import bet.Bet;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, column-oriented store of customer bets (wagers).
+ * <p>
+ * Instead of keeping one {@link CustomerBet} object per wager in a per-customer list, the
+ * {@code WagerStore} keeps every attribute of the wagers in its own primitive array (column):
+ * the bet id, the customer id, the stake, the choice (as its {@link bet.Sport} ordinal), the {@link SettlementState}
+ * (as its ordinal) and the payout. The wagers of
+ * each customer are chained through an additional array of wager indices, so no object is
+ * allocated per wager.
+ * </p>
+ * <p>
+ * Bets and customers are assigned dense ids, in the order they are first seen by the store.
+ * The store id of a bet is found from its {@link bet.BetCatalog} id through a plain array, without hashing.
+ * The odds and the game result (as an ordinal) of each bet are copied into per-bet columns when the wagers are
+ * settled, so that {@link #settle()} runs as a tight loop over primitive arrays.
+ * </p>
+ * <p>
+ * As a {@link CustomerBet}, every wager starts as {@link SettlementState#OPEN} and is settled exactly once, so
+ * that settling the store again never credits a customer twice for the same wager.
+ * </p>
+ * <p>
+ * The information of {@link IGiveBetList#getCustomerBetList()} is available through
+ * {@link #getCustomerWagers(Customer)}, which returns lightweight {@link WagerView} objects.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public final class WagerStore {
+
+    /**
+     * The initial capacity of the columns when none is specified.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The store id of each registered bet plus one, indexed by {@link Bet#getId()}; {@code 0} if the bet is not
+     * registered.
+     */
+    private int[] betIdsByCatalogId = new int[16];
+
+    /**
+     * A {@link Map} from each registered {@link Customer} to its id.
+     */
+    private final Map<Customer, Integer> customerIds = new HashMap<>();
+
+    /**
+     * The registered bets, indexed by bet id.
+     */
+    private final List<Bet> bets = new ArrayList<>();
+
+    /**
+     * The registered customers, indexed by customer id.
+     */
+    private final List<Customer> customers = new ArrayList<>();
+
+    /**
+     * The odds of each bet in odds units, indexed by bet id.
+     */
+    private long[] betOddsUnits = new long[16];
+
+    /**
+     * The ordinal of the game result of each bet, indexed by bet id; {@code -1} if the result is not determined.
+     */
+    private byte[] betResults = new byte[16];
+
+    /**
+     * The index of the first wager of each customer, indexed by customer id; {@code -1} if none.
+     */
+    private int[] firstWager = new int[16];
+
+    /**
+     * The index of the last wager of each customer, indexed by customer id; {@code -1} if none.
+     */
+    private int[] lastWager = new int[16];
+
+    /**
+     * The total gains in minor units accumulated by each customer during a settlement, indexed by customer id.
+     */
+    private long[] customerGains = new long[16];
+
+    /**
+     * The bet id of each wager.
+     */
+    private int[] wagerBetIds;
+
+    /**
+     * The customer id of each wager.
+     */
+    private int[] wagerCustomerIds;
+
+    /**
+     * The stake of each wager.
+     */
+    private int[] wagerStakes;
+
+    /**
+     * The ordinal of the choice of each wager within the choices of its bet's {@link bet.Sport}.
+     */
+    private byte[] wagerChoices;
+
+    /**
+     * The ordinal of the {@link SettlementState} of each wager.
+     */
+    private byte[] wagerStates;
+
+    /**
+     * The payout of each wager in minor units; {@code 0} until the wager is settled as won.
+     */
+    private long[] wagerPayouts;
+
+    /**
+     * The index of the next wager of the same customer, for each wager; {@code -1} if none.
+     */
+    private int[] nextWager;
+
+    /**
+     * The number of wagers in the store.
+     */
+    private int size;
+
+    /**
+     * Constructs a new {@code WagerStore} with a default initial capacity.
+     */
+    public WagerStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new {@code WagerStore} with the specified initial capacity of wagers.
+     *
+     * @param capacity The number of wagers the store can hold before its columns grow.
+     */
+    public WagerStore(int capacity) {
+        int initialCapacity = Math.max(capacity, 16);
+        wagerBetIds = new int[initialCapacity];
+        wagerCustomerIds = new int[initialCapacity];
+        wagerStakes = new int[initialCapacity];
+        wagerChoices = new byte[initialCapacity];
+        wagerStates = new byte[initialCapacity];
+        wagerPayouts = new long[initialCapacity];
+        nextWager = new int[initialCapacity];
+    }
+
+    /**
+     * Adds a new wager to the store.
+     * <p>
+     * The bet and the customer are registered with a new id the first time they are seen.
+     * As with {@link Customer#addCustomerBet(CustomerBet)}, the customer's total spent amount
+     * is not changed by this method.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing the wager.
+     * @param bet      The {@link Bet} the wager is placed on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer (e.g., '1', 'X', '2').
+     * @return The index of the new wager in the store.
+     * @throws IllegalArgumentException If the choice is not available for the bet.
+     */
+    public int addWager(Customer customer, Bet bet, int stake, char choice) {
+        int choiceOrdinal = bet.getChoiceIndex(choice);
+        if (choiceOrdinal < 0) {
+            throw new IllegalArgumentException("Choice '" + choice + "' is not available for this bet");
+        }
+        int betId = registerBet(bet);
+        int customerId = registerCustomer(customer);
+
+        if (size == wagerBetIds.length) {
+            growWagerColumns();
+        }
+
+        int wager = size++;
+        wagerBetIds[wager] = betId;
+        wagerCustomerIds[wager] = customerId;
+        wagerStakes[wager] = stake;
+        wagerChoices[wager] = (byte) choiceOrdinal;
+        wagerStates[wager] = (byte) SettlementState.OPEN.ordinal();
+        wagerPayouts[wager] = 0;
+        nextWager[wager] = -1;
+
+        if (lastWager[customerId] < 0) {
+            firstWager[customerId] = wager;
+        } else {
+            nextWager[lastWager[customerId]] = wager;
+        }
+        lastWager[customerId] = wager;
+        return wager;
+    }
+
+    /**
+     * Settles the open wagers of the store whose bet has a game result.
+     * <p>
+     * The odds and game results of the bets are first copied into their columns. Then, each open wager whose bet
+     * has a result is settled as {@link SettlementState#WON} or {@link SettlementState#LOST}; for each won wager,
+     * the payout is calculated exactly based on the stake and the odds, and accumulated per customer. Finally, the
+     * accumulated gains are added to the total gains of each customer with a single call.
+     * </p>
+     * <p>
+     * Wagers already settled are skipped, so calling this method again only settles the wagers whose bet got
+     * its result in the meantime.
+     * </p>
+     */
+    public void settle() {
+        for (int betId = 0; betId < bets.size(); betId++) {
+            Bet bet = bets.get(betId);
+            betOddsUnits[betId] = bet.getOddsUnits();
+            betResults[betId] = (byte) bet.getChoiceIndex(bet.getGameResult());
+        }
+        Arrays.fill(customerGains, 0, customers.size(), 0);
+
+        byte open = (byte) SettlementState.OPEN.ordinal();
+        for (int wager = 0; wager < size; wager++) {
+            int betId = wagerBetIds[wager];
+            if (wagerStates[wager] != open || betResults[betId] < 0) {
+                continue;
+            }
+            if (wagerChoices[wager] == betResults[betId]) {
+                long payout = Money.payout(wagerStakes[wager], betOddsUnits[betId]);
+                wagerPayouts[wager] = payout;
+                wagerStates[wager] = (byte) SettlementState.WON.ordinal();
+                customerGains[wagerCustomerIds[wager]] += payout;
+            } else {
+                wagerStates[wager] = (byte) SettlementState.LOST.ordinal();
+            }
+        }
+
+        for (int customerId = 0; customerId < customers.size(); customerId++) {
+            if (customerGains[customerId] != 0) {
+                customers.get(customerId).increaseTotalGainsMinorUnits(customerGains[customerId]);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the wagers placed by the given customer, in the order they were added.
+     *
+     * @param customer The {@link Customer} whose wagers are requested.
+     * @return A {@link List} of {@link WagerView} objects; empty if the customer has no wagers in the store.
+     */
+    public List<WagerView> getCustomerWagers(Customer customer) {
+        Integer customerId = customerIds.get(customer);
+        if (customerId == null) {
+            return List.of();
+        }
+
+        List<WagerView> wagers = new ArrayList<>();
+        for (int wager = firstWager[customerId]; wager >= 0; wager = nextWager[wager]) {
+            wagers.add(new WagerView(this, wager));
+        }
+        return wagers;
+    }
+
+    /**
+     * Returns the number of wagers in the store.
+     *
+     * @return The number of wagers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the bet of the specified wager.
+     *
+     * @param wager The index of the wager.
+     * @return The {@link Bet} the wager is placed on.
+     */
+    Bet getBet(int wager) {
+        return bets.get(wagerBetIds[wager]);
+    }
+
+    /**
+     * Retrieves the customer of the specified wager.
+     *
+     * @param wager The index of the wager.
+     * @return The {@link Customer} who placed the wager.
+     */
+    Customer getCustomer(int wager) {
+        return customers.get(wagerCustomerIds[wager]);
+    }
+
+    /**
+     * Retrieves the stake of the specified wager.
+     *
+     * @param wager The index of the wager.
+     * @return The amount staked.
+     */
+    int getStake(int wager) {
+        return wagerStakes[wager];
+    }
+
+    /**
+     * Retrieves the choice of the specified wager.
+     *
+     * @param wager The index of the wager.
+     * @return The choice made by the customer.
+     */
+    char getChoice(int wager) {
+        return getBet(wager).getSport().getChoice(wagerChoices[wager]);
+    }
+
+    /**
+     * Retrieves the settlement state of the specified wager.
+     *
+     * @param wager The index of the wager.
+     * @return The {@link SettlementState} of the wager.
+     */
+    SettlementState getSettlementState(int wager) {
+        return SettlementState.values()[wagerStates[wager]];
+    }
+
+    /**
+     * Retrieves the payout of the specified wager.
+     *
+     * @param wager The index of the wager.
+     * @return The payout; {@code 0.0} if the wager has not been settled as won.
+     */
+    double getPayout(int wager) {
+        return Money.toAmount(wagerPayouts[wager]);
+    }
+
+    /**
+     * Returns the id of the given bet, registering it with a new id if needed.
+     *
+     * @param bet The {@link Bet} to be registered.
+     * @return The id of the bet.
+     */
+    private int registerBet(Bet bet) {
+        int catalogId = bet.getId();
+        if (catalogId < betIdsByCatalogId.length && betIdsByCatalogId[catalogId] != 0) {
+            return betIdsByCatalogId[catalogId] - 1;
+        }
+
+        int newBetId = bets.size();
+        bets.add(bet);
+        if (catalogId >= betIdsByCatalogId.length) {
+            betIdsByCatalogId = Arrays.copyOf(betIdsByCatalogId, Math.max(catalogId + 1, betIdsByCatalogId.length * 2));
+        }
+        betIdsByCatalogId[catalogId] = newBetId + 1;
+        if (newBetId == betOddsUnits.length) {
+            betOddsUnits = Arrays.copyOf(betOddsUnits, newBetId * 2);
+            betResults = Arrays.copyOf(betResults, newBetId * 2);
+        }
+        return newBetId;
+    }
+
+    /**
+     * Returns the id of the given customer, registering it with a new id if needed.
+     *
+     * @param customer The {@link Customer} to be registered.
+     * @return The id of the customer.
+     */
+    private int registerCustomer(Customer customer) {
+        Integer customerId = customerIds.get(customer);
+        if (customerId != null) {
+            return customerId;
+        }
+
+        int newCustomerId = customers.size();
+        customers.add(customer);
+        customerIds.put(customer, newCustomerId);
+        if (newCustomerId == firstWager.length) {
+            firstWager = Arrays.copyOf(firstWager, newCustomerId * 2);
+            lastWager = Arrays.copyOf(lastWager, newCustomerId * 2);
+            customerGains = Arrays.copyOf(customerGains, newCustomerId * 2);
+        }
+        firstWager[newCustomerId] = -1;
+        lastWager[newCustomerId] = -1;
+        return newCustomerId;
+    }
+
+    /**
+     * Doubles the capacity of every wager column.
+     */
+    private void growWagerColumns() {
+        int capacity = wagerBetIds.length * 2;
+        wagerBetIds = Arrays.copyOf(wagerBetIds, capacity);
+        wagerCustomerIds = Arrays.copyOf(wagerCustomerIds, capacity);
+        wagerStakes = Arrays.copyOf(wagerStakes, capacity);
+        wagerChoices = Arrays.copyOf(wagerChoices, capacity);
+        wagerStates = Arrays.copyOf(wagerStates, capacity);
+        wagerPayouts = Arrays.copyOf(wagerPayouts, capacity);
+        nextWager = Arrays.copyOf(nextWager, capacity);
+    }
+
+}
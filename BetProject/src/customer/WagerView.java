@@ -0,0 +1,90 @@
+package customer;
+
+import bet.Bet;
+
+/**
+ * Lightweight, read-only view of a single wager held in a {@link WagerStore}.
+ * <p>
+ * A {@code WagerView} exposes the same information as a {@link CustomerBet}, but does not hold
+ * any of it: every getter reads the corresponding column of the store, so the view always reflects
+ * the current state of the wager (e.g., its payout after {@link WagerStore#settle()}).
+ * </p>
+ */
+public final class WagerView {
+
+    /**
+     * The {@link WagerStore} holding the wager.
+     */
+    private final WagerStore store;
+
+    /**
+     * The index of the wager in the store.
+     */
+    private final int wager;
+
+    /**
+     * Constructs a new {@code WagerView} of the specified wager.
+     *
+     * @param store The {@link WagerStore} holding the wager.
+     * @param wager The index of the wager in the store.
+     */
+    WagerView(WagerStore store, int wager) {
+        this.store = store;
+        this.wager = wager;
+    }
+
+    /**
+     * Retrieves the bet details associated with this wager.
+     *
+     * @return The {@link Bet} object representing the details of the bet.
+     */
+    public Bet getBet() {
+        return store.getBet(wager);
+    }
+
+    /**
+     * Retrieves the customer who placed this wager.
+     *
+     * @return The {@link Customer} who placed this wager.
+     */
+    public Customer getCustomer() {
+        return store.getCustomer(wager);
+    }
+
+    /**
+     * Returns the amount of money staked on this wager.
+     *
+     * @return The amount of the stake placed by the customer.
+     */
+    public int getStake() {
+        return store.getStake(wager);
+    }
+
+    /**
+     * Returns the choice made by the customer for this wager.
+     *
+     * @return The customer's choice as a character.
+     */
+    public char getChoice() {
+        return store.getChoice(wager);
+    }
+
+    /**
+     * Returns the settlement state of this wager.
+     *
+     * @return The {@link SettlementState} of the wager.
+     */
+    public SettlementState getSettlementState() {
+        return store.getSettlementState(wager);
+    }
+
+    /**
+     * Returns the payout of this wager.
+     *
+     * @return The payout amount; {@code 0.0} if the wager has not been settled as won.
+     */
+    public double getPayout() {
+        return store.getPayout(wager);
+    }
+
+}
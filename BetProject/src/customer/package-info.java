@@ -6,5 +6,17 @@
  * Additional classes like {@link customer.GoldCustomer} and {@link customer.PlatinumCustomer}
  * define specific customer types with different betting limits.
  * </p>
+ * <p>
+ * The {@link customer.WagerStore} offers a compact, column-oriented alternative for holding large numbers
+ * of customer bets, exposed through lightweight {@link customer.WagerView} objects, and the
+ * {@link customer.OffHeapLedger} keeps customers and wagers as fixed-width records outside the Java heap,
+ * exposed through {@link customer.LedgerCustomer} and {@link customer.LedgerWager} views.
+ * </p>
+ * <p>
+ * The {@link customer.CustomerBetIndex} and the {@link customer.LiabilityIndex} are maintained as customer bets
+ * are placed and settled, giving direct access to the customer bets and to the liability of every bet outcome,
+ * and the {@link customer.Leaderboard} ranks the customers of each type by net gains as their totals change.
+ * The {@link customer.StakeGuard} caps the cumulative stake of a customer on a bet and flags repeated wagers.
+ * </p>
  */
 package customer;
\ No newline at end of file
@@ -2,6 +2,7 @@ package main;
 
 import bet.Bet;
 import customer.Customer;
+import metrics.BetMetrics;
 import util.DummyData;
 
 import java.util.ArrayList;
@@ -42,6 +43,9 @@ public class BetMain {
         final BetOrganization betOrganization = BetOrganization.INSTANCE;
         final GameEmulator gameEmulator = GameEmulator.INSTANCE;
 
+        // Expose the pipeline metrics through JMX
+        BetMetrics.INSTANCE.registerMBean();
+
         // Create a list to hold all dummy bets data (both football and basketball)
         final List<Bet> bets = new ArrayList<>();
 
@@ -1,11 +1,26 @@
 package main;
 
 import bet.Bet;
+import bet.IGameResultListener;
+import bet.Sport;
 import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerBetIndex;
+import customer.Leaderboard;
+import customer.LiabilityIndex;
+import customer.SettlementState;
+import customer.StakeGuard;
+import metrics.BetMetrics;
+import metrics.PipelineStage;
+import util.Money;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Singleton class representing the organization responsible for managing customer betting activities.
@@ -17,6 +32,10 @@ import java.util.stream.IntStream;
  * <p>
  * This class is particularly useful for managing betting operations and simulating betting results.
  * </p>
+ * <p>
+ * The wagers placed through {@link #placeBet(Customer, Bet, int, char)}, and the latencies of bet placements,
+ * batch settlements and reports, are recorded by the {@link BetMetrics}.
+ * </p>
  */
 public enum BetOrganization implements ICustomerBetService {
 
@@ -35,67 +54,534 @@ public enum BetOrganization implements ICustomerBetService {
      */
     private final List<Bet> bets = new ArrayList<>();
 
+    /**
+     * The bets of the organization, so that the results of the bets of other organizations are ignored.
+     */
+    private final Set<Bet> ownBets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The bets whose game result has been set but which have not been settled yet.
+     * <p>
+     * A bet of the organization is added to this set when its result is set through {@link Bet#setGameResult(char)},
+     * or when it is added to the organization with its result already determined, and is removed once it is
+     * settled.
+     * </p>
+     */
+    private final Set<Bet> resolvedBets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The listener marking the bets of the organization as resolved when their game result is set.
+     * <p>
+     * It is registered when the first bet is added, and unregistered by {@link #clear()}, so that an organization
+     * without bets (e.g., when a {@link ShardedBetOrganization} is used instead) is never notified.
+     * </p>
+     */
+    private final IGameResultListener resultListener = bet -> {
+        if (ownBets.contains(bet)) {
+            resolvedBets.add(bet);
+        }
+    };
+
+    /**
+     * {@code true} while the {@link #resultListener} is registered; guarded by the lock of {@link #bets}.
+     */
+    private boolean listening;
+
+    /**
+     * The number of lock stripes guarding bet placement; a power of two.
+     */
+    private static final int PLACEMENT_LOCK_STRIPES = 256;
+
+    /**
+     * The locks guarding bet placement, striped by customer.
+     * <p>
+     * Bets of the same customer are placed under the same lock, so that the customer's bets and total spent
+     * amount are updated together, while customers mapped to different stripes place bets concurrently.
+     * {@link ReentrantLock} is used, so that placers running on virtual threads do not pin their carrier threads.
+     * </p>
+     */
+    private final ReentrantLock[] placementLocks = new ReentrantLock[PLACEMENT_LOCK_STRIPES];
+
+    /**
+     * The {@link WagerRateLimiter} throttling the placements of every customer; {@code null} if placements are not
+     * throttled.
+     */
+    private volatile WagerRateLimiter rateLimiter;
+
+    /**
+     * The {@link IWagerJournal} recording every accepted placement and every cancelled bet before it changes any
+     * state; {@code null} if placements are not journaled.
+     */
+    private volatile IWagerJournal journal;
+
+    /**
+     * Constructs the {@code main.BetOrganization}.
+     */
+    BetOrganization() {
+        for (int i = 0; i < PLACEMENT_LOCK_STRIPES; i++) {
+            placementLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Sets the {@link WagerRateLimiter} throttling the placements of every customer, once they are validated.
+     *
+     * @param rateLimiter The {@link WagerRateLimiter} to be used; {@code null} to stop throttling placements.
+     */
+    public void setRateLimiter(WagerRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Retrieves the {@link WagerRateLimiter} throttling the placements of every customer.
+     *
+     * @return The {@link WagerRateLimiter} in use; {@code null} if placements are not throttled.
+     */
+    public WagerRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the {@link IWagerJournal} recording every placement, once accepted and before it changes any state, and
+     * every cancelled bet.
+     *
+     * @param journal The {@link IWagerJournal} to be used; {@code null} to stop journaling placements.
+     */
+    public void setJournal(IWagerJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Retrieves the {@link IWagerJournal} recording every placement.
+     *
+     * @return The {@link IWagerJournal} in use; {@code null} if placements are not journaled.
+     */
+    public IWagerJournal getJournal() {
+        return journal;
+    }
+
     /**
      * Adds a new customer to the organization.
      *
      * @param customer The {@link Customer} to be added.
      */
     public void addCustomer(Customer customer) {
-        customers.add(customer);
+        synchronized (customers) {
+            customers.add(customer);
+        }
     }
 
     /**
      * Adds a new bet to the organization’s list of bets.
+     * <p>
+     * If the result of the bet is already determined, the bet is marked as resolved, so that it is
+     * settled by the next call of {@link #calculateGainsPerCustomer()}; otherwise, it is marked as resolved once
+     * its result is set.
+     * </p>
      *
      * @param bet The {@link Bet} object to be added.
      */
     public void addBet(Bet bet) {
-        bets.add(bet);
+        synchronized (bets) {
+            bets.add(bet);
+            ownBets.add(bet);
+            if (!listening) {
+                Bet.addGameResultListener(resultListener);
+                listening = true;
+            }
+        }
+        if (bet.getGameResult() != '-') {
+            resolvedBets.add(bet);
+        }
     }
 
     /**
-     * Calculates and updates the gains for each customer by evaluating the outcomes of their bets.
+     * Retrieves the customers of the organization, in the order they were added.
+     *
+     * @return An unmodifiable snapshot {@link List} of the {@link Customer} objects.
+     */
+    public List<Customer> getCustomers() {
+        synchronized (customers) {
+            return List.copyOf(customers);
+        }
+    }
+
+    /**
+     * Retrieves the bets of the organization, in the order they were added.
+     *
+     * @return An unmodifiable snapshot {@link List} of the {@link Bet} objects.
+     */
+    public List<Bet> getBets() {
+        synchronized (bets) {
+            return List.copyOf(bets);
+        }
+    }
+
+    /**
+     * Places a new bet on behalf of a customer.
+     * <p>
+     * The bet is validated before it is placed: the stake must be positive and must not exceed the
+     * maximum stake of the customer's {@link customer.CustomerType}, the choice must be one of the
+     * available choices of the bet, and the game result must not be determined yet. The customer bet is
+     * then added to the customer, and the stake is added to the customer's total spent amount, as a
+     * single atomic step.
+     * </p>
+     * <p>
+     * The game result is checked again under the lock of the customer. If the result is set while the customer
+     * bet is being added, the settlement of the bet may run before the customer bet is indexed; the customer bet
+     * is then settled by this method itself, so that it never stays open on a resolved bet.
+     * </p>
      * <p>
-     * This method iterates through each customer and their bets, checking if the bet outcome matches
-     * the customer’s choice. If it does, the method calculates a payout based on the bet stake and odds,
-     * adds the payout to the customer's total gains, and updates the payout in the respective {@link customer.CustomerBet} object.
+     * Within that step, the {@link StakeGuard} also checks that the cumulative stake of the customer on the bet,
+     * over all their wagers, stays within their maximum stake.
+     * </p>
+     * <p>
+     * If a {@link WagerRateLimiter} is set, the placement is counted against the rate limit of the customer once
+     * it is validated, so that an invalid placement costs no token, and rejected without taking any lock if the
+     * customer exceeds it.
+     * </p>
+     * <p>
+     * If an {@link IWagerJournal} is set, the placement is recorded under the lock once it has passed every check,
+     * and before any state is changed, so that the journal holds exactly the accepted placements and a placement
+     * that cannot be journaled leaves the organization untouched. The placer then waits for the record to be
+     * durable once the lock is released, so that concurrent placements are synced together; the placement is not
+     * returned before it is durable.
+     * </p>
+     * <p>
+     * This method is thread-safe and may be called concurrently by many placers (e.g., one virtual thread
+     * per request). Placements are serialized per lock stripe of the customer, so placements of different
+     * customers rarely contend.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return The placed {@link CustomerBet}.
+     * @throws IllegalArgumentException If the stake or the choice is not valid for this customer and bet, or if
+     *                                  the cumulative stake of the customer on the bet would exceed their
+     *                                  maximum stake.
+     * @throws IllegalStateException    If the game result of the bet is already determined.
+     * @throws RateLimitExceededException If the customer exceeds their rate limit.
+     * @throws java.io.UncheckedIOException If the placement cannot be journaled, or cannot be made durable (it is then
+     *                                      applied, but the journal can no longer be written).
+     */
+    @Override
+    public CustomerBet placeBet(Customer customer, Bet bet, int stake, char choice) {
+        long startNanos = System.nanoTime();
+        validatePlacement(customer, bet, stake, choice);
+        WagerRateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            limiter.acquire(customer);
+        }
+        IWagerJournal wagerJournal = journal;
+        long ticket = 0;
+
+        CustomerBet customerBet = new CustomerBet(bet, stake, choice);
+        ReentrantLock lock = placementLock(customer);
+        lock.lock();
+        try {
+            if (bet.getGameResult() != '-') {
+                throw new IllegalStateException("The game result of this bet is already determined");
+            }
+            StakeGuard.INSTANCE.checkCumulativeStake(customer, bet, stake);
+            if (wagerJournal != null) {
+                ticket = wagerJournal.journalPlacement(customer, bet, stake, choice);
+            }
+            customerBet.recordPlacement();
+            customer.addCustomerBet(customerBet);
+            customer.increaseTotalSpentMinorUnits(Money.toMinorUnits(stake));
+            char gameResult = bet.getGameResult();
+            if (gameResult != '-') {
+                // The result was set while the customer bet was being indexed, so the settlement of the bet may
+                // have missed it: settle it here, at most once whichever path gets to it first.
+                settleCustomerBet(customerBet, gameResult, bet.getOddsUnits());
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (wagerJournal != null) {
+            wagerJournal.awaitDurable(ticket);
+        }
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.PLACEMENT, startNanos);
+        return customerBet;
+    }
+
+    /**
+     * Validates a bet about to be placed on behalf of a customer.
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @throws IllegalArgumentException If the stake or the choice is not valid for this customer and bet.
+     * @throws IllegalStateException    If the game result of the bet is already determined.
+     */
+    static void validatePlacement(Customer customer, Bet bet, int stake, char choice) {
+        if (stake <= 0 || stake > customer.getMaxStake()) {
+            throw new IllegalArgumentException("Stake " + stake + " is outside the allowed range 1-" + customer.getMaxStake());
+        }
+        if (bet.getChoiceIndex(choice) < 0) {
+            throw new IllegalArgumentException("Choice '" + choice + "' is not available for this bet");
+        }
+        if (bet.getGameResult() != '-') {
+            throw new IllegalStateException("The game result of this bet is already determined");
+        }
+    }
+
+    /**
+     * Returns the placement lock stripe of a customer.
+     *
+     * @param customer The {@link Customer} placing a bet.
+     * @return The {@link ReentrantLock} guarding the placements of the customer.
+     */
+    private ReentrantLock placementLock(Customer customer) {
+        int hash = System.identityHashCode(customer);
+        return placementLocks[(hash ^ (hash >>> 16)) & (PLACEMENT_LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Removes every customer and bet from the organization, together with the customer bets
+     * registered in the {@link CustomerBetIndex}, their liabilities in the {@link LiabilityIndex} and the
+     * standings of the {@link Leaderboard}, and stops listening to game results until a bet is added again.
+     * <p>
+     * The {@link bet.BetCatalog} is not cleared: the removed bets keep their ids, which are never given to another
+     * bet, so a bet that outlives the organization can still be used by any structure addressing bets by id.
+     * </p>
+     */
+    public void clear() {
+        synchronized (customers) {
+            customers.clear();
+        }
+        synchronized (bets) {
+            bets.clear();
+            ownBets.clear();
+            if (listening) {
+                Bet.removeGameResultListener(resultListener);
+                listening = false;
+            }
+        }
+        resolvedBets.clear();
+        CustomerBetIndex.INSTANCE.clear();
+        LiabilityIndex.INSTANCE.clear();
+        StakeGuard.INSTANCE.clear();
+        Leaderboard.INSTANCE.clear();
+        BetMetrics.INSTANCE.clearOpenWagers();
+    }
+
+    /**
+     * Calculates and updates the gains for each customer by settling the bets resolved since the previous call.
+     * <p>
+     * Only the bets whose game result has been set since the previous settlement are processed: each of them
+     * is settled with {@link #settleBet(Bet)}, which evaluates only the customer bets placed on it. Since every
+     * {@link CustomerBet} is settled at most once, calling this method again without new results has no effect,
+     * and its cost is proportional to the number of newly resolved bets rather than to the total number of bets.
      * </p>
      */
     @Override
     public void calculateGainsPerCustomer() {
-        customers.forEach(customer ->
-                customer.getCustomerBetList().forEach(customerBet -> {
-                    if (customerBet.getChoice() == customerBet.getBet().getGameResult()) {
-                        double payout = customerBet.getStake() * customerBet.getBet().getOdds();
-                        customerBet.setPayout(payout);
-                        customer.increaseTotalGains(payout);
-                    }
-                })
-        );
+        long startNanos = System.nanoTime();
+        for (Iterator<Bet> iterator = resolvedBets.iterator(); iterator.hasNext(); ) {
+            Bet bet = iterator.next();
+            iterator.remove();
+            settleResolvedBet(bet);
+        }
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.SETTLEMENT, startNanos);
+    }
+
+    /**
+     * Calculates and updates the gains for each customer in parallel, using a {@link ForkJoinPool}
+     * with the given parallelism level.
+     * <p>
+     * The list of customers is recursively split into ranges by a {@link SettlementTask}, and each
+     * range is settled on a worker thread of the pool. Every customer is settled by exactly one
+     * thread, which settles each of their open bets whose game result is determined. As with
+     * {@link #calculateGainsPerCustomer()}, every {@link CustomerBet} is settled at most once, so the
+     * same bets are won and lost with the same payouts as in the sequential settlement.
+     * </p>
+     *
+     * @param parallelism The number of worker threads used for the settlement.
+     */
+    @Override
+    public void calculateGainsPerCustomer(int parallelism) {
+        long startNanos = System.nanoTime();
+        resolvedBets.clear();
+        List<Customer> customers = getCustomers();
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            pool.invoke(new SettlementTask(customers, 0, customers.size(), this::settleCustomerBets));
+        }
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.SETTLEMENT, startNanos);
+    }
+
+    /**
+     * Settles the open bets of a single customer whose game result is determined.
+     * <p>
+     * The bets of the customer are walked under their placement lock, so that a bet placed concurrently is
+     * neither missed nor added to the list while it is being walked.
+     * </p>
+     *
+     * @param customer The {@link Customer} whose bets are to be settled.
+     */
+    private void settleCustomerBets(Customer customer) {
+        ReentrantLock lock = placementLock(customer);
+        lock.lock();
+        try {
+            for (CustomerBet customerBet : customer.getCustomerBetList()) {
+                Bet bet = customerBet.getBet();
+                if (bet.getGameResult() != '-' && customerBet.getSettlementState() == SettlementState.OPEN) {
+                    settleCustomerBet(customerBet, bet.getGameResult(), bet.getOddsUnits());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Settles a single bet by evaluating only the customer bets placed on it.
+     * <p>
+     * Instead of iterating through every customer, this method looks up the customer bets of this game in the
+     * {@link CustomerBetIndex}, so its cost depends only on the number of bets placed on it. For each winning
+     * customer bet, the payout is calculated based on the stake and odds, set on the {@link CustomerBet} object
+     * and added to the total gains of the customer who placed it; the other customer bets are settled as lost.
+     * Customer bets that are already settled are left unchanged. If the result of the bet is not yet determined,
+     * nothing is settled.
+     * </p>
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    @Override
+    public void settleBet(Bet bet) {
+        if (bet.getGameResult() == '-') {
+            return;
+        }
+        resolvedBets.remove(bet);
+        settleResolvedBet(bet);
+    }
+
+    /**
+     * Cancels a bet, voiding every open customer bet placed on it and refunding their stakes.
+     * <p>
+     * Each voided customer bet is settled as {@link SettlementState#VOID}, and its stake is deducted from the
+     * total spent amount of the customer who placed it. Customer bets that are already settled are left unchanged.
+     * If the game result of the bet is already determined, its customer bets are decided: they are settled with
+     * {@link #settleBet(Bet)} instead, so that a lost bet is never refunded.
+     * </p>
+     * <p>
+     * If an {@link IWagerJournal} is set, the cancellation is recorded and made durable before any customer bet is
+     * voided, and is replayed the same way. A bet must not be cancelled while its game result is being set: the
+     * journal could then apply the two in the other order.
+     * </p>
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     * @throws java.io.UncheckedIOException If the cancellation cannot be journaled; no customer bet is voided then.
+     */
+    @Override
+    public void voidBet(Bet bet) {
+        if (bet.getGameResult() != '-') {
+            settleBet(bet);
+            return;
+        }
+        IWagerJournal wagerJournal = journal;
+        if (wagerJournal != null) {
+            wagerJournal.journalVoid(bet);
+        }
+        resolvedBets.remove(bet);
+        Sport sport = bet.getSport();
+        for (int ordinal = 0; ordinal < sport.getChoiceCount(); ordinal++) {
+            for (CustomerBet customerBet : CustomerBetIndex.INSTANCE.getCustomerBets(bet, sport.getChoice(ordinal))) {
+                ReentrantLock lock = placementLock(customerBet.getCustomer());
+                lock.lock();
+                try {
+                    voidCustomerBet(customerBet);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Settles every open customer bet placed on a bet whose result is determined.
+     *
+     * @param bet The {@link Bet} to be settled.
+     */
+    private void settleResolvedBet(Bet bet) {
+        char gameResult = bet.getGameResult();
+        Sport sport = bet.getSport();
+        for (int ordinal = 0; ordinal < sport.getChoiceCount(); ordinal++) {
+            for (CustomerBet customerBet : CustomerBetIndex.INSTANCE.getCustomerBets(bet, sport.getChoice(ordinal))) {
+                settleCustomerBet(customerBet, gameResult, bet.getOddsUnits());
+            }
+        }
+    }
+
+    /**
+     * Settles a single customer bet against the result of its game.
+     * <p>
+     * If the customer’s choice matches the result, the payout is calculated exactly in minor units based on the
+     * stake and odds and, provided that the customer bet was still open, added to the customer's total gains.
+     * Otherwise, the customer bet is settled as lost.
+     * </p>
+     *
+     * @param customerBet The {@link CustomerBet} to be settled.
+     * @param gameResult  The result of the game of the bet.
+     * @param oddsUnits   The odds of the bet, in odds units.
+     */
+    static void settleCustomerBet(CustomerBet customerBet, char gameResult, long oddsUnits) {
+        if (customerBet.getChoice() == gameResult) {
+            long payout = Money.payout(customerBet.getStake(), oddsUnits);
+            if (customerBet.settle(SettlementState.WON, payout)) {
+                customerBet.getCustomer().increaseTotalGainsMinorUnits(payout);
+            }
+        } else {
+            customerBet.settle(SettlementState.LOST, 0);
+        }
+    }
+
+    /**
+     * Voids a single customer bet, refunding its stake if it was still open and releasing it from the
+     * {@link StakeGuard}.
+     * <p>
+     * Must be called with the placements of the customer serialized (under their placement lock, or on the writer
+     * thread of their shard).
+     * </p>
+     *
+     * @param customerBet The {@link CustomerBet} to be voided.
+     */
+    static void voidCustomerBet(CustomerBet customerBet) {
+        if (customerBet.settle(SettlementState.VOID, 0)) {
+            Customer customer = customerBet.getCustomer();
+            customer.increaseTotalSpentMinorUnits(-Money.toMinorUnits(customerBet.getStake()));
+            StakeGuard.INSTANCE.release(customer, customerBet);
+        }
     }
 
     /**
      * Displays the results of each customer’s bets to the console and saves the results to a file.
      * <p>
-     * This method generates a summary of each customer’s betting results, prints it to the console,
-     * and then calls {@link ICustomerBetService#printCustomersResultsToTextFile(String)} to save
-     * the results to a text file.
+     * This method is equivalent to {@link #showCustomersResults(boolean)} with console output enabled.
      * </p>
      */
     @Override
     public void showCustomersResults() {
-        StringBuilder output = new StringBuilder();
-        output.append("\n------------------ Results ------------------\n");
-        IntStream.range(0, customers.size()).forEach(index -> {
-            Customer customer = customers.get(index);
-            output.append('\n')
-                    .append(customer)
-                    .append(index < customers.size() - 1 ? "\n\n##############################################\n" : '\n');
-        });
-        output.append("\n--------------- End of results ---------------");
-        System.out.println(output); // print the results to console
-        output.deleteCharAt(0); // remove the new line (\n) char at the beginning of the output variable
-        printCustomersResultsToTextFile(output.toString()); // save results to a txt file
+        showCustomersResults(true);
+    }
+
+    /**
+     * Saves the results of each customer’s bets to a file, optionally displaying them to the console.
+     * <p>
+     * The summary of each customer’s betting results is streamed through a {@link CustomersResultsWriter}
+     * to the {@value ICustomerBetService#RESULTS_FILE_NAME} file as soon as it is rendered, instead of being
+     * built in memory first, so the memory needed does not grow with the number of customers.
+     * In case of an error during the file-writing process, an error message is displayed.
+     * </p>
+     *
+     * @param printToConsole {@code true} if the results should also be printed to the console.
+     */
+    @Override
+    public void showCustomersResults(boolean printToConsole) {
+        CustomersResultsWriter.report(getCustomers(), printToConsole);
     }
 
 }
@@ -0,0 +1,286 @@
+package main;
+
+import customer.Customer;
+import metrics.BetMetrics;
+import metrics.PipelineStage;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Streaming writer for the customers results report.
+ * <p>
+ * Instead of building the whole report in memory, the {@code CustomersResultsWriter} splits the customers
+ * into chunks of {@link #CHUNK_SIZE} customers, renders the chunks in parallel on the common
+ * {@link ForkJoinPool}, each into its own reusable buffer, and writes the rendered chunks to the file
+ * in order, optionally echoing the same text to the console. Only a bounded window of chunks is rendered
+ * ahead of the one being written, so the memory used while writing the report does not depend on the
+ * number of customers.
+ * </p>
+ * <p>
+ * The produced file has the following layout, where the customer blocks are separated by a line
+ * of '#' characters:
+ * <pre>
+ * ------------------ Results ------------------
+ *
+ * (customer)
+ *
+ * ##############################################
+ *
+ * (customer)
+ *
+ * --------------- End of results ---------------
+ * </pre>
+ * The console output is the same text, preceded and followed by a line separator.
+ * </p>
+ */
+final class CustomersResultsWriter implements Closeable {
+
+    /**
+     * The header line of the report.
+     */
+    static final String HEADER = "------------------ Results ------------------\n";
+
+    /**
+     * The text written between two consecutive customer blocks.
+     */
+    static final String SEPARATOR = "\n\n##############################################\n";
+
+    /**
+     * The footer line of the report.
+     */
+    static final String FOOTER = "\n--------------- End of results ---------------";
+
+    /**
+     * The number of customers rendered into a single buffer.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    /**
+     * The {@link Writer} of the results text file.
+     */
+    private final Writer fileWriter;
+
+    /**
+     * The {@link Writer} of the console; {@code null} if the results are not printed to the console.
+     */
+    private final Writer consoleWriter;
+
+    /**
+     * Constructs a new {@code CustomersResultsWriter} that writes the report to the specified file.
+     *
+     * @param path           The {@link Path} of the results text file.
+     * @param printToConsole {@code true} if the report should also be printed to the console.
+     * @throws IOException If the results text file cannot be opened for writing.
+     */
+    CustomersResultsWriter(Path path, boolean printToConsole) throws IOException {
+        this.fileWriter = Files.newBufferedWriter(path);
+        this.consoleWriter = printToConsole ? new BufferedWriter(new OutputStreamWriter(System.out)) : null;
+    }
+
+    /**
+     * Streams the results report of the given customers to the {@value ICustomerBetService#RESULTS_FILE_NAME}
+     * file, optionally displaying it to the console.
+     * <p>
+     * In case of an error during the file-writing process, an error message is displayed. The latency of the
+     * report is recorded by the {@link BetMetrics}.
+     * </p>
+     *
+     * @param customers      The {@link List} of {@link Customer} objects to be reported, in report order.
+     * @param printToConsole {@code true} if the report should also be printed to the console.
+     */
+    static void report(List<Customer> customers, boolean printToConsole) {
+        long startNanos = System.nanoTime();
+        try (CustomersResultsWriter writer = new CustomersResultsWriter(Path.of(ICustomerBetService.RESULTS_FILE_NAME), printToConsole)) {
+            writer.writeHeader();
+            writer.writeCustomers(customers);
+            writer.writeFooter();
+        } catch (IOException e) {
+            System.out.printf("Something went wrong while trying to save the customers results. Error: %s", e.getMessage());
+            return;
+        }
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.REPORT, startNanos);
+        if (printToConsole) {
+            System.out.printf("%n> Customers results saved to '%s'.%n", ICustomerBetService.RESULTS_FILE_NAME);
+        }
+    }
+
+    /**
+     * Writes the header of the report.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeHeader() throws IOException {
+        if (consoleWriter != null) {
+            consoleWriter.write('\n');
+        }
+        write(HEADER);
+    }
+
+    /**
+     * Writes the blocks of the given customers, each followed by a separator or, for the last customer,
+     * by a new line.
+     * <p>
+     * The chunks are rendered in parallel, at most twice as many as the parallelism level of the common
+     * {@link ForkJoinPool} at a time, and written in order; the buffer of a written chunk is reused to render
+     * the next pending chunk. On a single processor, where the rendering threads would only compete with the
+     * writing thread, the chunks are rendered by the writing thread itself.
+     * </p>
+     *
+     * @param customers The {@link List} of {@link Customer} objects to be written, in report order.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeCustomers(List<Customer> customers) throws IOException {
+        int chunkCount = Math.ceilDiv(customers.size(), CHUNK_SIZE);
+        int window = Math.min(chunkCount, 2 * ForkJoinPool.getCommonPoolParallelism());
+        Executor executor = Runtime.getRuntime().availableProcessors() > 1 ? ForkJoinPool.commonPool() : Runnable::run;
+        Queue<CompletableFuture<ReportChunk>> renderedChunks = new ArrayDeque<>(window);
+        for (int chunk = 0; chunk < window; chunk++) {
+            renderedChunks.add(render(new ReportChunk(), customers, chunk, executor));
+        }
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            ReportChunk reportChunk = renderedChunks.remove().join();
+            write(reportChunk.chars, reportChunk.length);
+            if (chunk + window < chunkCount) {
+                renderedChunks.add(render(reportChunk, customers, chunk + window, executor));
+            }
+        }
+    }
+
+    /**
+     * Writes the footer of the report.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeFooter() throws IOException {
+        write(FOOTER);
+        if (consoleWriter != null) {
+            consoleWriter.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Writes the given text to the file and, if enabled, to the console.
+     *
+     * @param text The text to be written.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void write(String text) throws IOException {
+        fileWriter.write(text);
+        if (consoleWriter != null) {
+            consoleWriter.write(text);
+        }
+    }
+
+    /**
+     * Writes the first characters of the given buffer to the file and, if enabled, to the console.
+     *
+     * @param chars  The buffer holding the text to be written.
+     * @param length The number of characters to be written.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void write(char[] chars, int length) throws IOException {
+        fileWriter.write(chars, 0, length);
+        if (consoleWriter != null) {
+            consoleWriter.write(chars, 0, length);
+        }
+    }
+
+    /**
+     * Renders a chunk of customers into a buffer, asynchronously on the given {@link Executor}.
+     *
+     * @param reportChunk The {@link ReportChunk} buffer to render into; its previous content is discarded.
+     * @param customers   The {@link List} of {@link Customer} objects of the report.
+     * @param chunk       The index of the chunk to be rendered.
+     * @param executor    The {@link Executor} rendering the chunk.
+     * @return A {@link CompletableFuture} completed with the given buffer once the chunk is rendered.
+     */
+    private static CompletableFuture<ReportChunk> render(ReportChunk reportChunk, List<Customer> customers, int chunk, Executor executor) {
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(from + CHUNK_SIZE, customers.size());
+        return CompletableFuture.supplyAsync(() -> reportChunk.render(customers, from, to), executor);
+    }
+
+    /**
+     * Flushes the console output and closes the results text file.
+     * <p>
+     * The console itself is not closed, so that the application can keep printing to it.
+     * </p>
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (consoleWriter != null) {
+                consoleWriter.flush();
+            }
+        } finally {
+            fileWriter.close();
+        }
+    }
+
+    /**
+     * A reusable buffer holding the rendered blocks of a chunk of customers.
+     * <p>
+     * The blocks are appended to a {@link StringBuilder} and then copied into a character array, which is
+     * written as a whole; both grow to fit the largest chunk rendered into them and are kept for the next chunk.
+     * </p>
+     */
+    private static final class ReportChunk {
+
+        /**
+         * The builder the customer blocks are appended to.
+         */
+        private final StringBuilder builder = new StringBuilder();
+
+        /**
+         * The rendered text of the chunk, in its first {@link #length} characters.
+         */
+        private char[] chars = new char[0];
+
+        /**
+         * The number of rendered characters of the chunk.
+         */
+        private int length;
+
+        /**
+         * Renders the blocks of a range of customers, each followed by a separator or, for the last customer
+         * of the report, by a new line.
+         *
+         * @param customers The {@link List} of {@link Customer} objects of the report.
+         * @param from      The index of the first customer (inclusive) to be rendered.
+         * @param to        The index of the last customer (exclusive) to be rendered.
+         * @return This {@code ReportChunk}.
+         */
+        ReportChunk render(List<Customer> customers, int from, int to) {
+            builder.setLength(0);
+            for (int index = from; index < to; index++) {
+                builder.append('\n');
+                customers.get(index).appendTo(builder);
+                builder.append(index == customers.size() - 1 ? "\n" : SEPARATOR);
+            }
+
+            length = builder.length();
+            if (chars.length < length) {
+                chars = new char[builder.capacity()];
+            }
+            builder.getChars(0, length, chars, 0);
+            return this;
+        }
+
+    }
+
+}
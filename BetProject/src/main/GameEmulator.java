@@ -1,9 +1,14 @@
 package main;
 
 import bet.Bet;
+import bet.Sport;
+import metrics.BetMetrics;
+import metrics.PipelineStage;
 
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Singleton class for emulating game results by randomly selecting outcomes for a list of bets.
@@ -14,6 +19,11 @@ import java.util.Random;
  * <p>
  * This class is particularly useful for simulating or testing betting outcomes.
  * </p>
+ * <p>
+ * Besides uniformly random results, the emulator can generate realistic, reproducible results whose
+ * probabilities are derived from the odds of each bet, resolving large lists of bets in parallel
+ * (see {@link #generateOddsWeightedGameResults(List, long, int)}).
+ * </p>
  */
 public enum GameEmulator {
 
@@ -44,11 +54,97 @@ public enum GameEmulator {
      *             This method will assign a random result to each bet in the list.
      */
     public void generateRandomGameResults(List<Bet> bets) {
+        long startNanos = System.nanoTime();
         bets.forEach(bet -> {
-            char[] availableChoices = bet.getAvailableChoices();
-            char result = availableChoices[random.nextInt(availableChoices.length)];
+            Sport sport = bet.getSport();
+            char result = sport.getChoice(random.nextInt(sport.getChoiceCount()));
             bet.setGameResult(result);
         });
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.GAME_RESULTS, startNanos);
+    }
+
+    /**
+     * Generates results for the given list of bets, with probabilities derived from their odds, and sets the
+     * result on each bet.
+     * <p>
+     * The list is divided into chunks of bets, and each chunk draws its results from its own
+     * {@link SplittableRandom} stream, split from the seed in chunk order. The chunks are resolved in
+     * parallel by a {@link ForkJoinPool} with the given parallelism level, without any shared random number
+     * generator. The generated results are fully determined by the seed and the order of the list, whatever
+     * the parallelism level.
+     * </p>
+     * <p>
+     * The result of each bet is drawn with the probabilities of {@link #getOutcomeProbability(Bet, int)}.
+     * Since the results may be set concurrently, every registered game result listener must be thread-safe.
+     * </p>
+     *
+     * @param bets        A list of {@link Bet} objects, whose results are to be generated.
+     * @param seed        The seed the results are generated from.
+     * @param parallelism The number of worker threads used to generate the results.
+     */
+    public void generateOddsWeightedGameResults(List<Bet> bets, long seed, int parallelism) {
+        long startNanos = System.nanoTime();
+        int chunks = (bets.size() + GameResultsTask.CHUNK_SIZE - 1) / GameResultsTask.CHUNK_SIZE;
+        if (chunks > 0) {
+            SplittableRandom random = new SplittableRandom(seed);
+            SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                chunkRandoms[chunk] = random.split();
+            }
+            try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                pool.invoke(new GameResultsTask(bets, chunkRandoms, 0, chunks));
+            }
+        }
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.GAME_RESULTS, startNanos);
+    }
+
+    /**
+     * Returns the probability of an outcome of a bet, as derived from its odds.
+     * <p>
+     * A bet carries a single price, which is treated as the decimal odds of its first choice (the home win,
+     * '1'). The first choice therefore happens with its implied probability, {@code 1 / odds} (or always, if
+     * the odds are at most 1.0), and the remaining probability is shared equally by the other choices.
+     * </p>
+     *
+     * @param bet         The {@link Bet} whose outcome probability is requested.
+     * @param choiceIndex The index of the outcome in {@link Bet#getAvailableChoices()}.
+     * @return The probability of the outcome, between 0.0 and 1.0.
+     */
+    public double getOutcomeProbability(Bet bet, int choiceIndex) {
+        double favouriteProbability = favouriteProbability(bet);
+        if (choiceIndex == 0) {
+            return favouriteProbability;
+        }
+        return (1.0 - favouriteProbability) / (bet.getSport().getChoiceCount() - 1);
+    }
+
+    /**
+     * Draws a result for a bet with the probabilities of {@link #getOutcomeProbability(Bet, int)},
+     * without setting it.
+     *
+     * @param bet    The {@link Bet} whose result is to be drawn.
+     * @param random The {@link SplittableRandom} stream the result is drawn from.
+     * @return The drawn result, one of the {@link Bet#getAvailableChoices()} of the bet.
+     */
+    public char drawOddsWeightedResult(Bet bet, SplittableRandom random) {
+        Sport sport = bet.getSport();
+        double favouriteProbability = favouriteProbability(bet);
+        double draw = random.nextDouble();
+        if (draw < favouriteProbability || sport.getChoiceCount() == 1) {
+            return sport.getChoice(0);
+        }
+        int other = (int) ((draw - favouriteProbability) / (1.0 - favouriteProbability) * (sport.getChoiceCount() - 1));
+        return sport.getChoice(1 + Math.min(other, sport.getChoiceCount() - 2));
+    }
+
+    /**
+     * Returns the implied probability of the first choice of a bet.
+     *
+     * @param bet The {@link Bet} whose first choice probability is requested.
+     * @return {@code 1 / odds}, capped at 1.0.
+     */
+    private static double favouriteProbability(Bet bet) {
+        return bet.getOdds() <= 1.0 ? 1.0 : 1.0 / bet.getOdds();
     }
 
 }
@@ -0,0 +1,89 @@
+package main;
+
+import bet.Bet;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that generates odds-weighted results for a contiguous range of chunks of bets.
+ * <p>
+ * The list of bets is divided into chunks of {@link #CHUNK_SIZE} bets, each with its own
+ * {@link SplittableRandom} stream. The task recursively splits its range of chunks in half until it holds
+ * a single chunk, and then draws the result of each bet of that chunk from the chunk's stream. Since every
+ * chunk always draws from the same stream in the same order, the generated results depend only on the
+ * streams, not on the number of threads or on the order in which the chunks are processed.
+ * </p>
+ */
+final class GameResultsTask extends RecursiveAction {
+
+    /**
+     * The version of the serialized form of the task; tasks are never serialized, so their fields are transient.
+     */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of bets whose results are drawn from a single random stream.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The list of {@link Bet} objects whose results are generated.
+     */
+    private final transient List<Bet> bets;
+
+    /**
+     * The random stream of each chunk, indexed by chunk.
+     */
+    private final transient SplittableRandom[] chunkRandoms;
+
+    /**
+     * The index of the first chunk (inclusive) processed by this task.
+     */
+    private final int fromChunk;
+
+    /**
+     * The index of the last chunk (exclusive) processed by this task.
+     */
+    private final int toChunk;
+
+    /**
+     * Constructs a new {@code GameResultsTask} for the specified range of chunks.
+     *
+     * @param bets         The list of {@link Bet} objects whose results are generated.
+     * @param chunkRandoms The random stream of each chunk, indexed by chunk.
+     * @param fromChunk    The index of the first chunk (inclusive) to be processed.
+     * @param toChunk      The index of the last chunk (exclusive) to be processed.
+     */
+    GameResultsTask(List<Bet> bets, SplittableRandom[] chunkRandoms, int fromChunk, int toChunk) {
+        this.bets = bets;
+        this.chunkRandoms = chunkRandoms;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+    }
+
+    /**
+     * Generates the results of the bets of this task's chunks, splitting the range into two subtasks if it
+     * holds more than one chunk.
+     */
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk == 1) {
+            SplittableRandom random = chunkRandoms[fromChunk];
+            int to = Math.min((fromChunk + 1) * CHUNK_SIZE, bets.size());
+            for (int i = fromChunk * CHUNK_SIZE; i < to; i++) {
+                Bet bet = bets.get(i);
+                bet.setGameResult(GameEmulator.INSTANCE.drawOddsWeightedResult(bet, random));
+            }
+            return;
+        }
+
+        int middle = (fromChunk + toChunk) >>> 1;
+        invokeAll(new GameResultsTask(bets, chunkRandoms, fromChunk, middle),
+                new GameResultsTask(bets, chunkRandoms, middle, toChunk));
+    }
+
+}
@@ -1,21 +1,69 @@
 package main;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import bet.Bet;
+import customer.Customer;
+import customer.CustomerBet;
 
 /**
  * Interface for customer betting services, defining methods for calculating gains and presenting
- * results, as well as a default method for saving results to a text file.
+ * results.
+ * <p>
+ * The service is implemented by the {@link BetOrganization} singleton, and by the
+ * {@link ShardedBetOrganization}, which partitions the customers across single-writer shards.
+ * </p>
  */
-public sealed interface ICustomerBetService permits BetOrganization {
+public sealed interface ICustomerBetService permits BetOrganization, ShardedBetOrganization {
+
+    /**
+     * The name of the text file where the customers results are saved.
+     */
+    String RESULTS_FILE_NAME = "bet-results.txt";
+
+    /**
+     * Places a new bet on behalf of a customer, after validating its stake against the customer's
+     * maximum stake and its choice against the available choices of the bet. The customer's total
+     * spent amount is updated together with their bets. This method may be called concurrently.
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return The placed {@link CustomerBet}.
+     */
+    CustomerBet placeBet(Customer customer, Bet bet, int stake, char choice);
 
     /**
      * Calculates and updates the gains for each customer based on their bets and the actual
      * game outcomes. Each customer’s total gains are updated if they win their bets.
+     * Every customer bet is settled only once, so calling this method again without new
+     * game results has no effect.
      */
     void calculateGainsPerCustomer();
 
+    /**
+     * Calculates and updates the gains for each customer in parallel, using the given number of
+     * worker threads. The same customer bets are won and lost as with {@link #calculateGainsPerCustomer()}.
+     *
+     * @param parallelism The number of worker threads used for the calculation.
+     */
+    void calculateGainsPerCustomer(int parallelism);
+
+    /**
+     * Calculates and updates the gains of the customers who won the given bet, once its
+     * game outcome is known. Only the customer bets placed on that bet are evaluated.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    void settleBet(Bet bet);
+
+    /**
+     * Cancels the given bet, voiding the open customer bets placed on it and refunding their stakes.
+     * If the game result of the bet is already determined, its customer bets are settled instead.
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     */
+    void voidBet(Bet bet);
+
     /**
      * Displays the betting results of each customer to the console and saves these results
      * to a text file for record-keeping.
@@ -23,23 +71,11 @@ public sealed interface ICustomerBetService permits BetOrganization {
     void showCustomersResults();
 
     /**
-     * Saves the provided betting results to a default text file named "bet-results.txt".
-     * <p>
-     * This method writes the betting results to a text file, ensuring that all customer
-     * results are persistently stored. In case of an error during the file-writing
-     * process, an error message is displayed.
-     * </p>
+     * Saves the betting results of each customer to a text file, streaming them customer by
+     * customer, and optionally displays them to the console.
      *
-     * @param output The string containing results data to be saved to the file.
-     */
-    default void printCustomersResultsToTextFile(String output) {
-        try {
-            String fileName = "bet-results.txt";
-            Files.writeString(Path.of(fileName), output);
-            System.out.printf("%n> Customers results saved to '%s'.%n", fileName);
-        } catch (IOException e) {
-            System.out.printf("Something went wrong while trying to save the customers results. Error: %s", e.getMessage());
-        }
-    }
+     * @param printToConsole {@code true} if the results should also be printed to the console.
+     */
+    void showCustomersResults(boolean printToConsole);
 
 }
@@ -0,0 +1,49 @@
+package main;
+
+import bet.Bet;
+import customer.Customer;
+
+/**
+ * Write-ahead log of the wager placements and cancelled bets of a {@link BetOrganization}.
+ * <p>
+ * A journal set with {@link BetOrganization#setJournal(IWagerJournal)} is asked to record every placement once it
+ * has passed every check under the lock of its customer, and before it changes any state, so that the journal
+ * only ever holds accepted placements, in the order they were accepted. Recording a placement only appends its
+ * record: the placer then waits for it with {@link #awaitDurable(long)} once it has released the lock, so that
+ * concurrent placements are synced together.
+ * </p>
+ * <p>
+ * A cancelled bet is recorded, and made durable, before any of its wagers is voided.
+ * </p>
+ */
+public interface IWagerJournal {
+
+    /**
+     * Appends the record of an accepted wager placement, without waiting for it to be durable.
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return The ticket of the record, to wait for it with {@link #awaitDurable(long)}.
+     * @throws java.io.UncheckedIOException If the journal can no longer be written.
+     */
+    long journalPlacement(Customer customer, Bet bet, int stake, char choice);
+
+    /**
+     * Waits until an appended record is durable.
+     *
+     * @param ticket The ticket of the record, as returned by {@link #journalPlacement(Customer, Bet, int, char)}.
+     * @throws java.io.UncheckedIOException If the journal can no longer be written.
+     */
+    void awaitDurable(long ticket);
+
+    /**
+     * Records the cancellation of a bet, and waits until the record is durable.
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     * @throws java.io.UncheckedIOException If the journal can no longer be written.
+     */
+    void journalVoid(Bet bet);
+
+}
@@ -0,0 +1,278 @@
+package main;
+
+import bet.Bet;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.StakeGuard;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A partition of a {@link ShardedBetOrganization}, owning a subset of its customers.
+ * <p>
+ * Each shard is owned by a single writer thread, which executes the commands submitted to the shard one at a
+ * time, in submission order. The commands are handed over through a lock-free queue, and the writer thread
+ * parks while the queue is empty. Every wager of the shard's customers is placed, indexed and settled by the
+ * writer thread only, so the shard-local state (the wagers of each bet and the resolved bets) is accessed
+ * without any synchronization.
+ * </p>
+ * <p>
+ * The methods that access the shard-local state must only be called by commands running on the writer thread.
+ * Every command is submitted with {@link #submit(Supplier)}, whose future is completed with anything the command
+ * throws, {@link Error}s included, so a failed command is reported to the thread waiting for it and the writer
+ * thread goes on with the next command.
+ * </p>
+ */
+final class OrganizationShard {
+
+    /**
+     * The commands waiting to be executed by the writer thread.
+     */
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The writer thread of the shard.
+     */
+    private final Thread writer;
+
+    /**
+     * {@code true} while the writer thread is about to park or parked, waiting for commands.
+     */
+    private volatile boolean parked;
+
+    /**
+     * {@code false} once the shard has been closed.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The customer bets of the shard's customers, grouped by the bet they were placed on; writer thread only.
+     */
+    private final Map<Bet, List<CustomerBet>> customerBetsByBet = new HashMap<>();
+
+    /**
+     * The bets whose game result has been set but which have not been settled yet by this shard; writer thread only.
+     */
+    private final Set<Bet> resolvedBets = new HashSet<>();
+
+    /**
+     * Constructs and starts a new {@code OrganizationShard}.
+     *
+     * @param name The name of the writer thread.
+     */
+    OrganizationShard(String name) {
+        this.writer = new Thread(this::run, name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a command to be executed by the writer thread, waking the writer thread up if it is parked.
+     *
+     * @param command The command to be executed, which must not throw.
+     */
+    private void execute(Runnable command) {
+        commands.offer(command);
+        if (parked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Submits a command computing a value to be executed by the writer thread.
+     *
+     * @param command The command to be executed.
+     * @param <T>     The type of the computed value.
+     * @return A {@link CompletableFuture} completed with the computed value, or with the exception or error thrown
+     * by the command.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Places a validated bet on behalf of a customer of this shard; writer thread only.
+     * <p>
+     * The customer bet is indexed by this shard only, not in the global {@link customer.CustomerBetIndex}, so that
+     * placements on different shards never contend, and the customer bet is never settled by another
+     * organization nor off the writer thread.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return The placed {@link CustomerBet}.
+     * @throws IllegalArgumentException If the cumulative stake of the customer on the bet would exceed their
+     *                                  maximum stake.
+     * @throws IllegalStateException    If the game result of the bet has been determined in the meantime.
+     */
+    CustomerBet place(Customer customer, Bet bet, int stake, char choice) {
+        if (bet.getGameResult() != '-') {
+            throw new IllegalStateException("The game result of this bet is already determined");
+        }
+        StakeGuard.INSTANCE.checkCumulativeStake(customer, bet, stake);
+
+        CustomerBet customerBet = new CustomerBet(bet, stake, choice);
+        customerBet.recordPlacement();
+        customer.addUnindexedCustomerBet(customerBet);
+        customer.increaseTotalSpentMinorUnits(Money.toMinorUnits(stake));
+        index(customerBet);
+        return customerBet;
+    }
+
+    /**
+     * Takes ownership of a customer added to the organization, indexing the bets they have already placed;
+     * writer thread only.
+     *
+     * @param customer The {@link Customer} assigned to this shard.
+     */
+    void adopt(Customer customer) {
+        for (CustomerBet customerBet : customer.getCustomerBetList()) {
+            index(customerBet);
+            if (customerBet.getBet().getGameResult() != '-') {
+                resolvedBets.add(customerBet.getBet());
+            }
+        }
+    }
+
+    /**
+     * Marks a bet as resolved, so that it is settled by the next {@link #settleResolvedBets()}; writer thread only.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    void resolve(Bet bet) {
+        resolvedBets.add(bet);
+    }
+
+    /**
+     * Settles the customer bets of this shard placed on the bets resolved since the previous settlement;
+     * writer thread only.
+     */
+    void settleResolvedBets() {
+        for (Bet bet : resolvedBets) {
+            settleResolvedBet(bet);
+        }
+        resolvedBets.clear();
+    }
+
+    /**
+     * Settles the customer bets of this shard placed on a bet, if its result is determined; writer thread only.
+     *
+     * @param bet The {@link Bet} to be settled.
+     */
+    void settle(Bet bet) {
+        if (bet.getGameResult() == '-') {
+            return;
+        }
+        resolvedBets.remove(bet);
+        settleResolvedBet(bet);
+    }
+
+    /**
+     * Voids the open customer bets of this shard placed on a bet, refunding their stakes, or settles them if the
+     * game result of the bet is already determined; writer thread only.
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     */
+    void voidBet(Bet bet) {
+        if (bet.getGameResult() != '-') {
+            settle(bet);
+            return;
+        }
+        resolvedBets.remove(bet);
+        for (CustomerBet customerBet : customerBetsByBet.getOrDefault(bet, List.of())) {
+            BetOrganization.voidCustomerBet(customerBet);
+        }
+    }
+
+    /**
+     * Forgets every customer bet and resolved bet of this shard; writer thread only.
+     */
+    void clear() {
+        customerBetsByBet.clear();
+        resolvedBets.clear();
+    }
+
+    /**
+     * Stops the writer thread once every already submitted command has been executed, and waits for it.
+     * <p>
+     * If the calling thread is interrupted while waiting, its interrupt status is restored and the
+     * remaining commands are executed in the background.
+     * </p>
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Settles every customer bet of this shard placed on a resolved bet; writer thread only.
+     *
+     * @param bet The {@link Bet} to be settled.
+     */
+    private void settleResolvedBet(Bet bet) {
+        char gameResult = bet.getGameResult();
+        long oddsUnits = bet.getOddsUnits();
+        for (CustomerBet customerBet : customerBetsByBet.getOrDefault(bet, List.of())) {
+            BetOrganization.settleCustomerBet(customerBet, gameResult, oddsUnits);
+        }
+    }
+
+    /**
+     * Adds a customer bet to the group of the bet it was placed on; writer thread only.
+     *
+     * @param customerBet The {@link CustomerBet} to be indexed.
+     */
+    private void index(CustomerBet customerBet) {
+        customerBetsByBet.computeIfAbsent(customerBet.getBet(), bet -> new ArrayList<>()).add(customerBet);
+    }
+
+    /**
+     * The loop of the writer thread: executes the submitted commands in order, parking while there are none,
+     * until the shard is closed and every submitted command has been executed.
+     */
+    private void run() {
+        while (true) {
+            Runnable command = commands.poll();
+            if (command != null) {
+                command.run();
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+
+            parked = true;
+            if (commands.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package main;
+
+/**
+ * Describes the rate at which the wagers of a customer are accepted by a {@link WagerRateLimiter}.
+ * <p>
+ * A customer may place a burst of up to {@code burst} wagers at once, and then up to
+ * {@code wagersPerSecond} wagers per second on average: as with a token bucket holding {@code burst} tokens,
+ * refilled at {@code wagersPerSecond} tokens per second, every wager takes one token.
+ * </p>
+ *
+ * @param burst           The maximum number of wagers accepted at once from an idle customer.
+ * @param wagersPerSecond The sustained number of wagers accepted per second.
+ */
+public record RateLimit(int burst, double wagersPerSecond) {
+
+    /**
+     * Validates the rate limit.
+     *
+     * @throws IllegalArgumentException If the burst or the rate is not positive, or the rate is too high to be
+     *                                  measured in nanoseconds.
+     */
+    public RateLimit {
+        if (burst <= 0 || !(wagersPerSecond > 0.0) || wagersPerSecond > 1e9) {
+            throw new IllegalArgumentException("The burst and the rate of a rate limit must be positive");
+        }
+    }
+
+    /**
+     * Returns the time it takes to refill one token, i.e., the average interval between two accepted wagers.
+     *
+     * @return The interval between two wagers, in nanoseconds.
+     */
+    long intervalNanos() {
+        return Math.round(1e9 / wagersPerSecond);
+    }
+
+}
@@ -0,0 +1,53 @@
+package main;
+
+import java.io.Serial;
+import java.time.Duration;
+
+/**
+ * Thrown when a wager is rejected because its customer exceeds their {@link RateLimit}.
+ * <p>
+ * The exception tells how long the customer must wait before a wager of theirs can be accepted again.
+ * </p>
+ */
+public final class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * The version of the serialized form of the exception.
+     */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The time after which the rejected wager would have been accepted, in nanoseconds.
+     */
+    private final long retryAfterNanos;
+
+    /**
+     * Constructs a new {@code RateLimitExceededException}.
+     *
+     * @param retryAfterNanos The time after which the rejected wager would have been accepted, in nanoseconds.
+     */
+    public RateLimitExceededException(long retryAfterNanos) {
+        super("Wager rate limit exceeded, retry after " + Duration.ofNanos(retryAfterNanos).toMillis() + " ms");
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /**
+     * Returns how long the customer must wait before a wager of theirs can be accepted again.
+     *
+     * @return The time to wait, in nanoseconds.
+     */
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+
+    /**
+     * Returns how long the customer must wait before a wager of theirs can be accepted again.
+     *
+     * @return The {@link Duration} to wait.
+     */
+    public Duration getRetryAfter() {
+        return Duration.ofNanos(retryAfterNanos);
+    }
+
+}
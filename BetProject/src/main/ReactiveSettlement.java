@@ -0,0 +1,227 @@
+package main;
+
+import bet.Bet;
+import bet.IGameResultListener;
+import metrics.BetMetrics;
+import metrics.PipelineStage;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Settles bets as soon as their game results are set, instead of waiting for a batch settlement.
+ * <p>
+ * While open, the {@code ReactiveSettlement} listens to {@link Bet#setGameResult(char)} and publishes
+ * every game result as an event through a {@link SubmissionPublisher}. A single subscriber, running on
+ * a dedicated thread, settles each published bet with {@link ICustomerBetService#settleBet(Bet)},
+ * crediting the winning customers right away.
+ * </p>
+ * <p>
+ * Backpressure is applied at both ends of the pipeline: the subscriber requests events in batches of a
+ * configurable size, and the publisher buffers at most a configurable number of unsettled results. Once
+ * that buffer is full, the thread setting a game result blocks until the subscriber catches up, so no
+ * result is ever dropped.
+ * </p>
+ * <p>
+ * The latency from the publication of a result to the credit of its winners is recorded for every settled bet
+ * in the {@link PipelineStage#SETTLEMENT} histogram of the {@link BetMetrics}. A bet whose settlement fails is
+ * reported and counted (see {@link #getFailedBets()}), and the subscriber goes on with the next result, so a
+ * single failure never stops the settlement of the following results.
+ * </p>
+ */
+public final class ReactiveSettlement implements IGameResultListener, AutoCloseable {
+
+    /**
+     * The {@link ICustomerBetService} settling the published bets.
+     */
+    private final ICustomerBetService customerBetService;
+
+    /**
+     * The {@link ExecutorService} running the subscriber.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /**
+     * The {@link SubmissionPublisher} of the game result events.
+     */
+    private final SubmissionPublisher<GameResultEvent> publisher;
+
+    /**
+     * Counted down once the subscriber has processed every published event and completed.
+     */
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    /**
+     * The number of settled bets.
+     */
+    private final LongAdder settledBets = new LongAdder();
+
+    /**
+     * The number of bets whose settlement failed.
+     */
+    private final LongAdder failedBets = new LongAdder();
+
+    /**
+     * Constructs and opens a new {@code ReactiveSettlement}, which settles every game result set from now on.
+     *
+     * @param customerBetService The {@link ICustomerBetService} settling the published bets.
+     * @param bufferCapacity     The maximum number of unsettled results buffered before publication blocks.
+     * @param batchSize          The number of events the subscriber requests at a time.
+     */
+    public ReactiveSettlement(ICustomerBetService customerBetService, int bufferCapacity, int batchSize) {
+        this.customerBetService = customerBetService;
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.publisher.subscribe(new SettlementSubscriber(batchSize));
+        Bet.addGameResultListener(this);
+    }
+
+    /**
+     * Publishes the game result of a bet for settlement, blocking while the buffer is full.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    @Override
+    public void onGameResult(Bet bet) {
+        publisher.submit(new GameResultEvent(bet, System.nanoTime()));
+    }
+
+    /**
+     * Returns the number of bets settled so far.
+     *
+     * @return The number of settled bets.
+     */
+    public long getSettledBets() {
+        return settledBets.sum();
+    }
+
+    /**
+     * Returns the number of bets whose settlement failed so far.
+     *
+     * @return The number of failed bets.
+     */
+    public long getFailedBets() {
+        return failedBets.sum();
+    }
+
+    /**
+     * Stops listening to game results and waits until every already published result has been settled.
+     * <p>
+     * If the calling thread is interrupted while waiting, its interrupt status is restored and the
+     * remaining results are settled in the background.
+     * </p>
+     */
+    @Override
+    public void close() {
+        Bet.removeGameResultListener(this);
+        publisher.close();
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * The event published when the result of a game is set.
+     *
+     * @param bet              The {@link Bet} whose game result has been set.
+     * @param publishedAtNanos The {@link System#nanoTime()} at which the result was published.
+     */
+    private record GameResultEvent(Bet bet, long publishedAtNanos) {
+    }
+
+    /**
+     * The subscriber settling the published bets, requesting events in batches.
+     */
+    private final class SettlementSubscriber implements Flow.Subscriber<GameResultEvent> {
+
+        /**
+         * The number of events requested at a time.
+         */
+        private final int batchSize;
+
+        /**
+         * The {@link Flow.Subscription} of this subscriber.
+         */
+        private Flow.Subscription subscription;
+
+        /**
+         * The number of events still to be received from the current request.
+         */
+        private int remaining;
+
+        /**
+         * Constructs a new {@code SettlementSubscriber}.
+         *
+         * @param batchSize The number of events requested at a time.
+         */
+        SettlementSubscriber(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Stores the subscription and requests the first batch of events.
+         *
+         * @param subscription The {@link Flow.Subscription} of this subscriber.
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            remaining = batchSize;
+            subscription.request(batchSize);
+        }
+
+        /**
+         * Settles the bet of the event, records its latency and requests the next batch when the current
+         * one has been processed.
+         * <p>
+         * A settlement failing with an exception is reported and counted, instead of being thrown to the
+         * publisher, which would cancel the subscription and leave every following result unsettled.
+         * </p>
+         *
+         * @param event The {@link GameResultEvent} to be processed.
+         */
+        @Override
+        public void onNext(GameResultEvent event) {
+            try {
+                customerBetService.settleBet(event.bet());
+                BetMetrics.INSTANCE.recordLatency(PipelineStage.SETTLEMENT, event.publishedAtNanos());
+                settledBets.increment();
+            } catch (RuntimeException e) {
+                failedBets.increment();
+                System.out.printf("Something went wrong while settling '%s'. Error: %s%n", event.bet().getGame(), e.getMessage());
+            }
+
+            if (--remaining == 0) {
+                remaining = batchSize;
+                subscription.request(batchSize);
+            }
+        }
+
+        /**
+         * Reports an error of the publisher and completes the subscriber.
+         *
+         * @param throwable The error of the publisher.
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            System.out.printf("Something went wrong while settling the game results. Error: %s%n", throwable.getMessage());
+            completed.countDown();
+        }
+
+        /**
+         * Completes the subscriber once every published event has been processed.
+         */
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+    }
+
+}
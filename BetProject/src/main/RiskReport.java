@@ -0,0 +1,190 @@
+package main;
+
+import bet.Sport;
+import customer.CustomerType;
+import util.Money;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of the profit and loss of the house over the trials of a {@link RiskSimulator}.
+ * <p>
+ * The profit and loss of every trial is kept for the whole book, for each {@link Sport} and for each
+ * {@link CustomerType}, sorted in ascending order, so that any percentile is read directly. A positive amount is
+ * a profit of the house, a negative amount a loss. The value at risk at a confidence level is the loss that is
+ * exceeded only in the worst {@code 1 - confidence} share of the trials (e.g., the worst 1% at 0.99); it is
+ * negative if the house makes a profit even in those trials.
+ * </p>
+ */
+public final class RiskReport {
+
+    /**
+     * The tolerance subtracted from a fractional rank before rounding it up, so that a percentile such as
+     * {@code (1 - 0.99) * 100}, which is not exactly 1 in floating point, selects the intended rank.
+     */
+    private static final double RANK_TOLERANCE = 1e-9;
+
+    /**
+     * The profit and loss of the whole book in each trial, in minor units, in ascending order.
+     */
+    private final long[] total;
+
+    /**
+     * The profit and loss of each sport in each trial, in minor units, indexed by {@link Sport} ordinal, in
+     * ascending order.
+     */
+    private final long[][] bySport;
+
+    /**
+     * The profit and loss of each customer type in each trial, in minor units, indexed by {@link CustomerType}
+     * ordinal, in ascending order.
+     */
+    private final long[][] byCustomerType;
+
+    /**
+     * Constructs a new {@code RiskReport} from the profit and loss of every segment in every trial.
+     *
+     * @param segmentResults The profit and loss in minor units, indexed by segment (see
+     *                       {@link RiskSimulator#segment(Sport, CustomerType)}) and then by trial.
+     */
+    RiskReport(long[][] segmentResults) {
+        int trials = segmentResults[0].length;
+        total = new long[trials];
+        bySport = new long[Sport.values().length][trials];
+        byCustomerType = new long[CustomerType.values().length][trials];
+        for (Sport sport : Sport.values()) {
+            for (CustomerType customerType : CustomerType.values()) {
+                long[] results = segmentResults[RiskSimulator.segment(sport, customerType)];
+                for (int trial = 0; trial < trials; trial++) {
+                    total[trial] += results[trial];
+                    bySport[sport.ordinal()][trial] += results[trial];
+                    byCustomerType[customerType.ordinal()][trial] += results[trial];
+                }
+            }
+        }
+
+        Arrays.sort(total);
+        for (long[] results : bySport) {
+            Arrays.sort(results);
+        }
+        for (long[] results : byCustomerType) {
+            Arrays.sort(results);
+        }
+    }
+
+    /**
+     * Returns the number of trials of the simulation.
+     *
+     * @return The number of trials.
+     */
+    public int getTrials() {
+        return total.length;
+    }
+
+    /**
+     * Returns the mean profit and loss of the house over the trials.
+     *
+     * @return The mean profit and loss.
+     */
+    public double getMean() {
+        long sum = 0;
+        for (long result : total) {
+            sum += result;
+        }
+        return Money.toAmount(sum) / total.length;
+    }
+
+    /**
+     * Returns a percentile of the profit and loss of the house.
+     *
+     * @param percentile The percentile, between 0 and 100 (e.g., 1 for the worst 1% of the trials).
+     * @return The profit and loss at the percentile.
+     */
+    public double getPercentile(double percentile) {
+        return percentile(total, percentile);
+    }
+
+    /**
+     * Returns a percentile of the profit and loss of the house on the bets of a sport.
+     *
+     * @param sport      The {@link Sport} of the bets.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The profit and loss at the percentile.
+     */
+    public double getPercentile(Sport sport, double percentile) {
+        return percentile(bySport[sport.ordinal()], percentile);
+    }
+
+    /**
+     * Returns a percentile of the profit and loss of the house on the wagers of a customer type.
+     *
+     * @param customerType The {@link CustomerType} of the customers.
+     * @param percentile   The percentile, between 0 and 100.
+     * @return The profit and loss at the percentile.
+     */
+    public double getPercentile(CustomerType customerType, double percentile) {
+        return percentile(byCustomerType[customerType.ordinal()], percentile);
+    }
+
+    /**
+     * Returns the value at risk of the house at a confidence level.
+     *
+     * @param confidence The confidence level, between 0 and 1 (e.g., 0.99).
+     * @return The loss exceeded only in the worst {@code 1 - confidence} share of the trials.
+     */
+    public double getValueAtRisk(double confidence) {
+        return -getPercentile((1.0 - confidence) * 100.0);
+    }
+
+    /**
+     * Returns the value at risk of the house on the bets of a sport at a confidence level.
+     *
+     * @param sport      The {@link Sport} of the bets.
+     * @param confidence The confidence level, between 0 and 1.
+     * @return The loss exceeded only in the worst {@code 1 - confidence} share of the trials.
+     */
+    public double getValueAtRisk(Sport sport, double confidence) {
+        return -getPercentile(sport, (1.0 - confidence) * 100.0);
+    }
+
+    /**
+     * Returns the value at risk of the house on the wagers of a customer type at a confidence level.
+     *
+     * @param customerType The {@link CustomerType} of the customers.
+     * @param confidence   The confidence level, between 0 and 1.
+     * @return The loss exceeded only in the worst {@code 1 - confidence} share of the trials.
+     */
+    public double getValueAtRisk(CustomerType customerType, double confidence) {
+        return -getPercentile(customerType, (1.0 - confidence) * 100.0);
+    }
+
+    /**
+     * Returns a one-line summary of the distribution of the profit and loss of the house.
+     *
+     * @return A string with the number of trials, the mean, the 1st, 50th and 99th percentiles, and the value
+     * at risk at 95% and 99%.
+     */
+    @Override
+    public String toString() {
+        return String.format("trials=%d, mean=%.2f, p1=%.2f, p50=%.2f, p99=%.2f, VaR95=%.2f, VaR99=%.2f",
+                getTrials(), getMean(), getPercentile(1), getPercentile(50), getPercentile(99),
+                getValueAtRisk(0.95), getValueAtRisk(0.99));
+    }
+
+    /**
+     * Returns a percentile of sorted results, using the nearest-rank method.
+     *
+     * @param sorted     The results in minor units, in ascending order.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The result at the percentile.
+     * @throws IllegalArgumentException If the percentile is outside 0-100.
+     */
+    private static double percentile(long[] sorted, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100");
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length - RANK_TOLERANCE);
+        return Money.toAmount(sorted[Math.max(rank - 1, 0)]);
+    }
+
+}
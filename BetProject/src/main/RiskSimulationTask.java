@@ -0,0 +1,123 @@
+package main;
+
+import bet.Bet;
+
+import java.io.Serial;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that runs the trials of a contiguous range of chunks of a {@link RiskSimulator}.
+ * <p>
+ * The trials are divided into chunks of {@link #CHUNK_SIZE} trials, each with its own {@link SplittableRandom}
+ * stream. The task recursively splits its range of chunks in half until it holds a single chunk, and then runs
+ * the trials of that chunk, drawing every result from the chunk's stream, so that the outcome of each trial
+ * does not depend on the number of threads. The profit and loss of every segment in every trial is written to
+ * its own slot of the result arrays, so the tasks share no mutable state.
+ * </p>
+ */
+final class RiskSimulationTask extends RecursiveAction {
+
+    /**
+     * The version of the serialized form of the task; tasks are never serialized, so their fields are transient.
+     */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of trials drawn from a single random stream.
+     */
+    static final int CHUNK_SIZE = 64;
+
+    /**
+     * The {@link RiskSimulator} holding the snapshot of the book.
+     */
+    private final transient RiskSimulator simulator;
+
+    /**
+     * The profit and loss of the house in minor units, indexed by segment and then by trial.
+     */
+    private final long[][] segmentResults;
+
+    /**
+     * The random stream of each chunk, indexed by chunk.
+     */
+    private final transient SplittableRandom[] chunkRandoms;
+
+    /**
+     * The index of the first chunk (inclusive) processed by this task.
+     */
+    private final int fromChunk;
+
+    /**
+     * The index of the last chunk (exclusive) processed by this task.
+     */
+    private final int toChunk;
+
+    /**
+     * Constructs a new {@code RiskSimulationTask} for the specified range of chunks.
+     *
+     * @param simulator      The {@link RiskSimulator} holding the snapshot of the book.
+     * @param segmentResults The profit and loss of the house, indexed by segment and then by trial.
+     * @param chunkRandoms   The random stream of each chunk, indexed by chunk.
+     * @param fromChunk      The index of the first chunk (inclusive) to be processed.
+     * @param toChunk        The index of the last chunk (exclusive) to be processed.
+     */
+    RiskSimulationTask(RiskSimulator simulator, long[][] segmentResults, SplittableRandom[] chunkRandoms, int fromChunk, int toChunk) {
+        this.simulator = simulator;
+        this.segmentResults = segmentResults;
+        this.chunkRandoms = chunkRandoms;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+    }
+
+    /**
+     * Runs the trials of this task's chunks, splitting the range into two subtasks if it holds more than
+     * one chunk.
+     */
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk == 1) {
+            runChunk();
+            return;
+        }
+
+        int middle = (fromChunk + toChunk) >>> 1;
+        invokeAll(new RiskSimulationTask(simulator, segmentResults, chunkRandoms, fromChunk, middle),
+                new RiskSimulationTask(simulator, segmentResults, chunkRandoms, middle, toChunk));
+    }
+
+    /**
+     * Runs the trials of the single chunk of this task, reusing the same accumulators for every trial.
+     */
+    private void runChunk() {
+        SplittableRandom random = chunkRandoms[fromChunk];
+        Bet[] bets = simulator.bets;
+        char[] results = simulator.results;
+        int[] firstEntry = simulator.firstEntry;
+        int[] entrySegments = simulator.entrySegments;
+        long[] entryStakes = simulator.entryStakes;
+        long[] entryPayouts = simulator.entryPayouts;
+        long[] profitAndLoss = new long[RiskSimulator.SEGMENTS];
+
+        int trials = segmentResults[0].length;
+        int to = Math.min((fromChunk + 1) * CHUNK_SIZE, trials);
+        for (int trial = fromChunk * CHUNK_SIZE; trial < to; trial++) {
+            for (int i = 0; i < bets.length; i++) {
+                Bet bet = bets[i];
+                char result = results[i] != '-' ? results[i]
+                        : GameEmulator.INSTANCE.drawOddsWeightedResult(bet, random);
+                int choiceOrdinal = bet.getChoiceIndex(result);
+                for (int entry = firstEntry[i]; entry < firstEntry[i + 1]; entry++) {
+                    profitAndLoss[entrySegments[entry]] += entryStakes[entry]
+                            - entryPayouts[entry * RiskSimulator.MAX_CHOICES + choiceOrdinal];
+                }
+            }
+            for (int segment = 0; segment < RiskSimulator.SEGMENTS; segment++) {
+                segmentResults[segment][trial] = profitAndLoss[segment];
+                profitAndLoss[segment] = 0;
+            }
+        }
+    }
+
+}
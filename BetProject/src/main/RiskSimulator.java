@@ -0,0 +1,208 @@
+package main;
+
+import bet.Bet;
+import bet.Sport;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerType;
+import customer.SettlementState;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Monte Carlo simulator of the profit and loss of the house over the open wagers of a book.
+ * <p>
+ * Each trial draws a result for every bet with the {@link GameEmulator}, as in
+ * {@link GameEmulator#generateOddsWeightedGameResults(List, long, int)}, and settles the open wagers against
+ * those results without setting them on the bets nor changing the totals of the customers. The profit and loss
+ * of the house in a trial is the sum of the open stakes minus the payouts of the winning wagers.
+ * </p>
+ * <p>
+ * Since a trial only depends on the result drawn for each bet, the simulator takes a compact snapshot of the
+ * book when it is constructed: the open wagers are aggregated per bet and per segment (a {@link Sport} and a
+ * {@link CustomerType}) into the total stake and the total payout of every choice, in flat primitive arrays.
+ * A trial then costs one draw per bet and a few additions per segment of each bet, whatever the number of
+ * wagers. The trials are run in parallel, in chunks drawing from their own {@link SplittableRandom} stream,
+ * and each worker reuses its accumulators from one trial to the next.
+ * </p>
+ * <p>
+ * Bets whose game result is already determined when the snapshot is taken keep that result in every trial;
+ * results set later are not seen by the simulator. Wagers whose choice is not available for their bet are
+ * ignored, as they are never settled.
+ * </p>
+ */
+public final class RiskSimulator {
+
+    /**
+     * The number of segments: one per {@link Sport} and {@link CustomerType} pair.
+     */
+    static final int SEGMENTS = Sport.values().length * CustomerType.values().length;
+
+    /**
+     * The maximum number of choices of a bet, over all sports.
+     */
+    static final int MAX_CHOICES = Arrays.stream(Sport.values()).mapToInt(Sport::getChoiceCount).max().orElse(0);
+
+    /**
+     * The bets of the snapshot with at least one open wager, indexed by snapshot bet index.
+     */
+    final Bet[] bets;
+
+    /**
+     * The game result of each bet when the snapshot was taken, indexed by snapshot bet index; {@code '-'} if it
+     * was not determined yet.
+     */
+    final char[] results;
+
+    /**
+     * The index of the first entry of each bet, indexed by snapshot bet index, followed by the number of entries.
+     */
+    final int[] firstEntry;
+
+    /**
+     * The segment of each entry; an entry aggregates the open wagers of a bet in a segment.
+     */
+    final int[] entrySegments;
+
+    /**
+     * The total stake of each entry, in minor units.
+     */
+    final long[] entryStakes;
+
+    /**
+     * The total payout of each entry for every choice, in minor units, indexed by
+     * {@code entry * MAX_CHOICES + choiceOrdinal}.
+     */
+    final long[] entryPayouts;
+
+    /**
+     * Takes a snapshot of the open wagers of the given customers.
+     * <p>
+     * The customers and their wagers must not be modified while the snapshot is being taken; later changes
+     * are not seen by the simulator.
+     * </p>
+     *
+     * @param customers The {@link List} of {@link Customer} objects of the book.
+     */
+    public RiskSimulator(List<Customer> customers) {
+        Map<Bet, long[]> aggregatesByBet = new IdentityHashMap<>();
+        List<Bet> openBets = new ArrayList<>();
+        for (Customer customer : customers) {
+            for (CustomerBet customerBet : customer.getCustomerBetList()) {
+                if (customerBet.getSettlementState() != SettlementState.OPEN) {
+                    continue;
+                }
+                Bet bet = customerBet.getBet();
+                int choiceIndex = bet.getChoiceIndex(customerBet.getChoice());
+                if (choiceIndex < 0) {
+                    continue;
+                }
+                long[] aggregates = aggregatesByBet.computeIfAbsent(bet, key -> {
+                    openBets.add(key);
+                    return new long[SEGMENTS * (1 + MAX_CHOICES)];
+                });
+                int segment = segment(bet.getSport(), customer.getCustomerType());
+                aggregates[segment * (1 + MAX_CHOICES)] += Money.toMinorUnits(customerBet.getStake());
+                aggregates[segment * (1 + MAX_CHOICES) + 1 + choiceIndex]
+                        += Money.payout(customerBet.getStake(), bet.getOddsUnits());
+            }
+        }
+
+        bets = openBets.toArray(Bet[]::new);
+        results = new char[bets.length];
+        for (int i = 0; i < bets.length; i++) {
+            results[i] = bets[i].getGameResult();
+        }
+        firstEntry = new int[bets.length + 1];
+        List<long[]> aggregates = new ArrayList<>(bets.length);
+        int entries = 0;
+        for (int i = 0; i < bets.length; i++) {
+            long[] betAggregates = aggregatesByBet.get(bets[i]);
+            aggregates.add(betAggregates);
+            firstEntry[i] = entries;
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                if (betAggregates[segment * (1 + MAX_CHOICES)] != 0) {
+                    entries++;
+                }
+            }
+        }
+        firstEntry[bets.length] = entries;
+
+        entrySegments = new int[entries];
+        entryStakes = new long[entries];
+        entryPayouts = new long[entries * MAX_CHOICES];
+        int entry = 0;
+        for (long[] betAggregates : aggregates) {
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                int base = segment * (1 + MAX_CHOICES);
+                if (betAggregates[base] == 0) {
+                    continue;
+                }
+                entrySegments[entry] = segment;
+                entryStakes[entry] = betAggregates[base];
+                System.arraycopy(betAggregates, base + 1, entryPayouts, entry * MAX_CHOICES, MAX_CHOICES);
+                entry++;
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of trials and returns the distribution of the profit and loss of the house.
+     * <p>
+     * The trials are divided into chunks, each drawing from its own {@link SplittableRandom} stream split from
+     * the seed in chunk order, and run in parallel by a {@link ForkJoinPool} with the given parallelism level.
+     * The results are fully determined by the seed, whatever the parallelism level.
+     * </p>
+     *
+     * @param trials      The number of trials to be run.
+     * @param seed        The seed the game results are drawn from.
+     * @param parallelism The number of worker threads used to run the trials.
+     * @return The {@link RiskReport} of the trials.
+     * @throws IllegalArgumentException If the number of trials is not positive.
+     */
+    public RiskReport simulate(int trials, long seed, int parallelism) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("The number of trials must be positive");
+        }
+        long[][] segmentResults = new long[SEGMENTS][trials];
+
+        int chunks = (trials + RiskSimulationTask.CHUNK_SIZE - 1) / RiskSimulationTask.CHUNK_SIZE;
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            chunkRandoms[chunk] = random.split();
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            pool.invoke(new RiskSimulationTask(this, segmentResults, chunkRandoms, 0, chunks));
+        }
+        return new RiskReport(segmentResults);
+    }
+
+    /**
+     * Returns the number of bets with at least one open wager in the snapshot.
+     *
+     * @return The number of bets.
+     */
+    public int getBetCount() {
+        return bets.length;
+    }
+
+    /**
+     * Returns the segment of a sport and a customer type.
+     *
+     * @param sport        The {@link Sport} of the bet.
+     * @param customerType The {@link CustomerType} of the customer.
+     * @return The index of the segment.
+     */
+    static int segment(Sport sport, CustomerType customerType) {
+        return sport.ordinal() * CustomerType.values().length + customerType.ordinal();
+    }
+
+}
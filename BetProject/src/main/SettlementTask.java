@@ -0,0 +1,85 @@
+package main;
+
+import customer.Customer;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Fork/join task that settles the bets of a contiguous range of customers.
+ * <p>
+ * The task recursively splits its range of the customer list in half until it holds at most
+ * {@link #THRESHOLD} customers, and then settles each customer of that range sequentially.
+ * Since every customer is settled by exactly one task, in the same order as the sequential
+ * settlement, the resulting totals are identical to those of the sequential path.
+ * </p>
+ */
+final class SettlementTask extends RecursiveAction {
+
+    /**
+     * The version of the serialized form of the task; tasks are never serialized, so their fields are transient.
+     */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of customers a task settles without splitting any further.
+     */
+    static final int THRESHOLD = 1024;
+
+    /**
+     * The list of {@link Customer} objects to be settled.
+     */
+    private final transient List<Customer> customers;
+
+    /**
+     * The index of the first customer (inclusive) settled by this task.
+     */
+    private final int from;
+
+    /**
+     * The index of the last customer (exclusive) settled by this task.
+     */
+    private final int to;
+
+    /**
+     * The action that settles the bets of a single customer.
+     */
+    private final transient Consumer<Customer> settler;
+
+    /**
+     * Constructs a new {@code SettlementTask} for the specified range of customers.
+     *
+     * @param customers The list of {@link Customer} objects to be settled.
+     * @param from      The index of the first customer (inclusive) to be settled.
+     * @param to        The index of the last customer (exclusive) to be settled.
+     * @param settler   The action that settles the bets of a single customer.
+     */
+    SettlementTask(List<Customer> customers, int from, int to, Consumer<Customer> settler) {
+        this.customers = customers;
+        this.from = from;
+        this.to = to;
+        this.settler = settler;
+    }
+
+    /**
+     * Settles the customers of this task's range, splitting it into two subtasks if it is
+     * larger than {@link #THRESHOLD}.
+     */
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                settler.accept(customers.get(i));
+            }
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        invokeAll(new SettlementTask(customers, from, middle, settler),
+                new SettlementTask(customers, middle, to, settler));
+    }
+
+}
@@ -0,0 +1,413 @@
+package main;
+
+import bet.Bet;
+import bet.IGameResultListener;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerBetIndex;
+import customer.Leaderboard;
+import customer.LiabilityIndex;
+import customer.StakeGuard;
+import metrics.BetMetrics;
+import metrics.PipelineStage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Organization partitioning its customers across a fixed number of single-writer shards.
+ * <p>
+ * Unlike the {@link BetOrganization}, whose bets are placed under striped locks and settled from a global
+ * index, the {@code ShardedBetOrganization} assigns every customer to one {@link OrganizationShard} by the hash
+ * of their identity. Each shard is owned by a single writer thread, which receives the placement and settlement
+ * commands of its customers through a lock-free queue, and places, indexes and settles their wagers without any
+ * lock. Game results are broadcast to every shard, and settlements run on all shards in parallel, so the
+ * throughput scales with the number of shards.
+ * </p>
+ * <p>
+ * The wagers placed through the organization are indexed by their shard only: they are not registered in the
+ * global {@link CustomerBetIndex}, so they are neither settled by the {@link BetOrganization} nor off the writer
+ * thread of their shard, and placements on different shards share no lock.
+ * </p>
+ * <p>
+ * The {@link StakeGuard}, the {@link LiabilityIndex}, the {@link Leaderboard} and the {@link BetMetrics} are
+ * house-wide views over every customer and wager, whichever organization they belong to, so the shards share them
+ * rather than keep their own: each of them is safe for concurrent updates, and its per-customer state is only ever
+ * updated by the shard of the customer. They are reset by {@link BetOrganization#clear()} only.
+ * </p>
+ * <p>
+ * The report lists the customers in the order they were added, exactly as the report of the
+ * {@link BetOrganization}. The organization must be closed once it is no longer used, to stop the writer threads.
+ * A command that fails on a shard, even with an {@link Error}, is reported to the caller waiting for it.
+ * </p>
+ */
+public final class ShardedBetOrganization implements ICustomerBetService, IGameResultListener, AutoCloseable {
+
+    /**
+     * The shards of the organization.
+     */
+    private final OrganizationShard[] shards;
+
+    /**
+     * The customers of the organization, in the order they were added.
+     */
+    private final List<Customer> customers = new ArrayList<>();
+
+    /**
+     * The bets of the organization, in the order they were added.
+     */
+    private final List<Bet> bets = new ArrayList<>();
+
+    /**
+     * The {@link WagerRateLimiter} throttling the placements of every customer; {@code null} if placements are not
+     * throttled.
+     */
+    private volatile WagerRateLimiter rateLimiter;
+
+    /**
+     * Constructs a new {@code ShardedBetOrganization}, starting the writer thread of every shard and registering
+     * it to be notified of every game result.
+     *
+     * @param shardCount The number of shards (and writer threads).
+     * @throws IllegalArgumentException If the number of shards is not positive.
+     */
+    public ShardedBetOrganization(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("The number of shards must be positive");
+        }
+        this.shards = new OrganizationShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new OrganizationShard("organization-shard-" + i);
+        }
+        Bet.addGameResultListener(this);
+    }
+
+    /**
+     * Sets the {@link WagerRateLimiter} throttling the placements of every customer, once they are validated and
+     * before they are submitted to their shard.
+     *
+     * @param rateLimiter The {@link WagerRateLimiter} to be used; {@code null} to stop throttling placements.
+     */
+    public void setRateLimiter(WagerRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Retrieves the {@link WagerRateLimiter} throttling the placements of every customer.
+     *
+     * @return The {@link WagerRateLimiter} in use; {@code null} if placements are not throttled.
+     */
+    public WagerRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Returns the number of shards of the organization.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Adds a new customer to the organization, assigning them to their shard, and waits until the shard has
+     * taken them over.
+     * <p>
+     * Any bets the customer has already placed are handed over to the shard, and settled with the other
+     * bets of the shard.
+     * </p>
+     *
+     * @param customer The {@link Customer} to be added.
+     */
+    public void addCustomer(Customer customer) {
+        synchronized (customers) {
+            customers.add(customer);
+        }
+        OrganizationShard shard = shardOf(customer);
+        await(shard.submit(() -> {
+            shard.adopt(customer);
+            return null;
+        }));
+    }
+
+    /**
+     * Adds a new bet to the organization’s list of bets.
+     * <p>
+     * If the result of the bet is already determined, the bet is marked as resolved on every shard, so that it
+     * is settled by the next call of {@link #calculateGainsPerCustomer()}.
+     * </p>
+     *
+     * @param bet The {@link Bet} object to be added.
+     */
+    public void addBet(Bet bet) {
+        synchronized (bets) {
+            bets.add(bet);
+        }
+        if (bet.getGameResult() != '-') {
+            onGameResult(bet);
+        }
+    }
+
+    /**
+     * Retrieves the customers of the organization, in the order they were added.
+     *
+     * @return An unmodifiable snapshot {@link List} of the {@link Customer} objects.
+     */
+    public List<Customer> getCustomers() {
+        synchronized (customers) {
+            return List.copyOf(customers);
+        }
+    }
+
+    /**
+     * Retrieves the bets of the organization, in the order they were added.
+     *
+     * @return An unmodifiable snapshot {@link List} of the {@link Bet} objects.
+     */
+    public List<Bet> getBets() {
+        synchronized (bets) {
+            return List.copyOf(bets);
+        }
+    }
+
+    /**
+     * Broadcasts a game result to every shard, marking the bet as resolved, and waits until every shard is done.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    @Override
+    public void onGameResult(Bet bet) {
+        broadcast(shard -> shard.resolve(bet));
+    }
+
+    /**
+     * Places a new bet on behalf of a customer, on the shard of the customer, and waits until it is placed.
+     * <p>
+     * The bet is validated and throttled as by {@link BetOrganization#placeBet(Customer, Bet, int, char)}. This
+     * method may be called concurrently; placements of customers of different shards run in parallel.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return The placed {@link CustomerBet}.
+     * @throws IllegalArgumentException If the stake or the choice is not valid for this customer and bet, or if
+     *                                  the cumulative stake of the customer on the bet would exceed their
+     *                                  maximum stake.
+     * @throws IllegalStateException    If the game result of the bet is already determined.
+     * @throws RateLimitExceededException If the customer exceeds their rate limit.
+     */
+    @Override
+    public CustomerBet placeBet(Customer customer, Bet bet, int stake, char choice) {
+        long startNanos = System.nanoTime();
+        CustomerBet customerBet = await(placeBetAsync(customer, bet, stake, choice));
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.PLACEMENT, startNanos);
+        return customerBet;
+    }
+
+    /**
+     * Places a new bet on behalf of a customer, on the shard of the customer, without waiting for it.
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return A {@link CompletableFuture} completed with the placed {@link CustomerBet}, with an
+     * {@link IllegalStateException} if the game result of the bet is determined before the bet is placed, or with
+     * an {@link IllegalArgumentException} if the cumulative stake of the customer on the bet would exceed their
+     * maximum stake.
+     * @throws IllegalArgumentException If the stake or the choice is not valid for this customer and bet.
+     * @throws IllegalStateException    If the game result of the bet is already determined.
+     * @throws RateLimitExceededException If the customer exceeds their rate limit.
+     */
+    public CompletableFuture<CustomerBet> placeBetAsync(Customer customer, Bet bet, int stake, char choice) {
+        BetOrganization.validatePlacement(customer, bet, stake, choice);
+        WagerRateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            limiter.acquire(customer);
+        }
+        OrganizationShard shard = shardOf(customer);
+        return shard.submit(() -> shard.place(customer, bet, stake, choice));
+    }
+
+    /**
+     * Settles the bets resolved since the previous call on every shard, in parallel, and waits until every
+     * shard is done.
+     */
+    @Override
+    public void calculateGainsPerCustomer() {
+        long startNanos = System.nanoTime();
+        broadcast(OrganizationShard::settleResolvedBets);
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.SETTLEMENT, startNanos);
+    }
+
+    /**
+     * Settles the bets resolved since the previous call on every shard, on at most {@code parallelism} shards at
+     * a time.
+     * <p>
+     * The settlement always runs on the writer threads of the shards, which are never shared with other work, so
+     * the shards are settled in waves of {@code parallelism} shards, each wave waiting for the previous one: at
+     * most {@code min(parallelism, getShardCount())} writer threads settle at the same time.
+     * </p>
+     *
+     * @param parallelism The maximum number of shards settling at the same time.
+     * @throws IllegalArgumentException If the parallelism is not positive.
+     */
+    @Override
+    public void calculateGainsPerCustomer(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism must be positive");
+        }
+        long startNanos = System.nanoTime();
+        for (int from = 0; from < shards.length; from += parallelism) {
+            broadcast(OrganizationShard::settleResolvedBets, from, Math.min(from + parallelism, shards.length));
+        }
+        BetMetrics.INSTANCE.recordLatency(PipelineStage.SETTLEMENT, startNanos);
+    }
+
+    /**
+     * Settles a single bet on every shard, and waits until every shard is done.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     */
+    @Override
+    public void settleBet(Bet bet) {
+        broadcast(shard -> shard.settle(bet));
+    }
+
+    /**
+     * Cancels a bet on every shard, voiding the open customer bets placed on it and refunding their stakes (or
+     * settling them if the game result of the bet is already determined), and waits until every shard is done.
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     */
+    @Override
+    public void voidBet(Bet bet) {
+        broadcast(shard -> shard.voidBet(bet));
+    }
+
+    /**
+     * Displays the results of each customer’s bets to the console and saves the results to a file.
+     * <p>
+     * This method is equivalent to {@link #showCustomersResults(boolean)} with console output enabled.
+     * </p>
+     */
+    @Override
+    public void showCustomersResults() {
+        showCustomersResults(true);
+    }
+
+    /**
+     * Saves the results of each customer’s bets to a file, optionally displaying them to the console.
+     * <p>
+     * Every command submitted to the shards before this call is executed first, and the customers are then
+     * reported in the order they were added, with the same layout as the report of the {@link BetOrganization}.
+     * </p>
+     *
+     * @param printToConsole {@code true} if the results should also be printed to the console.
+     */
+    @Override
+    public void showCustomersResults(boolean printToConsole) {
+        broadcast(shard -> {
+        });
+        CustomersResultsWriter.report(getCustomers(), printToConsole);
+    }
+
+    /**
+     * Removes every customer and bet from the organization, together with the wagers indexed by its shards.
+     * <p>
+     * The state shared with the {@link BetOrganization} (the {@link CustomerBetIndex}, the house-wide views and
+     * the {@link bet.BetCatalog}) is left untouched: the removed customers keep their wagers, which are still
+     * accounted for by the house-wide views until {@link BetOrganization#clear()} resets them.
+     * </p>
+     */
+    public void clear() {
+        broadcast(OrganizationShard::clear);
+        synchronized (customers) {
+            customers.clear();
+        }
+        synchronized (bets) {
+            bets.clear();
+        }
+    }
+
+    /**
+     * Stops listening to game results and stops the writer threads, once every already submitted command has
+     * been executed.
+     */
+    @Override
+    public void close() {
+        Bet.removeGameResultListener(this);
+        for (OrganizationShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Returns the shard owning a customer.
+     *
+     * @param customer The {@link Customer} whose shard is requested.
+     * @return The {@link OrganizationShard} of the customer.
+     */
+    private OrganizationShard shardOf(Customer customer) {
+        int hash = System.identityHashCode(customer);
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    /**
+     * Executes a command on every shard, in parallel, and waits until every shard has executed it.
+     *
+     * @param command The command to be executed by each shard.
+     */
+    private void broadcast(Consumer<OrganizationShard> command) {
+        broadcast(command, 0, shards.length);
+    }
+
+    /**
+     * Executes a command on a range of shards, in parallel, and waits until every shard of the range has executed
+     * it, rethrowing the first failure once every shard is done.
+     *
+     * @param command The command to be executed by each shard.
+     * @param from    The index of the first shard of the range, inclusive.
+     * @param to      The index of the last shard of the range, exclusive.
+     */
+    private void broadcast(Consumer<OrganizationShard> command, int from, int to) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            OrganizationShard shard = shards[i];
+            results.add(shard.submit(() -> {
+                command.accept(shard);
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        results.forEach(ShardedBetOrganization::await);
+    }
+
+    /**
+     * Waits for the result of a shard command, rethrowing the exception or error thrown by the command, if any.
+     *
+     * @param result The {@link CompletableFuture} of the command.
+     * @param <T>    The type of the result.
+     * @return The result of the command.
+     */
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+package main;
+
+import customer.Customer;
+import customer.CustomerType;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttles the wager intake of every customer with a token bucket, configured per {@link CustomerType}.
+ * <p>
+ * Each customer has a bucket of {@link RateLimit#burst()} tokens, refilled at {@link RateLimit#wagersPerSecond()}
+ * tokens per second; every accepted wager takes one token, and a wager finding the bucket empty is rejected,
+ * together with the time after which a token becomes available. Customers of a type with no configured limit are
+ * never throttled.
+ * </p>
+ * <p>
+ * A bucket is held in a single {@link AtomicLong}: rather than a number of tokens and the time of the last refill,
+ * it stores the time at which the bucket will be full again (the "theoretical arrival time" of the generic cell
+ * rate algorithm). Taking a token moves this time forward by one refill interval, and is accepted as long as it
+ * stays within {@code burst} intervals of now. A wager is thus checked and accounted with one read and one
+ * compare-and-set, without locking and without allocating, except when the bucket of the customer is created.
+ * </p>
+ * <p>
+ * A bucket that has been full for the idle timeout is indistinguishable from a new one, so it is evicted: once per
+ * idle timeout, a background thread sweeps the buckets and removes every idle one, so that no wager ever pays for
+ * a sweep. The memory held by the limiter is therefore proportional to the number of customers active recently,
+ * not to the number of customers who ever placed a wager. An evicted bucket is marked before it is removed, so
+ * that a concurrent wager never consumes a token of a bucket that is being discarded. The sweeps stop once the
+ * limiter is closed.
+ * </p>
+ */
+public final class WagerRateLimiter implements AutoCloseable {
+
+    /**
+     * The time stored in a bucket that has been evicted, and must be replaced by a new one.
+     */
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    /**
+     * The refill interval of the buckets of each customer type, in nanoseconds, indexed by ordinal;
+     * {@code 0} if the type is not throttled.
+     */
+    private final long[] intervalNanos = new long[CustomerType.values().length];
+
+    /**
+     * The capacity of the buckets of each customer type, as the time it takes to refill them, in nanoseconds,
+     * indexed by ordinal.
+     */
+    private final long[] capacityNanos = new long[CustomerType.values().length];
+
+    /**
+     * The time after which a full bucket is evicted, in nanoseconds.
+     */
+    private final long idleNanos;
+
+    /**
+     * The buckets of the customers who placed a wager within the idle timeout, each holding the time at which it
+     * is full again.
+     */
+    private final Map<Customer, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * The {@link ScheduledExecutorService} running the periodic sweeps of the idle buckets.
+     */
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limiter-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The number of rejected wagers.
+     */
+    private final LongAdder rejectedWagers = new LongAdder();
+
+    /**
+     * Constructs and opens a new rate limiter, which sweeps its idle buckets once per idle timeout.
+     *
+     * @param limits      The {@link RateLimit} of each {@link CustomerType}; the customers of a type missing from
+     *                    the map are not throttled.
+     * @param idleTimeout The time after which the bucket of a customer who placed no wager is evicted.
+     * @throws IllegalArgumentException If the idle timeout is not positive.
+     */
+    public WagerRateLimiter(Map<CustomerType, RateLimit> limits, Duration idleTimeout) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("The idle timeout must be positive");
+        }
+        limits.forEach((customerType, limit) -> {
+            intervalNanos[customerType.ordinal()] = limit.intervalNanos();
+            capacityNanos[customerType.ordinal()] = limit.intervalNanos() * limit.burst();
+        });
+        this.idleNanos = idleTimeout.toNanos();
+        sweeper.scheduleAtFixedRate(this::sweep, idleNanos, idleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the default rate limits, higher for the higher customer types: {@link CustomerType#BASIC} customers
+     * may place 2 wagers per second with bursts of 10, {@link CustomerType#GOLD} customers 10 per second with
+     * bursts of 50, and {@link CustomerType#PLATINUM} customers 50 per second with bursts of 200.
+     *
+     * @return A new, modifiable {@link Map} of the default {@link RateLimit} of each {@link CustomerType}.
+     */
+    public static Map<CustomerType, RateLimit> defaultLimits() {
+        Map<CustomerType, RateLimit> limits = new EnumMap<>(CustomerType.class);
+        limits.put(CustomerType.BASIC, new RateLimit(10, 2.0));
+        limits.put(CustomerType.GOLD, new RateLimit(50, 10.0));
+        limits.put(CustomerType.PLATINUM, new RateLimit(200, 50.0));
+        return limits;
+    }
+
+    /**
+     * Takes a token from the bucket of a customer about to place a wager, rejecting the wager if there is none.
+     * <p>
+     * This method is thread-safe and lock-free.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing a wager.
+     * @throws RateLimitExceededException If the customer exceeds their rate limit.
+     */
+    public void acquire(Customer customer) {
+        long retryAfterNanos = tryAcquire(customer);
+        if (retryAfterNanos > 0) {
+            throw new RateLimitExceededException(retryAfterNanos);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of a customer about to place a wager, if there is one.
+     * <p>
+     * This method is thread-safe and lock-free, and never allocates once the bucket of the customer exists.
+     * </p>
+     *
+     * @param customer The {@link Customer} placing a wager.
+     * @return {@code 0} if the wager is accepted; otherwise, the time after which it would be accepted, in
+     * nanoseconds.
+     */
+    public long tryAcquire(Customer customer) {
+        long interval = intervalNanos[customer.getCustomerType().ordinal()];
+        if (interval == 0) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        long capacity = capacityNanos[customer.getCustomerType().ordinal()];
+        while (true) {
+            AtomicLong bucket = buckets.get(customer);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(customer, key -> new AtomicLong(System.nanoTime()));
+            }
+            long fullAt = bucket.get();
+            if (fullAt == EVICTED) {
+                buckets.remove(customer, bucket);
+                continue;
+            }
+
+            long nextFullAt = (fullAt - now > 0 ? fullAt : now) + interval;
+            long retryAfterNanos = nextFullAt - now - capacity;
+            if (retryAfterNanos > 0) {
+                rejectedWagers.increment();
+                return retryAfterNanos;
+            }
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of buckets currently held, i.e., of customers who placed a wager recently.
+     *
+     * @return The number of buckets.
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the number of wagers rejected since the limiter was created or cleared.
+     *
+     * @return The number of rejected wagers.
+     */
+    public long getRejectedWagers() {
+        return rejectedWagers.sum();
+    }
+
+    /**
+     * Discards every bucket, so that every customer starts again with a full bucket, and resets the number of
+     * rejected wagers.
+     */
+    public void clear() {
+        buckets.clear();
+        rejectedWagers.reset();
+    }
+
+    /**
+     * Stops the periodic sweeps of the idle buckets.
+     * <p>
+     * The limiter still throttles the wagers once closed, but no longer evicts the buckets of idle customers.
+     * </p>
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Evicts every bucket that has been full for at least the idle timeout; sweeper thread only.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        buckets.forEach((customer, bucket) -> {
+            long fullAt = bucket.get();
+            if (fullAt != EVICTED && now - fullAt >= idleNanos && bucket.compareAndSet(fullAt, EVICTED)) {
+                buckets.remove(customer, bucket);
+            }
+        });
+    }
+
+}
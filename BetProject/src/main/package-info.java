@@ -5,5 +5,15 @@
  * and {@link main.GameEmulator} that simulates random game outcomes. The {@link main.BetMain}
  * class serves as the entry point to the application, initializing the system and running the betting scenarios.
  * </p>
+ * <p>
+ * The {@link main.ShardedBetOrganization} offers the same services with its customers partitioned across
+ * single-writer shards, for placement and settlement throughput that scales with the number of cores.
+ * Both can throttle the placements of every customer with a {@link main.WagerRateLimiter}, configured with a
+ * {@link main.RateLimit} per customer type.
+ * </p>
+ * <p>
+ * The {@link main.RiskSimulator} runs Monte Carlo trials of the game results over the open wagers of a book,
+ * reporting the distribution of the profit and loss of the house in a {@link main.RiskReport}.
+ * </p>
  */
 package main;
\ No newline at end of file
@@ -0,0 +1,230 @@
+package metrics;
+
+import util.Money;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton holding the metrics of the betting pipeline.
+ * <p>
+ * The {@code BetMetrics} counts the placed and settled wagers, tracks the number and the total stake of the
+ * wagers that are still open (the open exposure), and records the latency of every {@link PipelineStage} in
+ * a {@link LatencyHistogram}. Every recording method is lock-free and allocation-free, so the metrics are
+ * always enabled.
+ * </p>
+ * <p>
+ * The metrics can be exposed through JMX with {@link #registerMBean()}, and logged periodically by a
+ * {@link MetricsReporter}.
+ * </p>
+ */
+public enum BetMetrics implements IBetMetricsMXBean {
+
+    /**
+     * The singleton instance of the {@code BetMetrics}.
+     */
+    INSTANCE;
+
+    /**
+     * The name under which the metrics are registered in the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "bet:type=BetMetrics";
+
+    /**
+     * The number of placed wagers.
+     */
+    private final LongAdder wagersPlaced = new LongAdder();
+
+    /**
+     * The number of settled wagers.
+     */
+    private final LongAdder wagersSettled = new LongAdder();
+
+    /**
+     * The number of open wagers.
+     */
+    private final LongAdder openWagers = new LongAdder();
+
+    /**
+     * The total stake of the open wagers, in minor units.
+     */
+    private final LongAdder openExposureMinorUnits = new LongAdder();
+
+    /**
+     * The latency histogram of each pipeline stage, indexed by ordinal.
+     */
+    private final LatencyHistogram[] latencies = new LatencyHistogram[PipelineStage.values().length];
+
+    /**
+     * Creates the latency histogram of every pipeline stage.
+     */
+    BetMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records the placement of an open wager.
+     *
+     * @param stake The amount staked on the wager.
+     */
+    public void recordWagerPlaced(int stake) {
+        wagersPlaced.increment();
+        openWagers.increment();
+        openExposureMinorUnits.add(Money.toMinorUnits(stake));
+    }
+
+    /**
+     * Records the settlement of a previously placed wager.
+     *
+     * @param stake The amount staked on the wager.
+     */
+    public void recordWagerSettled(int stake) {
+        wagersSettled.increment();
+        openWagers.decrement();
+        openExposureMinorUnits.add(-Money.toMinorUnits(stake));
+    }
+
+    /**
+     * Records the latency of a pipeline stage that started at the given time.
+     *
+     * @param stage      The {@link PipelineStage} that has completed.
+     * @param startNanos The {@link System#nanoTime()} at which the stage started.
+     */
+    public void recordLatency(PipelineStage stage, long startNanos) {
+        latencies[stage.ordinal()].recordSince(startNanos);
+    }
+
+    /**
+     * Returns the latency histogram of a pipeline stage.
+     *
+     * @param stage The {@link PipelineStage} whose histogram is requested.
+     * @return The {@link LatencyHistogram} of the stage.
+     */
+    public LatencyHistogram getLatencyHistogram(PipelineStage stage) {
+        return latencies[stage.ordinal()];
+    }
+
+    /**
+     * Forgets every open wager, e.g., when every customer of the organization has been removed.
+     */
+    public void clearOpenWagers() {
+        openWagers.reset();
+        openExposureMinorUnits.reset();
+    }
+
+    /**
+     * Returns the number of wagers placed so far.
+     *
+     * @return The number of placed wagers.
+     */
+    @Override
+    public long getWagersPlaced() {
+        return wagersPlaced.sum();
+    }
+
+    /**
+     * Returns the number of wagers settled (won, lost or void) so far.
+     *
+     * @return The number of settled wagers.
+     */
+    @Override
+    public long getWagersSettled() {
+        return wagersSettled.sum();
+    }
+
+    /**
+     * Returns the number of wagers placed but not settled yet.
+     *
+     * @return The number of open wagers.
+     */
+    @Override
+    public long getOpenWagers() {
+        return openWagers.sum();
+    }
+
+    /**
+     * Returns the total amount staked on the wagers that are not settled yet.
+     *
+     * @return The open exposure.
+     */
+    @Override
+    public double getOpenExposure() {
+        return Money.toAmount(openExposureMinorUnits.sum());
+    }
+
+    /**
+     * Returns the summary of the wager placement latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#PLACEMENT} stage.
+     */
+    @Override
+    public LatencySummary getPlacementLatency() {
+        return getLatencyHistogram(PipelineStage.PLACEMENT).summarize();
+    }
+
+    /**
+     * Returns the summary of the game result generation latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#GAME_RESULTS} stage.
+     */
+    @Override
+    public LatencySummary getGameResultsLatency() {
+        return getLatencyHistogram(PipelineStage.GAME_RESULTS).summarize();
+    }
+
+    /**
+     * Returns the summary of the batch settlement latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#SETTLEMENT} stage.
+     */
+    @Override
+    public LatencySummary getSettlementLatency() {
+        return getLatencyHistogram(PipelineStage.SETTLEMENT).summarize();
+    }
+
+    /**
+     * Returns the summary of the report rendering latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#REPORT} stage.
+     */
+    @Override
+    public LatencySummary getReportLatency() {
+        return getLatencyHistogram(PipelineStage.REPORT).summarize();
+    }
+
+    /**
+     * Discards every recorded latency and resets the counters of placed and settled wagers.
+     * The open wagers and exposure are left unchanged, since they reflect the wagers still open.
+     */
+    @Override
+    public void resetStatistics() {
+        wagersPlaced.reset();
+        wagersSettled.reset();
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server under {@link #OBJECT_NAME}, if not registered yet.
+     *
+     * @throws IllegalStateException If the metrics cannot be registered.
+     */
+    public void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register the bet metrics MBean", e);
+        }
+    }
+
+}
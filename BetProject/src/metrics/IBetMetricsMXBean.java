@@ -0,0 +1,74 @@
+package metrics;
+
+/**
+ * Management interface of the betting pipeline metrics, exposed through JMX by {@link BetMetrics}.
+ * <p>
+ * Amounts of money are exposed as {@code double} amounts, and latencies as {@link LatencySummary} objects,
+ * which JMX clients see as composite data.
+ * </p>
+ */
+public interface IBetMetricsMXBean {
+
+    /**
+     * Returns the number of wagers placed so far.
+     *
+     * @return The number of placed wagers.
+     */
+    long getWagersPlaced();
+
+    /**
+     * Returns the number of wagers settled (won, lost or void) so far.
+     *
+     * @return The number of settled wagers.
+     */
+    long getWagersSettled();
+
+    /**
+     * Returns the number of wagers placed but not settled yet.
+     *
+     * @return The number of open wagers.
+     */
+    long getOpenWagers();
+
+    /**
+     * Returns the total amount staked on the wagers that are not settled yet.
+     *
+     * @return The open exposure.
+     */
+    double getOpenExposure();
+
+    /**
+     * Returns the summary of the wager placement latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#PLACEMENT} stage.
+     */
+    LatencySummary getPlacementLatency();
+
+    /**
+     * Returns the summary of the game result generation latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#GAME_RESULTS} stage.
+     */
+    LatencySummary getGameResultsLatency();
+
+    /**
+     * Returns the summary of the batch settlement latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#SETTLEMENT} stage.
+     */
+    LatencySummary getSettlementLatency();
+
+    /**
+     * Returns the summary of the report rendering latencies.
+     *
+     * @return The {@link LatencySummary} of the {@link PipelineStage#REPORT} stage.
+     */
+    LatencySummary getReportLatency();
+
+    /**
+     * Discards every recorded latency and resets the counters of placed and settled wagers.
+     * The open wagers and exposure are left unchanged, since they reflect the wagers still open.
+     */
+    void resetStatistics();
+
+}
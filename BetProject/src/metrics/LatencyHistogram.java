@@ -0,0 +1,176 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, allocation-free histogram of latencies, in nanoseconds.
+ * <p>
+ * Latencies are counted in log-linear buckets: every power of two is divided into {@value #SUB_BUCKETS}
+ * equally sized buckets, so that each recorded latency is known within about 6% of its value, from
+ * nanoseconds up to centuries, with a fixed array of counters. Recording a latency increments a single
+ * bucket counter and a few {@link LongAdder} objects; it never blocks and never allocates, so the histogram
+ * can stay enabled in production.
+ * </p>
+ * <p>
+ * The percentiles of {@link #summarize()} are computed from the bucket counters while latencies may still
+ * be recorded concurrently, so a summary is a close approximation rather than an atomic snapshot.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets every power of two is divided into.
+     */
+    private static final int SUB_BUCKETS = 16;
+
+    /**
+     * The base-2 logarithm of {@link #SUB_BUCKETS}.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * The number of buckets, enough for any non-negative {@code long} latency.
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * The number of latencies recorded in each bucket.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number of recorded latencies.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the recorded latencies, in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * The maximum recorded latency, in nanoseconds.
+     */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds; negative latencies are recorded as {@code 0}.
+     */
+    public void record(long nanos) {
+        long latency = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketOf(latency));
+        count.increment();
+        totalNanos.add(latency);
+        maxNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Records the latency of an operation that started at the given time.
+     *
+     * @param startNanos The {@link System#nanoTime()} at which the operation started.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return The number of recorded latencies.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Estimates the latency below which the given fraction of the recorded latencies lie.
+     *
+     * @param fraction The fraction of the recorded latencies, between 0.0 and 1.0 (e.g., 0.99 for the 99th percentile).
+     * @return The upper bound of the bucket holding that percentile, in nanoseconds, never above the maximum
+     * recorded latency; {@code 0} if no latency has been recorded.
+     */
+    public long getPercentileNanos(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Summarizes the recorded latencies.
+     *
+     * @return A {@link LatencySummary} of the count, mean, main percentiles and maximum of the recorded latencies.
+     */
+    public LatencySummary summarize() {
+        long recorded = count.sum();
+        return new LatencySummary(recorded,
+                recorded == 0 ? 0 : totalNanos.sum() / recorded,
+                getPercentileNanos(0.50),
+                getPercentileNanos(0.90),
+                getPercentileNanos(0.99),
+                getPercentileNanos(0.999),
+                maxNanos.get());
+    }
+
+    /**
+     * Discards every recorded latency.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /**
+     * Returns the bucket of a latency.
+     *
+     * @param nanos The non-negative latency in nanoseconds.
+     * @return The index of the bucket counting the latency.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest latency counted by a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The largest latency of the bucket, in nanoseconds.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,28 @@
+package metrics;
+
+/**
+ * Summary of the latencies recorded by a {@link LatencyHistogram}, exposed through JMX as composite data.
+ *
+ * @param count      The number of recorded latencies.
+ * @param meanNanos  The mean latency, in nanoseconds.
+ * @param p50Nanos   The median latency, in nanoseconds.
+ * @param p90Nanos   The 90th percentile of the latencies, in nanoseconds.
+ * @param p99Nanos   The 99th percentile of the latencies, in nanoseconds.
+ * @param p999Nanos  The 99.9th percentile of the latencies, in nanoseconds.
+ * @param maxNanos   The maximum latency, in nanoseconds.
+ */
+public record LatencySummary(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+                             long p999Nanos, long maxNanos) {
+
+    /**
+     * Returns a compact, human-readable representation of the summary, with latencies in microseconds.
+     *
+     * @return A string summarizing the latencies.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                count, meanNanos / 1e3, p50Nanos / 1e3, p90Nanos / 1e3, p99Nanos / 1e3, p999Nanos / 1e3, maxNanos / 1e3);
+    }
+
+}
@@ -0,0 +1,103 @@
+package metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs the metrics of the betting pipeline.
+ * <p>
+ * While open, the {@code MetricsReporter} logs, at a fixed interval, the counters and open exposure of
+ * {@link BetMetrics}, the wager placement rate since the previous dump, and the latency summary of every
+ * {@link PipelineStage} that has been recorded. The dumps are written through a {@link System.Logger}, so
+ * they follow the logging configuration of the application instead of interleaving with its console output.
+ * </p>
+ */
+public final class MetricsReporter implements AutoCloseable {
+
+    /**
+     * The {@link System.Logger} the metrics are dumped to.
+     */
+    private static final System.Logger LOGGER = System.getLogger(MetricsReporter.class.getName());
+
+    /**
+     * The {@link BetMetrics} to be reported.
+     */
+    private final BetMetrics metrics;
+
+    /**
+     * The {@link ScheduledExecutorService} running the periodic dumps.
+     */
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-reporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The number of placed wagers at the previous dump.
+     */
+    private long previousWagersPlaced;
+
+    /**
+     * The {@link System#nanoTime()} of the previous dump.
+     */
+    private long previousDumpNanos;
+
+    /**
+     * Constructs and opens a new {@code MetricsReporter}, which dumps the metrics at the given interval.
+     *
+     * @param metrics  The {@link BetMetrics} to be reported.
+     * @param interval The interval between two dumps.
+     */
+    public MetricsReporter(BetMetrics metrics, Duration interval) {
+        this.metrics = metrics;
+        this.previousWagersPlaced = metrics.getWagersPlaced();
+        this.previousDumpNanos = System.nanoTime();
+        long intervalNanos = interval.toNanos();
+        scheduler.scheduleAtFixedRate(this::dump, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Logs the current metrics.
+     */
+    private void dump() {
+        long now = System.nanoTime();
+        long wagersPlaced = metrics.getWagersPlaced();
+        double wagersPerSecond = (wagersPlaced - previousWagersPlaced) * 1e9 / Math.max(1, now - previousDumpNanos);
+        previousWagersPlaced = wagersPlaced;
+        previousDumpNanos = now;
+
+        StringBuilder dump = new StringBuilder(String.format(
+                "wagers placed=%d (%.0f/s) settled=%d open=%d, open exposure=%.2f",
+                wagersPlaced, wagersPerSecond, metrics.getWagersSettled(), metrics.getOpenWagers(), metrics.getOpenExposure()));
+        for (PipelineStage stage : PipelineStage.values()) {
+            LatencySummary summary = metrics.getLatencyHistogram(stage).summarize();
+            if (summary.count() > 0) {
+                dump.append(String.format("%n  %-12s %s", stage, summary));
+            }
+        }
+        LOGGER.log(System.Logger.Level.INFO, dump.toString());
+    }
+
+    /**
+     * Stops the periodic dumps and logs the metrics one last time.
+     * <p>
+     * If the calling thread is interrupted while waiting for a running dump to complete, its interrupt status
+     * is restored and the last dump is skipped.
+     * </p>
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (scheduler.awaitTermination(1, TimeUnit.MINUTES)) {
+                dump();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
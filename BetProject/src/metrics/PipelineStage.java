@@ -0,0 +1,28 @@
+package metrics;
+
+/**
+ * Stages of the betting pipeline whose latencies are measured by {@link BetMetrics}.
+ */
+public enum PipelineStage {
+
+    /**
+     * The placement of a single wager.
+     */
+    PLACEMENT,
+
+    /**
+     * The generation of the results of a list of games.
+     */
+    GAME_RESULTS,
+
+    /**
+     * A batch settlement of the customers' gains.
+     */
+    SETTLEMENT,
+
+    /**
+     * The rendering of the customers' results report.
+     */
+    REPORT
+
+}
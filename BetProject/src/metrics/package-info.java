@@ -0,0 +1,10 @@
+/**
+ * This package contains the instrumentation of the betting system.
+ * <p>
+ * The {@code metrics} package includes the {@link metrics.BetMetrics} singleton, which counts placed and settled
+ * wagers, tracks the open exposure and records the latency of each {@link metrics.PipelineStage} in a lock-free
+ * {@link metrics.LatencyHistogram}. The metrics are exposed through JMX by the {@link metrics.IBetMetricsMXBean}
+ * interface and logged periodically by the {@link metrics.MetricsReporter}.
+ * </p>
+ */
+package metrics;
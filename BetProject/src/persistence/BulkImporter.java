@@ -0,0 +1,689 @@
+package persistence;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import bet.Sport;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerType;
+import customer.GoldCustomer;
+import customer.PlatinumCustomer;
+import main.BetOrganization;
+import util.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk loader of fixtures, customers and wagers from CSV files, through memory-mapped I/O.
+ * <p>
+ * Each file is read through memory-mapped ranges of at most {@link #RANGE_SIZE} bytes, and its lines are
+ * parsed directly from the mapped bytes: numbers, sports, customer types and choices are decoded in place,
+ * and a {@link String} is only created for the game and customer names that are kept. The files are UTF-8
+ * text without a header line, with one record per line, comma-separated fields and blank lines ignored:
+ * <pre>
+ * fixtures:  sport,game,odds[,result]         e.g. FOOTBALL,Real Madrid vs Sevilla,1.6
+ * customers: fullName,type                    e.g. John Smith,GOLD
+ * wagers:    customer,bet,stake,choice        e.g. 12,3,50,X
+ * </pre>
+ * The sport is a {@link Sport} name and the type a {@link CustomerType} name. In the wagers file, the customer
+ * and the bet are the 0-based line numbers (blank lines excluded) of the customer and of the fixture in their
+ * own files. Game and customer names must not contain commas.
+ * </p>
+ * <p>
+ * The fixtures and customers are read in order and added to the {@link BetOrganization}. The wagers file,
+ * typically the largest by far, is split into ranges that are parsed in parallel into primitive columns;
+ * the parsed wagers are then added to their customers in parallel, every customer being served by a single
+ * thread in file order, and the stakes of a batch of ranges are added to the total spent amount of each
+ * customer once per batch. The wagers are imported batch by batch: if a line is malformed, the batches before
+ * it are fully imported, wagers and spent amounts alike, and nothing of its own batch is. As with a
+ * {@link OrganizationSnapshot}, wagers may be imported on bets whose result is already determined; they are
+ * settled by the next {@link BetOrganization#calculateGainsPerCustomer()}.
+ * </p>
+ */
+public final class BulkImporter {
+
+    /**
+     * The maximum number of bytes of a file parsed by a single task, through a single mapping.
+     */
+    static final long RANGE_SIZE = 16L << 20;
+
+    /**
+     * The maximum length of a line, in bytes.
+     */
+    static final int MAX_LINE_LENGTH = 4096;
+
+    /**
+     * The {@link BetOrganization} the records are imported into.
+     */
+    private final BetOrganization betOrganization;
+
+    /**
+     * The number of threads used to import the wagers.
+     */
+    private final int parallelism;
+
+    /**
+     * The maximum number of bytes of a file parsed by a single task, through a single mapping.
+     */
+    private final long rangeSize;
+
+    /**
+     * Constructs a new {@code BulkImporter}.
+     *
+     * @param betOrganization The {@link BetOrganization} the records are imported into.
+     * @param parallelism     The number of threads used to import the wagers.
+     */
+    public BulkImporter(BetOrganization betOrganization, int parallelism) {
+        this(betOrganization, parallelism, RANGE_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code BulkImporter} parsing ranges of the given size, e.g., to import small files in
+     * several batches.
+     *
+     * @param betOrganization The {@link BetOrganization} the records are imported into.
+     * @param parallelism     The number of threads used to import the wagers.
+     * @param rangeSize       The maximum number of bytes of a file parsed by a single task.
+     */
+    BulkImporter(BetOrganization betOrganization, int parallelism, long rangeSize) {
+        this.betOrganization = betOrganization;
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * Imports the fixtures of a file as bets, adding them to the organization in file order.
+     * <p>
+     * A fixture with a result other than '-' is imported with its game result already set.
+     * </p>
+     *
+     * @param path The {@link Path} of the fixtures file.
+     * @return The imported bets, indexed by line number, as referenced by a wagers file.
+     * @throws IOException If an I/O error occurs, or a line is malformed or has odds that are not a positive
+     *                     finite number.
+     */
+    public List<Bet> importFixtures(Path path) throws IOException {
+        List<Bet> bets = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long start = 0; start < channel.size(); start += rangeSize) {
+                CsvCursor cursor = CsvCursor.map(channel, start, Math.min(start + rangeSize, channel.size()));
+                while (cursor.nextLine()) {
+                    Sport sport = cursor.nextEnum(Sport.values());
+                    String game = cursor.nextString();
+                    double odds = cursor.nextDecimal();
+                    char gameResult = cursor.hasNextField() ? cursor.nextChar() : '-';
+                    cursor.endLine();
+                    if (!(odds > 0) || !Double.isFinite(odds)) {
+                        throw cursor.malformed();
+                    }
+
+                    Bet bet = sport == Sport.FOOTBALL ? new FootballBet(game, odds) : new BasketballBet(game, odds);
+                    if (gameResult != '-') {
+                        if (bet.getChoiceIndex(gameResult) < 0) {
+                            throw cursor.malformed();
+                        }
+                        bet.setGameResult(gameResult);
+                    }
+                    betOrganization.addBet(bet);
+                    bets.add(bet);
+                }
+            }
+        }
+        return bets;
+    }
+
+    /**
+     * Imports the customers of a file, adding them to the organization in file order.
+     *
+     * @param path The {@link Path} of the customers file.
+     * @return The imported customers, indexed by line number, as referenced by a wagers file.
+     * @throws IOException If an I/O error occurs or a line is malformed.
+     */
+    public List<Customer> importCustomers(Path path) throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long start = 0; start < channel.size(); start += rangeSize) {
+                CsvCursor cursor = CsvCursor.map(channel, start, Math.min(start + rangeSize, channel.size()));
+                while (cursor.nextLine()) {
+                    String fullName = cursor.nextString();
+                    CustomerType customerType = cursor.nextEnum(CustomerType.values());
+                    cursor.endLine();
+
+                    Customer customer = switch (customerType) {
+                        case BASIC -> new Customer(fullName);
+                        case GOLD -> new GoldCustomer(fullName);
+                        case PLATINUM -> new PlatinumCustomer(fullName);
+                    };
+                    betOrganization.addCustomer(customer);
+                    customers.add(customer);
+                }
+            }
+        }
+        return customers;
+    }
+
+    /**
+     * Imports the wagers of a file, adding each of them to its customer and its stake to the customer's total
+     * spent amount.
+     * <p>
+     * The file is processed in batches of {@code parallelism} ranges: the ranges of a batch are parsed in
+     * parallel, and the parsed wagers are then added in parallel, each thread adding the wagers of the
+     * customers assigned to it, so the wagers of every customer are added in file order, together with their
+     * stakes to the spent amounts of their customers. The columns of the parsed wagers are reused from one batch
+     * to the next.
+     * </p>
+     * <p>
+     * The whole batch is parsed and validated before any of its wagers is added, so a failed import leaves the
+     * wagers of the previous batches imported, with the spent amounts of their customers up to date, and nothing
+     * of the following ones: the exception then reports how many wagers were imported.
+     * </p>
+     *
+     * @param path      The {@link Path} of the wagers file.
+     * @param bets      The imported bets, indexed by line number of the fixtures file.
+     * @param customers The imported customers, indexed by line number of the customers file.
+     * @return The number of imported wagers.
+     * @throws IOException If an I/O error occurs, or a line is malformed or refers to an unknown customer or
+     *                     bet, to a choice not available for the bet, or to a stake outside the allowed range;
+     *                     the import is then partial.
+     */
+    public long importWagers(Path path, List<Bet> bets, List<Customer> customers) throws IOException {
+        long[] spentByCustomer = new long[customers.size()];
+        WagerColumns[] batch = new WagerColumns[parallelism];
+        Arrays.setAll(batch, i -> new WagerColumns());
+        long imported = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            long size = channel.size();
+            for (long batchStart = 0; batchStart < size; batchStart += rangeSize * parallelism) {
+                List<CompletableFuture<Void>> tasks = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism; i++) {
+                    long start = Math.min(batchStart + rangeSize * i, size);
+                    long end = Math.min(start + rangeSize, size);
+                    WagerColumns columns = batch[i];
+                    tasks.add(CompletableFuture.runAsync(() -> parseWagers(channel, start, end, bets, customers, columns), executor));
+                }
+                await(tasks);
+
+                tasks.clear();
+                for (int i = 0; i < parallelism; i++) {
+                    int partition = i;
+                    tasks.add(CompletableFuture.runAsync(() -> addWagers(batch, partition, bets, customers, spentByCustomer), executor));
+                }
+                await(tasks);
+
+                for (WagerColumns columns : batch) {
+                    imported += columns.size;
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("The import of " + path + " is partial: only the first " + imported
+                    + " wagers were imported. " + e.getMessage(), e);
+        }
+        return imported;
+    }
+
+    /**
+     * Parses the wagers of the lines starting within a range of the wagers file into columns, validating them.
+     *
+     * @param channel   The {@link FileChannel} of the wagers file.
+     * @param start     The position of the first byte (inclusive) of the range.
+     * @param end       The position of the last byte (exclusive) of the range.
+     * @param bets      The imported bets, indexed by line number of the fixtures file.
+     * @param customers The imported customers, indexed by line number of the customers file.
+     * @param columns   The {@link WagerColumns} receiving the parsed wagers; their previous content is discarded.
+     * @throws UncheckedIOException If an I/O error occurs or a line is not a valid wager.
+     */
+    private static void parseWagers(FileChannel channel, long start, long end, List<Bet> bets, List<Customer> customers,
+                                    WagerColumns columns) {
+        columns.size = 0;
+        if (start == end) {
+            return;
+        }
+        try {
+            CsvCursor cursor = CsvCursor.map(channel, start, end);
+            while (cursor.nextLine()) {
+                int customer = cursor.nextInt();
+                int bet = cursor.nextInt();
+                int stake = cursor.nextInt();
+                char choice = cursor.nextChar();
+                cursor.endLine();
+
+                if (customer >= customers.size() || bet >= bets.size()
+                        || stake <= 0 || stake > customers.get(customer).getMaxStake()) {
+                    throw cursor.malformed();
+                }
+                int choiceOrdinal = bets.get(bet).getChoiceIndex(choice);
+                if (choiceOrdinal < 0) {
+                    throw cursor.malformed();
+                }
+                columns.add(customer, bet, stake, choiceOrdinal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds the parsed wagers of a batch whose customer belongs to a partition to their customers, in file order,
+     * and then adds their stakes to the spent amounts of their customers, once per customer.
+     *
+     * @param batch           The {@link WagerColumns} of the ranges of the batch, in file order.
+     * @param partition       The partition served by the calling thread; customer {@code c} belongs to
+     *                        partition {@code c % batch.length}.
+     * @param bets            The imported bets, indexed by line number of the fixtures file.
+     * @param customers       The imported customers, indexed by line number of the customers file.
+     * @param spentByCustomer The total stake of the wagers of the batch of each customer, indexed by line number;
+     *                        the entries of the partition are zero on entry and left zero on return.
+     */
+    private static void addWagers(WagerColumns[] batch, int partition, List<Bet> bets, List<Customer> customers,
+                                  long[] spentByCustomer) {
+        int[] spenders = new int[64];
+        int spenderCount = 0;
+        for (WagerColumns columns : batch) {
+            for (int wager = 0; wager < columns.size; wager++) {
+                int customer = columns.customers[wager];
+                if (customer % batch.length != partition) {
+                    continue;
+                }
+                Bet bet = bets.get(columns.bets[wager]);
+                char choice = bet.getSport().getChoice(columns.choices[wager]);
+                customers.get(customer).addCustomerBet(new CustomerBet(bet, columns.stakes[wager], choice));
+                if (spentByCustomer[customer] == 0) {
+                    if (spenderCount == spenders.length) {
+                        spenders = Arrays.copyOf(spenders, spenderCount * 2);
+                    }
+                    spenders[spenderCount++] = customer;
+                }
+                spentByCustomer[customer] += columns.stakes[wager];
+            }
+        }
+
+        for (int i = 0; i < spenderCount; i++) {
+            int customer = spenders[i];
+            customers.get(customer).increaseTotalSpentMinorUnits(Money.toMinorUnits(spentByCustomer[customer]));
+            spentByCustomer[customer] = 0;
+        }
+    }
+
+    /**
+     * Waits for every given task, rethrowing the {@link IOException} of the first failed task, if any.
+     *
+     * @param tasks The {@link CompletableFuture} of each task.
+     * @throws IOException If a task failed with an I/O error or a malformed line.
+     */
+    private static void await(List<CompletableFuture<Void>> tasks) throws IOException {
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reusable primitive columns holding the wagers parsed from a range of the wagers file.
+     */
+    private static final class WagerColumns {
+
+        /**
+         * The customer line number of each wager.
+         */
+        private int[] customers = new int[1024];
+
+        /**
+         * The fixture line number of each wager.
+         */
+        private int[] bets = new int[1024];
+
+        /**
+         * The stake of each wager.
+         */
+        private int[] stakes = new int[1024];
+
+        /**
+         * The ordinal of the choice of each wager within the choices of its bet's {@link Sport}.
+         */
+        private byte[] choices = new byte[1024];
+
+        /**
+         * The number of parsed wagers.
+         */
+        private int size;
+
+        /**
+         * Appends a parsed wager, growing the columns if needed.
+         *
+         * @param customer      The customer line number of the wager.
+         * @param bet           The fixture line number of the wager.
+         * @param stake         The stake of the wager.
+         * @param choiceOrdinal The ordinal of the choice of the wager.
+         */
+        void add(int customer, int bet, int stake, int choiceOrdinal) {
+            if (size == customers.length) {
+                customers = Arrays.copyOf(customers, size * 2);
+                bets = Arrays.copyOf(bets, size * 2);
+                stakes = Arrays.copyOf(stakes, size * 2);
+                choices = Arrays.copyOf(choices, size * 2);
+            }
+            customers[size] = customer;
+            bets[size] = bet;
+            stakes[size] = stake;
+            choices[size] = (byte) choiceOrdinal;
+            size++;
+        }
+
+    }
+
+    /**
+     * Cursor parsing the lines that start within a range of a CSV file, directly from a memory-mapped buffer.
+     * <p>
+     * The mapping starts one byte before the range, so that a range starting in the middle of a line skips
+     * that line, which belongs to the previous range, and extends up to {@link #MAX_LINE_LENGTH} bytes past
+     * the range, so that the last line starting within the range can be read to its end.
+     * </p>
+     */
+    private static final class CsvCursor {
+
+        /**
+         * The memory-mapped bytes of the range.
+         */
+        private final MappedByteBuffer buffer;
+
+        /**
+         * The position in the file of the first mapped byte.
+         */
+        private final long offset;
+
+        /**
+         * The buffer index after which no line starts within the range.
+         */
+        private final int lineLimit;
+
+        /**
+         * {@code true} if the mapping ends at the end of the file.
+         */
+        private final boolean endOfFile;
+
+        /**
+         * The buffer index of the next byte to be parsed.
+         */
+        private int position;
+
+        /**
+         * The buffer index of the first byte of the current line.
+         */
+        private int lineStart;
+
+        /**
+         * Constructs a new {@code CsvCursor} over a mapping.
+         *
+         * @param buffer    The memory-mapped bytes.
+         * @param offset    The position in the file of the first mapped byte.
+         * @param lineLimit The buffer index after which no line starts within the range.
+         * @param endOfFile {@code true} if the mapping ends at the end of the file.
+         */
+        private CsvCursor(MappedByteBuffer buffer, long offset, int lineLimit, boolean endOfFile) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.lineLimit = lineLimit;
+            this.endOfFile = endOfFile;
+        }
+
+        /**
+         * Maps a range of a file and positions a cursor at the first line starting within the range.
+         *
+         * @param channel The {@link FileChannel} of the file.
+         * @param start   The position of the first byte (inclusive) of the range.
+         * @param end     The position of the last byte (exclusive) of the range.
+         * @return The {@code CsvCursor} of the range.
+         * @throws IOException If an I/O error occurs.
+         */
+        static CsvCursor map(FileChannel channel, long start, long end) throws IOException {
+            long mapStart = start == 0 ? 0 : start - 1;
+            long mapEnd = Math.min(end + MAX_LINE_LENGTH, channel.size());
+            CsvCursor cursor = new CsvCursor(channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart),
+                    mapStart, (int) (end - mapStart), mapEnd == channel.size());
+            if (start > 0) {
+                while (cursor.position < cursor.buffer.limit() && cursor.buffer.get(cursor.position++) != '\n') {
+                    // skip the end of the line starting in the previous range
+                }
+            }
+            return cursor;
+        }
+
+        /**
+         * Moves to the next non-blank line starting within the range.
+         *
+         * @return {@code true} if there is such a line.
+         */
+        boolean nextLine() {
+            while (position < lineLimit && position < buffer.limit()
+                    && (buffer.get(position) == '\n' || buffer.get(position) == '\r')) {
+                position++;
+            }
+            lineStart = position;
+            return position < lineLimit && position < buffer.limit();
+        }
+
+        /**
+         * Returns {@code true} if the current line has another field.
+         *
+         * @return {@code true} if the cursor is on a field separator.
+         */
+        boolean hasNextField() {
+            return position < buffer.limit() && buffer.get(position) == ',';
+        }
+
+        /**
+         * Reads a non-negative integer field.
+         *
+         * @return The value of the field.
+         * @throws IOException If the field is not a non-negative integer.
+         */
+        int nextInt() throws IOException {
+            skipSeparator();
+            long value = 0;
+            int digits = 0;
+            for (byte b; position < buffer.limit() && (b = buffer.get(position)) >= '0' && b <= '9'; position++) {
+                value = value * 10 + (b - '0');
+                if (++digits > 10 || value > Integer.MAX_VALUE) {
+                    throw malformed();
+                }
+            }
+            if (digits == 0) {
+                throw malformed();
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads a decimal field (e.g., "1.85").
+         * <p>
+         * Plain decimals of at most 15 digits are decoded in place, with a single correctly rounded division;
+         * any other number (e.g., with more digits or an exponent) is parsed by {@link Double#parseDouble(String)}.
+         * </p>
+         *
+         * @return The value of the field, as if parsed by {@link Double#parseDouble(String)}.
+         * @throws IOException If the field is not a decimal number.
+         */
+        double nextDecimal() throws IOException {
+            skipSeparator();
+            int start = position;
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+            boolean plain = true;
+            for (; position < buffer.limit() && !isFieldEnd(buffer.get(position)); position++) {
+                byte b = buffer.get(position);
+                if (b == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if (b >= '0' && b <= '9' && digits < 15) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else {
+                    plain = false;
+                }
+            }
+            if (plain && digits > 0) {
+                return fractionDigits > 0 ? mantissa / Math.pow(10, fractionDigits) : mantissa;
+            }
+
+            byte[] bytes = new byte[position - start];
+            buffer.get(start, bytes);
+            try {
+                return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw malformed();
+            }
+        }
+
+        /**
+         * Reads a field made of a single ASCII character.
+         *
+         * @return The character of the field.
+         * @throws IOException If the field is not a single character.
+         */
+        char nextChar() throws IOException {
+            skipSeparator();
+            if (position >= buffer.limit() || isFieldEnd(buffer.get(position))) {
+                throw malformed();
+            }
+            char value = (char) buffer.get(position++);
+            if (position < buffer.limit() && !isFieldEnd(buffer.get(position))) {
+                throw malformed();
+            }
+            return value;
+        }
+
+        /**
+         * Reads a UTF-8 text field as a new {@link String}.
+         *
+         * @return The text of the field.
+         * @throws IOException If the field is empty.
+         */
+        String nextString() throws IOException {
+            skipSeparator();
+            int start = position;
+            while (position < buffer.limit() && !isFieldEnd(buffer.get(position))) {
+                position++;
+            }
+            if (position == start) {
+                throw malformed();
+            }
+            byte[] bytes = new byte[position - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads a field holding the name of an enum constant, without creating a {@link String}.
+         *
+         * @param values The constants of the enum.
+         * @param <E>    The type of the enum.
+         * @return The constant whose name is the text of the field.
+         * @throws IOException If the field is not the name of a constant.
+         */
+        <E extends Enum<E>> E nextEnum(E[] values) throws IOException {
+            skipSeparator();
+            int start = position;
+            while (position < buffer.limit() && !isFieldEnd(buffer.get(position))) {
+                position++;
+            }
+            for (E value : values) {
+                String name = value.name();
+                if (name.length() == position - start && matches(start, name)) {
+                    return value;
+                }
+            }
+            throw malformed();
+        }
+
+        /**
+         * Checks that the current line has no more fields, and moves past its end.
+         *
+         * @throws IOException If the line has more fields or does not end within the mapping.
+         */
+        void endLine() throws IOException {
+            if (position < buffer.limit() && buffer.get(position) == '\r') {
+                position++;
+            }
+            if (position < buffer.limit() && buffer.get(position) == '\n') {
+                position++;
+            } else if (position < buffer.limit() || !endOfFile) {
+                throw malformed();
+            }
+        }
+
+        /**
+         * Returns the exception reporting a malformed current line.
+         *
+         * @return An {@link IOException} with the position of the line in the file.
+         */
+        IOException malformed() {
+            return new IOException("Malformed line at byte offset " + (offset + lineStart));
+        }
+
+        /**
+         * Moves past the separator preceding a field, unless the field is the first of its line.
+         *
+         * @throws IOException If the cursor is neither at the start of a line nor on a separator.
+         */
+        private void skipSeparator() throws IOException {
+            if (position == lineStart) {
+                return;
+            }
+            if (!hasNextField()) {
+                throw malformed();
+            }
+            position++;
+        }
+
+        /**
+         * Returns {@code true} if a byte ends a field.
+         *
+         * @param b The byte.
+         * @return {@code true} for a separator or a line terminator.
+         */
+        private static boolean isFieldEnd(byte b) {
+            return b == ',' || b == '\n' || b == '\r';
+        }
+
+        /**
+         * Returns {@code true} if the mapped bytes at an index are the ASCII characters of a name.
+         *
+         * @param start The buffer index of the first byte.
+         * @param name  The name to be compared.
+         * @return {@code true} if every byte equals the corresponding character of the name.
+         */
+        private boolean matches(int start, String name) {
+            for (int i = 0; i < name.length(); i++) {
+                if (buffer.get(start + i) != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,673 @@
+package persistence;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import bet.IGameResultListener;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerType;
+import customer.GoldCustomer;
+import customer.PlatinumCustomer;
+import main.BetOrganization;
+import main.IWagerJournal;
+import util.Money;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of wager placements, cancelled bets and game results, with group commit.
+ * <p>
+ * While open, the {@code Journal} is the {@link IWagerJournal} of its {@link BetOrganization} and listens to
+ * {@link Bet#setGameResult(char)}, and appends a record for every accepted wager placement, every cancelled bet
+ * and every game result. The thread that places the wager, cancels the bet or sets the result is blocked until
+ * its record is durable on disk. A placement is journaled once the organization has accepted it, under the lock
+ * of its customer, and before it changes any state: the journal never holds a rejected placement, and a
+ * placement that cannot be journaled is not applied. A cancelled bet is journaled before any of its wagers is
+ * voided. Only the placements made through {@link BetOrganization#placeBet(Customer, Bet, int, char)} are
+ * journaled: bets added to a customer directly
+ * (e.g., generated or imported) must be captured by a snapshot, and placements made through
+ * {@link main.ShardedBetOrganization} are not journaled.
+ * </p>
+ * <p>
+ * Records are not synced one by one: a dedicated flusher thread collects every record appended during a
+ * configurable batch window and writes them as a single batch, followed by a single
+ * {@link FileChannel#force(boolean)}. A longer window amortizes the cost of each sync over more records,
+ * increasing throughput at the cost of a higher placement latency, while a zero window syncs as soon as
+ * the previous sync has completed.
+ * </p>
+ * <p>
+ * Bets and customers are referenced in the journal by id. When the journal is opened, the bets and
+ * customers already in the organization are assigned ids in list order (which is also the order of an
+ * {@link OrganizationSnapshot}); any other bet or customer is defined by a record of its own the first time
+ * it is referenced. {@link #replay(Path, BetOrganization)} therefore rebuilds the organization when applied
+ * to the state the journal was opened on (e.g., right after a snapshot has been loaded or written). Settlements
+ * are not journaled: replayed wagers are open, and are settled again from the replayed game results.
+ * </p>
+ * <p>
+ * Each batch is stored as its length, its CRC32 checksum and its records; a batch that was only partially
+ * written when the process died is detected and ignored on replay, and truncated when the journal is opened
+ * again, so that new batches are never appended after it.
+ * </p>
+ */
+public final class Journal implements IGameResultListener, IWagerJournal, AutoCloseable {
+
+    /**
+     * The record type defining a bet.
+     */
+    private static final byte BET_RECORD = 1;
+
+    /**
+     * The record type defining a customer.
+     */
+    private static final byte CUSTOMER_RECORD = 2;
+
+    /**
+     * The record type of a wager placement.
+     */
+    private static final byte PLACEMENT_RECORD = 3;
+
+    /**
+     * The record type of a game result.
+     */
+    private static final byte RESULT_RECORD = 4;
+
+    /**
+     * The record type of a cancelled bet.
+     */
+    private static final byte VOID_RECORD = 5;
+
+    /**
+     * The size of the header (length and checksum) of each batch.
+     */
+    private static final int BATCH_HEADER_SIZE = 8;
+
+    /**
+     * The {@link FileChannel} of the journal file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The {@link BetOrganization} whose placements are journaled.
+     */
+    private final BetOrganization betOrganization;
+
+    /**
+     * The batch window, in nanoseconds.
+     */
+    private final long batchWindowNanos;
+
+    /**
+     * The ids of the bets known to the journal.
+     */
+    private final Map<Bet, Integer> betIds = new IdentityHashMap<>();
+
+    /**
+     * The ids of the customers known to the journal.
+     */
+    private final Map<Customer, Integer> customerIds = new IdentityHashMap<>();
+
+    /**
+     * The lock guarding the pending batch, the ids and the batch numbers.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when records are appended to an empty pending batch, or when the journal is closed.
+     */
+    private final Condition appended = lock.newCondition();
+
+    /**
+     * Signalled whenever a batch has become durable, or when the flusher has failed.
+     */
+    private final Condition durable = lock.newCondition();
+
+    /**
+     * The flusher thread writing and syncing the batches.
+     */
+    private final Thread flusher;
+
+    /**
+     * The records appended since the last batch was taken by the flusher, after room for the batch header.
+     */
+    private ByteBuffer pending = newBatchBuffer(1 << 16);
+
+    /**
+     * The buffer of the batch being written, swapped with {@link #pending} by the flusher.
+     */
+    private ByteBuffer writing = newBatchBuffer(1 << 16);
+
+    /**
+     * The number of the batch that records are currently appended to.
+     */
+    private long currentBatch = 1;
+
+    /**
+     * The number of the last batch that has become durable.
+     */
+    private long durableBatch;
+
+    /**
+     * The error that stopped the flusher, if any.
+     */
+    private IOException failure;
+
+    /**
+     * {@code true} once the journal has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Opens a journal file for appending and starts journaling every wager placement, cancelled bet and game result.
+     * <p>
+     * The bets and customers currently in the organization are assigned ids in list order, so the journal
+     * should be opened on the same state it will be replayed on. An incomplete or corrupted batch at the end of
+     * the file is truncated.
+     * </p>
+     *
+     * @param path            The {@link Path} of the journal file, created if it does not exist.
+     * @param betOrganization The {@link BetOrganization} whose current bets and customers are assigned ids.
+     * @param batchWindow     The time during which records are collected into a single batch before syncing.
+     * @throws IOException If the journal file cannot be opened.
+     */
+    public Journal(Path path, BetOrganization betOrganization, Duration batchWindow) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = readBatches(channel, batch -> {
+            });
+            channel.truncate(length);
+            channel.position(length);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.betOrganization = betOrganization;
+        this.batchWindowNanos = batchWindow.toNanos();
+        betOrganization.getBets().forEach(bet -> betIds.put(bet, betIds.size()));
+        betOrganization.getCustomers().forEach(customer -> customerIds.put(customer, customerIds.size()));
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        betOrganization.setJournal(this);
+        Bet.addGameResultListener(this);
+    }
+
+    /**
+     * Appends the record of an accepted wager placement to the pending batch, without waiting for it.
+     *
+     * @param customer The {@link Customer} placing the bet.
+     * @param bet      The {@link Bet} the customer bets on.
+     * @param stake    The amount staked by the customer.
+     * @param choice   The choice made by the customer.
+     * @return The number of the batch holding the record, to wait for it with {@link #awaitDurable(long)}.
+     * @throws UncheckedIOException If the journal is closed or can no longer be written.
+     */
+    @Override
+    public long journalPlacement(Customer customer, Bet bet, int stake, char choice) {
+        lock.lock();
+        try {
+            int customerId = customerId(customer);
+            int betId = betId(bet);
+            reserve(15).put(PLACEMENT_RECORD)
+                    .putInt(customerId)
+                    .putInt(betId)
+                    .putInt(stake)
+                    .putChar(choice);
+            return currentBatch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a batch, and therefore every record appended to it, is durable.
+     * <p>
+     * Waiting releases the lock of the journal, so the placements of concurrent threads join the same batch.
+     * </p>
+     *
+     * @param ticket The number of the batch, as returned by {@link #journalPlacement(Customer, Bet, int, char)}.
+     * @throws UncheckedIOException If the flusher fails before the batch is durable.
+     */
+    @Override
+    public void awaitDurable(long ticket) {
+        lock.lock();
+        try {
+            awaitBatch(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Journals the cancellation of a bet and waits until it is durable.
+     *
+     * @param bet The {@link Bet} to be cancelled.
+     * @throws UncheckedIOException If the journal is closed or can no longer be written.
+     */
+    @Override
+    public void journalVoid(Bet bet) {
+        lock.lock();
+        try {
+            int betId = betId(bet);
+            reserve(5).put(VOID_RECORD).putInt(betId);
+            awaitBatch(currentBatch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Journals a game result and waits until it is durable.
+     *
+     * @param bet The {@link Bet} whose game result has been set.
+     * @throws UncheckedIOException If the journal can no longer be written.
+     */
+    @Override
+    public void onGameResult(Bet bet) {
+        lock.lock();
+        try {
+            int betId = betId(bet);
+            reserve(7).put(RESULT_RECORD).putInt(betId).putChar(bet.getGameResult());
+            awaitBatch(currentBatch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops journaling, syncs every pending record and closes the journal file.
+     *
+     * @throws IOException If the last batch cannot be written or the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (betOrganization.getJournal() == this) {
+            betOrganization.setJournal(null);
+        }
+        Bet.removeGameResultListener(this);
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Replays a journal file into the given organization.
+     * <p>
+     * The bets and customers currently in the organization are assigned ids in list order, as when the
+     * journal was opened. Every journaled bet and customer is then added to the organization, every wager is
+     * added to its customer (increasing their total spent amount), and every game result is set and every
+     * cancelled bet voided, in the order they were journaled. Replay stops at the first incomplete or corrupted
+     * batch, which can only be the batch being written when the process died. The replayed results can then be
+     * settled with {@link BetOrganization#calculateGainsPerCustomer()}.
+     * </p>
+     * <p>
+     * The journal is read batch by batch, so the memory needed does not grow with the size of the file. It must
+     * not be open while it is replayed.
+     * </p>
+     *
+     * @param path            The {@link Path} of the journal file.
+     * @param betOrganization The {@link BetOrganization} to be rebuilt.
+     * @return The number of replayed records; {@code 0} if the journal file does not exist.
+     * @throws IOException If the journal file cannot be read, or holds a malformed record.
+     */
+    public static int replay(Path path, BetOrganization betOrganization) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        List<Bet> bets = new ArrayList<>(betOrganization.getBets());
+        List<Customer> customers = new ArrayList<>(betOrganization.getCustomers());
+        int[] records = new int[1];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readBatches(channel, batch -> {
+                while (batch.hasRemaining()) {
+                    replayRecord(batch, bets, customers, betOrganization);
+                    records[0]++;
+                }
+            });
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | NegativeArraySizeException e) {
+            throw new IOException("Malformed record in journal '" + path + "'", e);
+        }
+        return records[0];
+    }
+
+    /**
+     * Reads the complete batches at the start of a journal, one at a time, up to the first incomplete or
+     * corrupted one.
+     *
+     * @param channel The {@link FileChannel} of the journal file; its position is left unchanged.
+     * @param handler The {@link Consumer} of the records of each complete batch, in a buffer that is reused for
+     *                the next batch.
+     * @return The length of the complete batches, at which the journal file is to be truncated.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static long readBatches(FileChannel channel, Consumer<ByteBuffer> handler) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BATCH_HEADER_SIZE);
+        ByteBuffer batch = ByteBuffer.allocate(1 << 16);
+        CRC32 checksum = new CRC32();
+        long size = channel.size();
+        long length = 0;
+        while (size - length >= BATCH_HEADER_SIZE) {
+            readFully(channel, header.clear(), length);
+            int batchLength = header.getInt(0);
+            int expectedChecksum = header.getInt(4);
+            if (batchLength < 0 || batchLength > size - length - BATCH_HEADER_SIZE) {
+                break;
+            }
+            if (batch.capacity() < batchLength) {
+                batch = ByteBuffer.allocate(Math.max(batchLength, batch.capacity() * 2));
+            }
+            readFully(channel, batch.clear().limit(batchLength), length + BATCH_HEADER_SIZE);
+            batch.flip();
+            checksum.reset();
+            checksum.update(batch.duplicate());
+            if ((int) checksum.getValue() != expectedChecksum) {
+                break;
+            }
+            handler.accept(batch);
+            length += BATCH_HEADER_SIZE + batchLength;
+        }
+        return length;
+    }
+
+    /**
+     * Fills a buffer with the bytes of a file at a given position.
+     *
+     * @param channel  The {@link FileChannel} to read from.
+     * @param buffer   The {@link ByteBuffer} to be filled up to its limit.
+     * @param position The position in the file of the first byte to be read.
+     * @throws IOException If an I/O error occurs, or the file ends before the buffer is full.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("The journal ended while reading a batch");
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Applies a single journal record to the organization.
+     *
+     * @param batch           The {@link ByteBuffer} positioned at the record.
+     * @param bets            The bets known so far, indexed by id.
+     * @param customers       The customers known so far, indexed by id.
+     * @param betOrganization The {@link BetOrganization} being rebuilt.
+     * @throws IllegalArgumentException If the record is of an unknown type.
+     */
+    private static void replayRecord(ByteBuffer batch, List<Bet> bets, List<Customer> customers,
+                                     BetOrganization betOrganization) {
+        byte type = batch.get();
+        switch (type) {
+            case BET_RECORD -> {
+                boolean football = batch.get() == 0;
+                double odds = batch.getDouble();
+                String game = getString(batch);
+                Bet bet = football ? new FootballBet(game, odds) : new BasketballBet(game, odds);
+                bets.add(bet);
+                betOrganization.addBet(bet);
+            }
+            case CUSTOMER_RECORD -> {
+                CustomerType customerType = CustomerType.values()[batch.get()];
+                String fullName = getString(batch);
+                Customer customer = switch (customerType) {
+                    case BASIC -> new Customer(fullName);
+                    case GOLD -> new GoldCustomer(fullName);
+                    case PLATINUM -> new PlatinumCustomer(fullName);
+                };
+                customers.add(customer);
+                betOrganization.addCustomer(customer);
+            }
+            case PLACEMENT_RECORD -> {
+                Customer customer = customers.get(batch.getInt());
+                Bet bet = bets.get(batch.getInt());
+                int stake = batch.getInt();
+                char choice = batch.getChar();
+                customer.addCustomerBet(new CustomerBet(bet, stake, choice));
+                customer.increaseTotalSpentMinorUnits(Money.toMinorUnits(stake));
+            }
+            case RESULT_RECORD -> {
+                Bet bet = bets.get(batch.getInt());
+                bet.setGameResult(batch.getChar());
+            }
+            case VOID_RECORD -> betOrganization.voidBet(bets.get(batch.getInt()));
+            default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+        }
+    }
+
+    /**
+     * Returns the id of a bet, appending a record defining it if it is not known yet.
+     * Must be called while holding the lock.
+     *
+     * @param bet The {@link Bet} whose id is requested.
+     * @return The id of the bet.
+     */
+    private int betId(Bet bet) {
+        Integer betId = betIds.get(bet);
+        if (betId != null) {
+            return betId;
+        }
+
+        byte[] game = bet.getGame().getBytes(StandardCharsets.UTF_8);
+        reserve(14 + game.length).put(BET_RECORD)
+                .put((byte) (bet instanceof FootballBet ? 0 : 1))
+                .putDouble(bet.getOdds())
+                .putInt(game.length)
+                .put(game);
+        betIds.put(bet, betIds.size());
+        return betIds.size() - 1;
+    }
+
+    /**
+     * Returns the id of a customer, appending a record defining it if it is not known yet.
+     * Must be called while holding the lock.
+     *
+     * @param customer The {@link Customer} whose id is requested.
+     * @return The id of the customer.
+     */
+    private int customerId(Customer customer) {
+        Integer customerId = customerIds.get(customer);
+        if (customerId != null) {
+            return customerId;
+        }
+
+        byte[] fullName = customer.getFullName().getBytes(StandardCharsets.UTF_8);
+        reserve(6 + fullName.length).put(CUSTOMER_RECORD)
+                .put((byte) customer.getCustomerType().ordinal())
+                .putInt(fullName.length)
+                .put(fullName);
+        customerIds.put(customer, customerIds.size());
+        return customerIds.size() - 1;
+    }
+
+    /**
+     * Makes room for a record in the pending batch, waking up the flusher if the batch was empty.
+     * Must be called while holding the lock.
+     *
+     * @param bytes The size of the record.
+     * @return The pending batch {@link ByteBuffer}, positioned where the record is to be written.
+     * @throws UncheckedIOException If the journal is closed or can no longer be written.
+     */
+    private ByteBuffer reserve(int bytes) {
+        if (failure != null) {
+            throw new UncheckedIOException("The journal can no longer be written", failure);
+        }
+        if (closed) {
+            throw new UncheckedIOException(new IOException("The journal is closed"));
+        }
+
+        if (pending.position() == BATCH_HEADER_SIZE) {
+            appended.signal();
+        }
+        if (pending.remaining() < bytes) {
+            ByteBuffer grown = newBatchBuffer(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            grown.clear();
+            grown.put(pending);
+            pending = grown;
+        }
+        return pending;
+    }
+
+    /**
+     * Waits until a batch is durable.
+     * Must be called while holding the lock.
+     *
+     * @param batch The number of the batch.
+     * @throws UncheckedIOException If the flusher fails before the batch is durable.
+     */
+    private void awaitBatch(long batch) {
+        boolean interrupted = false;
+        while (durableBatch < batch && failure == null) {
+            try {
+                durable.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (durableBatch < batch) {
+            throw new UncheckedIOException("The journal can no longer be written", failure);
+        }
+    }
+
+    /**
+     * The loop of the flusher thread: waits for records, lets the batch window elapse, then writes and syncs
+     * every record appended in the meantime as a single batch, until the journal is closed.
+     */
+    private void flushLoop() {
+        while (true) {
+            long batch;
+            lock.lock();
+            try {
+                while (pending.position() == BATCH_HEADER_SIZE && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (pending.position() == BATCH_HEADER_SIZE) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (batchWindowNanos > 0) {
+                LockSupport.parkNanos(batchWindowNanos);
+            }
+
+            lock.lock();
+            try {
+                ByteBuffer full = pending;
+                pending = writing;
+                pending.clear().position(BATCH_HEADER_SIZE);
+                writing = full;
+                batch = currentBatch++;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                writeBatch(writing);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableBatch = batch;
+                }
+                durable.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, preceded by its length and checksum, and syncs the journal file.
+     *
+     * @param batch The batch {@link ByteBuffer}, with its records after room for the header.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeBatch(ByteBuffer batch) throws IOException {
+        int length = batch.position() - BATCH_HEADER_SIZE;
+        CRC32 checksum = new CRC32();
+        checksum.update(batch.array(), BATCH_HEADER_SIZE, length);
+        batch.putInt(0, length).putInt(4, (int) checksum.getValue());
+
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Reads a string stored as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param buffer The {@link ByteBuffer} positioned at the string.
+     * @return The {@link String} read.
+     */
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an empty batch buffer, positioned after room for the batch header.
+     *
+     * @param capacity The capacity of the buffer.
+     * @return The new batch {@link ByteBuffer}.
+     */
+    private static ByteBuffer newBatchBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).position(BATCH_HEADER_SIZE);
+    }
+
+}
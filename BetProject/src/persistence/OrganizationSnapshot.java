@@ -0,0 +1,498 @@
+package persistence;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerType;
+import customer.GoldCustomer;
+import customer.PlatinumCustomer;
+import customer.SettlementState;
+import main.BetOrganization;
+import util.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of the state of a {@link BetOrganization}, for fast restarts.
+ * <p>
+ * A snapshot contains every bet of the organization (sport, game, odds and result) and every customer
+ * (full name, type, total spent and total gains) together with their wagers (bet, stake, choice,
+ * settlement state and payout). It is written sequentially through a {@link FileChannel} and a direct
+ * buffer, and loaded back through memory-mapped windows of the file, so that a book of millions of
+ * wagers is restored without replaying it.
+ * </p>
+ * <p>
+ * The snapshot has the following layout, with every number in big-endian order and every string
+ * stored as its UTF-8 length ({@code int}) followed by its UTF-8 bytes:
+ * <pre>
+ * int magic, int version
+ * int betCount
+ *     byte sport, double odds, char gameResult, string game            (per bet)
+ * int customerCount
+ *     byte type, long totalSpent, long totalGains, string fullName     (per customer)
+ *     int wagerCount
+ *         int betIndex, int stake, char choice, byte state, long payout   (per wager)
+ * </pre>
+ * Amounts of money are stored in minor units (see {@link Money}).
+ * The organization must not be modified while a snapshot is being written or loaded.
+ * </p>
+ */
+public final class OrganizationSnapshot {
+
+    /**
+     * The magic number identifying a snapshot file ("BETS").
+     */
+    private static final int MAGIC = 0x42455453;
+
+    /**
+     * The version of the snapshot format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The sport tag of a {@link FootballBet}.
+     */
+    private static final byte FOOTBALL = 0;
+
+    /**
+     * The sport tag of a {@link BasketballBet}.
+     */
+    private static final byte BASKETBALL = 1;
+
+    /**
+     * The smallest size of a bet in a snapshot, with an empty game name.
+     */
+    private static final int MIN_BET_SIZE = 15;
+
+    /**
+     * The smallest size of a customer in a snapshot, with an empty full name and no wager.
+     */
+    private static final int MIN_CUSTOMER_SIZE = 25;
+
+    /**
+     * The size of a wager in a snapshot.
+     */
+    private static final int WAGER_SIZE = 19;
+
+    /**
+     * The size of the buffer used to write a snapshot.
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The maximum size of a memory-mapped window used to load a snapshot.
+     */
+    private static final long MAPPED_WINDOW_SIZE = 1L << 28;
+
+    /**
+     * Writes a snapshot of the given organization to the specified file, replacing any existing file.
+     * <p>
+     * The snapshot is first written to a temporary file next to the target, which is forced to the storage
+     * device and then atomically moved over the target, and the directory is synced so that the move itself is
+     * durable. A crash while writing therefore leaves the previous snapshot intact, and the target file is always
+     * either the previous snapshot or the complete new one.
+     * </p>
+     *
+     * @param betOrganization The {@link BetOrganization} to be saved.
+     * @param path            The {@link Path} of the snapshot file.
+     * @throws IOException           If an I/O error occurs.
+     * @throws IllegalStateException If a customer has a wager on a bet that does not belong to the organization.
+     */
+    public static void write(BetOrganization betOrganization, Path path) throws IOException {
+        List<Bet> bets = betOrganization.getBets();
+        List<Customer> customers = betOrganization.getCustomers();
+
+        Map<Bet, Integer> betIndices = new IdentityHashMap<>();
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        boolean written = false;
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotOutput output = new SnapshotOutput(channel);
+            output.ensure(12);
+            output.buffer.putInt(MAGIC).putInt(VERSION).putInt(bets.size());
+            for (Bet bet : bets) {
+                betIndices.put(bet, betIndices.size());
+                output.ensure(11);
+                output.buffer.put(bet instanceof FootballBet ? FOOTBALL : BASKETBALL)
+                        .putDouble(bet.getOdds())
+                        .putChar(bet.getGameResult());
+                output.putString(bet.getGame());
+            }
+
+            output.ensure(4);
+            output.buffer.putInt(customers.size());
+            for (Customer customer : customers) {
+                List<CustomerBet> customerBets = customer.getCustomerBetList();
+                output.ensure(17);
+                output.buffer.put((byte) customer.getCustomerType().ordinal())
+                        .putLong(customer.getTotalSpentMinorUnits())
+                        .putLong(customer.getTotalGainsMinorUnits());
+                output.putString(customer.getFullName());
+                output.ensure(4);
+                output.buffer.putInt(customerBets.size());
+
+                for (CustomerBet customerBet : customerBets) {
+                    Integer betIndex = betIndices.get(customerBet.getBet());
+                    if (betIndex == null) {
+                        throw new IllegalStateException("A wager of '" + customer.getFullName() + "' is placed on a bet outside the organization");
+                    }
+                    output.ensure(19);
+                    output.buffer.putInt(betIndex)
+                            .putInt(customerBet.getStake())
+                            .putChar(customerBet.getChoice())
+                            .put((byte) customerBet.getSettlementState().ordinal())
+                            .putLong(customerBet.getPayoutMinorUnits());
+                }
+            }
+            output.flush();
+            channel.force(true);
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(path);
+    }
+
+    /**
+     * Syncs the directory holding a file to the storage device, so that the file just moved into it is still
+     * there after a crash.
+     *
+     * @param path The {@link Path} of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void forceDirectory(Path path) throws IOException {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+    }
+
+    /**
+     * Loads a snapshot from the specified file into the given organization, replacing its current state.
+     * <p>
+     * The whole snapshot is parsed and checked first, into bets, customers and wagers that are not part of any
+     * organization yet: every count and length is checked against the bytes left in the file, and every sport,
+     * customer type, settlement state, bet index and choice against the values it may take. Only once the
+     * snapshot has been read completely is the organization cleared, and the bets and customers of the snapshot
+     * added to it, every wager being added to its customer, which also registers it for settlement. A truncated or
+     * corrupted snapshot therefore leaves the organization untouched.
+     * </p>
+     * <p>
+     * The game results are restored with {@link Bet#restoreGameResult(char)}, so the game result listeners are
+     * not notified again. Wagers keep the settlement state and payout they had when the snapshot was written, so
+     * they are never settled twice.
+     * </p>
+     *
+     * @param path            The {@link Path} of the snapshot file.
+     * @param betOrganization The {@link BetOrganization} to be restored.
+     * @throws IOException If an I/O error occurs or the file is not a valid snapshot.
+     */
+    public static void load(Path path, BetOrganization betOrganization) throws IOException {
+        Bet[] bets;
+        List<StagedCustomer> customers;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SnapshotInput input = new SnapshotInput(channel);
+            input.ensure(8);
+            int version = input.buffer.getInt() == MAGIC ? input.buffer.getInt() : -1;
+            if (version != VERSION) {
+                throw new IOException("'" + path + "' is not a supported bet organization snapshot");
+            }
+
+            bets = new Bet[input.getCount(MIN_BET_SIZE)];
+            for (int i = 0; i < bets.length; i++) {
+                input.ensure(11);
+                byte sport = input.buffer.get();
+                double odds = input.buffer.getDouble();
+                char gameResult = input.buffer.getChar();
+                String game = input.getString();
+                if (sport != FOOTBALL && sport != BASKETBALL || !(odds > 0.0) || Double.isInfinite(odds)) {
+                    throw new IOException("Malformed bet in snapshot '" + path + "'");
+                }
+
+                bets[i] = sport == FOOTBALL ? new FootballBet(game, odds) : new BasketballBet(game, odds);
+                if (gameResult != '-') {
+                    if (bets[i].getChoiceIndex(gameResult) < 0) {
+                        throw new IOException("Malformed game result in snapshot '" + path + "'");
+                    }
+                    bets[i].restoreGameResult(gameResult);
+                }
+            }
+
+            CustomerType[] customerTypes = CustomerType.values();
+            SettlementState[] states = SettlementState.values();
+            int customerCount = input.getCount(MIN_CUSTOMER_SIZE);
+            customers = new ArrayList<>(customerCount);
+            for (int i = 0; i < customerCount; i++) {
+                input.ensure(17);
+                byte customerType = input.buffer.get();
+                long totalSpent = input.buffer.getLong();
+                long totalGains = input.buffer.getLong();
+                String fullName = input.getString();
+                if (customerType < 0 || customerType >= customerTypes.length) {
+                    throw new IOException("Malformed customer in snapshot '" + path + "'");
+                }
+
+                CustomerBet[] wagers = new CustomerBet[input.getCount(WAGER_SIZE)];
+                for (int j = 0; j < wagers.length; j++) {
+                    input.ensure(WAGER_SIZE);
+                    int betIndex = input.buffer.getInt();
+                    int stake = input.buffer.getInt();
+                    char choice = input.buffer.getChar();
+                    byte state = input.buffer.get();
+                    long payout = input.buffer.getLong();
+                    if (betIndex < 0 || betIndex >= bets.length || stake <= 0 || bets[betIndex].getChoiceIndex(choice) < 0
+                            || state < 0 || state >= states.length || payout < 0) {
+                        throw new IOException("Malformed wager in snapshot '" + path + "'");
+                    }
+
+                    wagers[j] = new CustomerBet(bets[betIndex], stake, choice);
+                    if (states[state] != SettlementState.OPEN) {
+                        wagers[j].settle(states[state], payout);
+                    }
+                }
+                customers.add(new StagedCustomer(customerTypes[customerType], fullName, totalSpent, totalGains, wagers));
+            }
+            if (input.remaining() != 0) {
+                throw new IOException("Unexpected data after the end of snapshot '" + path + "'");
+            }
+        }
+
+        betOrganization.clear();
+        for (Bet bet : bets) {
+            betOrganization.addBet(bet);
+        }
+        for (StagedCustomer staged : customers) {
+            Customer customer = switch (staged.customerType()) {
+                case BASIC -> new Customer(staged.fullName());
+                case GOLD -> new GoldCustomer(staged.fullName());
+                case PLATINUM -> new PlatinumCustomer(staged.fullName());
+            };
+            customer.increaseTotalSpentMinorUnits(staged.totalSpent());
+            customer.increaseTotalGainsMinorUnits(staged.totalGains());
+            for (CustomerBet customerBet : staged.wagers()) {
+                customer.addCustomerBet(customerBet);
+            }
+            betOrganization.addCustomer(customer);
+        }
+    }
+
+    /**
+     * A customer read from a snapshot, staged until the whole snapshot has been read.
+     *
+     * @param customerType The {@link CustomerType} of the customer.
+     * @param fullName     The full name of the customer.
+     * @param totalSpent   The total spent amount of the customer, in minor units.
+     * @param totalGains   The total gains of the customer, in minor units.
+     * @param wagers       The wagers of the customer, not added to them yet.
+     */
+    private record StagedCustomer(CustomerType customerType, String fullName, long totalSpent, long totalGains,
+                                  CustomerBet[] wagers) {
+    }
+
+    /**
+     * Sequential output of a snapshot, buffering writes to a {@link FileChannel} in a direct buffer.
+     */
+    private static final class SnapshotOutput {
+
+        /**
+         * The {@link FileChannel} of the snapshot file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The direct {@link ByteBuffer} collecting the written bytes.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+        /**
+         * Constructs a new {@code SnapshotOutput} writing to the specified channel.
+         *
+         * @param channel The {@link FileChannel} of the snapshot file.
+         */
+        SnapshotOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes sure that the buffer has room for the given number of bytes, flushing it if needed.
+         *
+         * @param bytes The number of bytes about to be written (at most the buffer size).
+         * @throws IOException If an I/O error occurs.
+         */
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes a string as its UTF-8 length followed by its UTF-8 bytes.
+         *
+         * @param value The {@link String} to be written.
+         * @throws IOException If an I/O error occurs.
+         */
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4);
+            buffer.putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Writes the buffered bytes to the channel.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+    }
+
+    /**
+     * Sequential input of a snapshot, reading a {@link FileChannel} through memory-mapped windows.
+     * <p>
+     * A window of at most {@link #MAPPED_WINDOW_SIZE} bytes is mapped at a time, and the next window is
+     * mapped whenever fewer bytes than needed remain in the current one, so that snapshots larger than
+     * the maximum size of a single mapping can be loaded.
+     * </p>
+     */
+    private static final class SnapshotInput {
+
+        /**
+         * The {@link FileChannel} of the snapshot file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The current memory-mapped window of the file.
+         */
+        private MappedByteBuffer buffer;
+
+        /**
+         * The position in the file of the first byte of the current window.
+         */
+        private long windowStart;
+
+        /**
+         * The size of the snapshot file.
+         */
+        private final long size;
+
+        /**
+         * Constructs a new {@code SnapshotInput} reading from the specified channel.
+         *
+         * @param channel The {@link FileChannel} of the snapshot file.
+         * @throws IOException If an I/O error occurs.
+         */
+        SnapshotInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        /**
+         * Makes sure that the given number of bytes can be read from the current window, mapping the next
+         * window if needed.
+         *
+         * @param bytes The number of bytes about to be read.
+         * @throws IOException If an I/O error occurs or the file ends before the given number of bytes.
+         */
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + buffer.position();
+            if (size - position < bytes) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+            map(position);
+        }
+
+        /**
+         * Returns the number of bytes left to be read in the file.
+         *
+         * @return The number of bytes after the current position.
+         */
+        long remaining() {
+            return size - windowStart - buffer.position();
+        }
+
+        /**
+         * Reads the number of entries that follow, checking that the rest of the file can hold them.
+         *
+         * @param entrySize The smallest size of an entry.
+         * @return The number of entries.
+         * @throws IOException If an I/O error occurs, or the count is negative or larger than the rest of the file
+         *                     can hold.
+         */
+        int getCount(int entrySize) throws IOException {
+            ensure(4);
+            int count = buffer.getInt();
+            if (count < 0 || count > remaining() / entrySize) {
+                throw new IOException("Malformed count in snapshot");
+            }
+            return count;
+        }
+
+        /**
+         * Reads a string stored as its UTF-8 length followed by its UTF-8 bytes.
+         *
+         * @return The {@link String} read.
+         * @throws IOException If an I/O error occurs, or the length is negative or larger than the rest of the file.
+         */
+        String getString() throws IOException {
+            ensure(4);
+            int length = buffer.getInt();
+            if (length < 0 || length > remaining()) {
+                throw new IOException("Malformed string in snapshot");
+            }
+            byte[] bytes = new byte[length];
+            ensure(length);
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Maps the window of the file starting at the specified position.
+         *
+         * @param position The position in the file of the first byte of the window.
+         * @throws IOException If an I/O error occurs.
+         */
+        private void map(long position) throws IOException {
+            windowStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_WINDOW_SIZE, size - position));
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+/**
+ * This package contains classes for persisting the state of the betting system.
+ * <p>
+ * The {@code persistence} package includes the {@link persistence.OrganizationSnapshot} class, which saves the bets,
+ * customers and wagers of a {@link main.BetOrganization} to a compact binary file and restores them on startup,
+ * and the {@link persistence.Journal} class, a write-ahead journal with group commit that records every wager placement
+ * and game result placed after the last snapshot, so that they can be replayed after a crash.
+ * </p>
+ * <p>
+ * The {@link persistence.BulkImporter} populates an organization from large CSV files of fixtures, customers and
+ * wagers, parsing them in parallel through memory-mapped I/O.
+ * </p>
+ */
+package persistence;
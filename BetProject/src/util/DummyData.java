@@ -3,6 +3,7 @@ package util;
 import bet.BasketballBet;
 import bet.Bet;
 import bet.FootballBet;
+import bet.Sport;
 import customer.Customer;
 import customer.CustomerBet;
 import customer.GoldCustomer;
@@ -153,10 +154,10 @@ public final class DummyData {
                     Bet bet = bets.get(random.nextInt(bets.size()));
 
                     int stake = random.nextInt(1, customer.getMaxStake());
-                    char[] availableChoices = bet.getAvailableChoices();
-                    char choice = availableChoices[random.nextInt(availableChoices.length)];
+                    Sport sport = bet.getSport();
+                    char choice = sport.getChoice(random.nextInt(sport.getChoiceCount()));
 
-                    customer.increaseTotalSpent(stake);
+                    customer.increaseTotalSpentMinorUnits(Money.toMinorUnits(stake));
                     customer.addCustomerBet(new CustomerBet(bet, stake, choice));
                 });
     }
@@ -0,0 +1,85 @@
+package util;
+
+/**
+ * Fixed-point representation of the amounts of money and odds of the betting system.
+ * <p>
+ * Amounts of money (stakes, payouts, total gains and total spent amounts) are represented as a {@code long}
+ * number of minor units (cents), and odds as a {@code long} number of ten-thousandths. Arithmetic on these
+ * representations is exact and allocation-free, so settling the same wagers always produces the same totals,
+ * whatever the order in which they are summed (e.g., by parallel settlement threads).
+ * </p>
+ * <p>
+ * The {@code double} representations are only used at the edges of the system: odds are converted once, when
+ * a bet is created, and amounts are converted back for display.
+ * </p>
+ */
+public final class Money {
+
+    /**
+     * The number of minor units (cents) in a unit of money.
+     */
+    public static final long MINOR_UNITS = 100;
+
+    /**
+     * The number of odds units in a unit of odds (i.e., odds are represented in ten-thousandths).
+     */
+    public static final long ODDS_SCALE = 10_000;
+
+    /**
+     * Prevents the instantiation of this utility class.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts a whole amount of money to minor units.
+     *
+     * @param amount The whole amount of money (e.g., a stake).
+     * @return The amount in minor units.
+     */
+    public static long toMinorUnits(long amount) {
+        return amount * MINOR_UNITS;
+    }
+
+    /**
+     * Converts an amount of money to minor units, rounding it to the nearest minor unit.
+     *
+     * @param amount The amount of money.
+     * @return The amount in minor units.
+     */
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_UNITS);
+    }
+
+    /**
+     * Converts an amount of money in minor units back to a {@code double}, for display.
+     *
+     * @param minorUnits The amount in minor units.
+     * @return The amount of money.
+     */
+    public static double toAmount(long minorUnits) {
+        return minorUnits / (double) MINOR_UNITS;
+    }
+
+    /**
+     * Converts decimal odds to odds units, rounding them to the nearest ten-thousandth.
+     *
+     * @param odds The decimal odds.
+     * @return The odds in odds units.
+     */
+    public static long toOddsUnits(double odds) {
+        return Math.round(odds * ODDS_SCALE);
+    }
+
+    /**
+     * Calculates the payout of a winning stake, rounded half up to the nearest minor unit.
+     *
+     * @param stake     The whole amount staked.
+     * @param oddsUnits The odds of the bet, in odds units.
+     * @return The payout in minor units.
+     */
+    public static long payout(int stake, long oddsUnits) {
+        return Math.floorDiv(stake * oddsUnits * MINOR_UNITS + ODDS_SCALE / 2, ODDS_SCALE);
+    }
+
+}
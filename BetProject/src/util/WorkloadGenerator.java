@@ -0,0 +1,246 @@
+package util;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import bet.Sport;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.GoldCustomer;
+import customer.PlatinumCustomer;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Generator of large, reproducible synthetic workloads of bets, customers and wagers.
+ * <p>
+ * Unlike {@link DummyData}, which provides a small predefined data set, the {@code WorkloadGenerator}
+ * produces any number of football and basketball bets and customers, as described by a
+ * {@link WorkloadProfile}. Each customer places a fixed number of wagers, with the bets chosen
+ * according to a Zipf distribution of game popularity, and the stake and choice chosen uniformly.
+ * </p>
+ * <p>
+ * The workload is fully determined by the seed: the customers are generated in parallel, in chunks of
+ * {@link #CHUNK_SIZE} customers, each chunk using its own {@link SplittableRandom} stream split from the
+ * seed in chunk order. The generated bets and customers are handed to the given sinks (e.g.,
+ * {@code BetOrganization::addBet} and {@code BetOrganization::addCustomer}) on the calling thread, in the
+ * same order on every run, while only a bounded number of chunks is held in memory at any time.
+ * </p>
+ * <p>
+ * The workers only draw the customers and their wagers: the wagers are added to their customers on the
+ * calling thread, in order, since adding a wager registers it in shared indexes (e.g., the
+ * {@link customer.StakeGuard} and the {@link customer.CustomerBetIndex}).
+ * </p>
+ */
+public final class WorkloadGenerator {
+
+    /**
+     * The number of customers generated by a single task.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The {@link WorkloadProfile} describing the workload to be generated.
+     */
+    private final WorkloadProfile profile;
+
+    /**
+     * The seed the workload is generated from.
+     */
+    private final long seed;
+
+    /**
+     * The number of threads used to generate the customers.
+     */
+    private final int parallelism;
+
+    /**
+     * Constructs a new {@code WorkloadGenerator}.
+     *
+     * @param profile     The {@link WorkloadProfile} describing the workload to be generated.
+     * @param seed        The seed the workload is generated from.
+     * @param parallelism The number of threads used to generate the customers.
+     */
+    public WorkloadGenerator(WorkloadProfile profile, long seed, int parallelism) {
+        this.profile = profile;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Generates the workload, handing every bet and every customer (with their wagers placed)
+     * to the given sinks.
+     * <p>
+     * All bets are handed to the bet sink before the first customer is handed to the customer sink.
+     * Both sinks are called on the calling thread.
+     * </p>
+     *
+     * @param betSink      The {@link Consumer} receiving the generated bets.
+     * @param customerSink The {@link Consumer} receiving the generated customers.
+     */
+    public void generate(Consumer<Bet> betSink, Consumer<Customer> customerSink) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        Bet[] bets = generateBets(random);
+        for (Bet bet : bets) {
+            betSink.accept(bet);
+        }
+
+        Bet[] betsByPopularity = shuffle(bets.clone(), random);
+        double[] popularity = zipfDistribution(betsByPopularity.length, profile.zipfExponent());
+
+        int chunks = (profile.customers() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Deque<CompletableFuture<GeneratedCustomer[]>> inFlight = new ArrayDeque<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int from = chunk * CHUNK_SIZE;
+                int to = Math.min(from + CHUNK_SIZE, profile.customers());
+                SplittableRandom chunkRandom = random.split();
+                inFlight.addLast(CompletableFuture.supplyAsync(
+                        () -> generateCustomers(from, to, betsByPopularity, popularity, chunkRandom), executor));
+
+                if (inFlight.size() >= parallelism * 2) {
+                    handOver(inFlight.removeFirst(), customerSink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                handOver(inFlight.removeFirst(), customerSink);
+            }
+        }
+    }
+
+    /**
+     * Waits for a chunk of customers to be generated, adds their wagers to them and hands them to the sink,
+     * in order.
+     *
+     * @param chunk        The {@link CompletableFuture} of the chunk.
+     * @param customerSink The {@link Consumer} receiving the generated customers.
+     */
+    private static void handOver(CompletableFuture<GeneratedCustomer[]> chunk, Consumer<Customer> customerSink) {
+        for (GeneratedCustomer generated : chunk.join()) {
+            Customer customer = generated.customer();
+            for (CustomerBet wager : generated.wagers()) {
+                customer.increaseTotalSpentMinorUnits(Money.toMinorUnits(wager.getStake()));
+                customer.addCustomerBet(wager);
+            }
+            customerSink.accept(customer);
+        }
+    }
+
+    /**
+     * Generates the football and basketball bets of the workload, with random odds.
+     *
+     * @param random The {@link SplittableRandom} used to generate the odds.
+     * @return The generated bets, football bets first.
+     */
+    private Bet[] generateBets(SplittableRandom random) {
+        Bet[] bets = new Bet[profile.footballBets() + profile.basketballBets()];
+        for (int i = 0; i < profile.footballBets(); i++) {
+            bets[i] = new FootballBet("Football Team " + (2 * i) + " vs Football Team " + (2 * i + 1),
+                    1.5 + random.nextInt(21) / 10.0);
+        }
+        for (int i = 0; i < profile.basketballBets(); i++) {
+            bets[profile.footballBets() + i] = new BasketballBet("Basketball Team " + (2 * i) + " vs Basketball Team " + (2 * i + 1),
+                    1.5 + random.nextInt(13) / 10.0);
+        }
+        return bets;
+    }
+
+    /**
+     * Generates a range of customers and draws their wagers, without adding the wagers to the customers.
+     *
+     * @param from             The index of the first customer (inclusive) to be generated.
+     * @param to               The index of the last customer (exclusive) to be generated.
+     * @param betsByPopularity The bets ordered from the most to the least popular.
+     * @param popularity       The cumulative popularity distribution of the bets.
+     * @param random           The {@link SplittableRandom} stream of this range.
+     * @return The generated customers, with their wagers.
+     */
+    private GeneratedCustomer[] generateCustomers(int from, int to, Bet[] betsByPopularity, double[] popularity,
+                                                  SplittableRandom random) {
+        GeneratedCustomer[] customers = new GeneratedCustomer[to - from];
+        for (int i = from; i < to; i++) {
+            String fullName = "Customer " + i;
+            double tier = random.nextDouble();
+            Customer customer = tier < profile.platinumShare() ? new PlatinumCustomer(fullName)
+                    : tier < profile.platinumShare() + profile.goldShare() ? new GoldCustomer(fullName)
+                    : new Customer(fullName);
+
+            CustomerBet[] wagers = new CustomerBet[profile.wagersPerCustomer()];
+            for (int j = 0; j < wagers.length; j++) {
+                Bet bet = betsByPopularity[sample(popularity, random)];
+                Sport sport = bet.getSport();
+                int stake = random.nextInt(1, customer.getMaxStake() + 1);
+                wagers[j] = new CustomerBet(bet, stake, sport.getChoice(random.nextInt(sport.getChoiceCount())));
+            }
+            customers[i - from] = new GeneratedCustomer(customer, wagers);
+        }
+        return customers;
+    }
+
+    /**
+     * Shuffles the given bets, so that the popularity of a bet does not depend on its sport or position.
+     *
+     * @param bets   The bets to be shuffled in place.
+     * @param random The {@link SplittableRandom} used to shuffle the bets.
+     * @return The shuffled bets.
+     */
+    private static Bet[] shuffle(Bet[] bets, SplittableRandom random) {
+        for (int i = bets.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Bet bet = bets[i];
+            bets[i] = bets[j];
+            bets[j] = bet;
+        }
+        return bets;
+    }
+
+    /**
+     * Computes the cumulative Zipf distribution over the given number of ranks.
+     *
+     * @param ranks    The number of ranks (bets).
+     * @param exponent The exponent of the distribution.
+     * @return The cumulative probability of each rank.
+     */
+    private static double[] zipfDistribution(int ranks, double exponent) {
+        double[] cumulative = new double[ranks];
+        double total = 0.0;
+        for (int rank = 0; rank < ranks; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < ranks; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Samples a rank from a cumulative distribution.
+     *
+     * @param cumulative The cumulative probability of each rank.
+     * @param random     The {@link SplittableRandom} used to sample.
+     * @return The sampled rank.
+     */
+    private static int sample(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    /**
+     * A customer generated by a worker, with the wagers still to be added to them.
+     *
+     * @param customer The generated {@link Customer}.
+     * @param wagers   The wagers of the customer, in placement order.
+     */
+    private record GeneratedCustomer(Customer customer, CustomerBet[] wagers) {
+    }
+
+}
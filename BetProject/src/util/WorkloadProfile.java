@@ -0,0 +1,40 @@
+package util;
+
+import customer.CustomerType;
+
+/**
+ * Describes the size and shape of a synthetic workload produced by the {@link WorkloadGenerator}.
+ *
+ * @param customers         The number of customers to be generated.
+ * @param footballBets      The number of football bets (fixtures) to be generated.
+ * @param basketballBets    The number of basketball bets (fixtures) to be generated.
+ * @param wagersPerCustomer The number of wagers placed by each customer.
+ * @param zipfExponent      The exponent of the Zipf distribution of game popularity; {@code 0.0} spreads
+ *                          the wagers uniformly across the bets, while larger values concentrate them on
+ *                          the most popular bets.
+ * @param goldShare         The share of {@link CustomerType#GOLD} customers, between 0.0 and 1.0.
+ * @param platinumShare     The share of {@link CustomerType#PLATINUM} customers, between 0.0 and 1.0;
+ *                          the remaining customers are {@link CustomerType#BASIC} customers.
+ */
+public record WorkloadProfile(int customers, int footballBets, int basketballBets, int wagersPerCustomer,
+                              double zipfExponent, double goldShare, double platinumShare) {
+
+    /**
+     * Validates the profile.
+     *
+     * @throws IllegalArgumentException If a count is negative, there are no bets while wagers are requested,
+     *                                  or the customer type shares are out of range.
+     */
+    public WorkloadProfile {
+        if (customers < 0 || footballBets < 0 || basketballBets < 0 || wagersPerCustomer < 0) {
+            throw new IllegalArgumentException("Workload counts must not be negative");
+        }
+        if (wagersPerCustomer > 0 && footballBets + basketballBets == 0) {
+            throw new IllegalArgumentException("Wagers cannot be generated without any bets");
+        }
+        if (zipfExponent < 0.0 || goldShare < 0.0 || platinumShare < 0.0 || goldShare + platinumShare > 1.0) {
+            throw new IllegalArgumentException("Invalid Zipf exponent or customer type shares");
+        }
+    }
+
+}
@@ -3,6 +3,9 @@
  * <p>
  * The {@code util} package includes the {@link util.DummyData} class, which is used to create lists of dummy bets
  * and customers, as well as to randomly populate customers with bets for simulating betting scenarios.
+ * For load tests, the {@link util.WorkloadGenerator} produces large, reproducible workloads described by a
+ * {@link util.WorkloadProfile}. The {@link util.Money} class defines the fixed-point representation of amounts
+ * of money and odds used throughout the system.
  * </p>
  */
 package util;
\ No newline at end of file
@@ -0,0 +1,104 @@
+package bet;
+
+import main.BetOrganization;
+import support.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link BetCatalog}: the sharing of choice tables and game names, the dense ids and their
+ * stability across the clearing of an organization, and the absence of per-bet arrays.
+ */
+public final class BetCatalogTest {
+
+    @Test
+    void betsOfTheSameSportShareTheirSport() {
+        Bet first = new FootballBet("Team A vs Team B", 1.5);
+        Bet second = new FootballBet("Team C vs Team D", 2.5);
+
+        assertTrue(first.getSport() == second.getSport(), "Football bets share their sport");
+    }
+
+    @Test
+    void gameNamesAreInterned() {
+        Bet first = new BasketballBet(new String("Team A vs Team B"), 1.5);
+        Bet second = new FootballBet(new String("Team A vs Team B"), 2.5);
+
+        assertTrue(first.getGame() == second.getGame(), "Bets of the same game share their name");
+    }
+
+    @Test
+    void idsAreDenseAndAssignedOnFirstUse() {
+        BetCatalog.INSTANCE.clear();
+        Bet first = new FootballBet("Team A vs Team B", 1.5);
+        Bet second = new FootballBet("Team C vs Team D", 2.5);
+        assertEquals(0, BetCatalog.INSTANCE.size(), "Bets are not registered on construction");
+
+        assertEquals(0, second.getId(), "Id of the first registered bet");
+        assertEquals(1, first.getId(), "Id of the second registered bet");
+        assertEquals(0, second.getId(), "Id of a bet once registered");
+        assertTrue(BetCatalog.INSTANCE.getBet(1) == first, "Bet retrieved by id");
+        assertEquals(2, BetCatalog.INSTANCE.size(), "Number of registered bets");
+    }
+
+    @Test
+    void clearReleasesTheBetsAndRejectsTheirIds() {
+        BetCatalog.INSTANCE.clear();
+        Bet stale = new FootballBet("Team A vs Team B", 1.5);
+        stale.getId();
+
+        BetCatalog.INSTANCE.clear();
+        assertEquals(0, BetCatalog.INSTANCE.size(), "Number of bets after clearing");
+        Bet fresh = new FootballBet("Team C vs Team D", 2.5);
+        assertEquals(0, fresh.getId(), "Ids restart from 0 after clearing");
+        assertThrows(IllegalStateException.class, stale::getId);
+    }
+
+    @Test
+    void clearingAnOrganizationKeepsTheIds() {
+        Bet kept = new FootballBet("Team A vs Team B", 1.5);
+        BetOrganization.INSTANCE.clear();
+        BetOrganization.INSTANCE.addBet(kept);
+        int id = kept.getId();
+
+        BetOrganization.INSTANCE.clear();
+        Bet next = new FootballBet("Team C vs Team D", 2.5);
+        assertEquals(id, kept.getId(), "Id of a bet kept across the clearing of its organization");
+        assertTrue(next.getId() != id, "A new bet never takes the id of a kept bet");
+        assertTrue(BetCatalog.INSTANCE.getBet(id) == kept, "Kept bet retrieved by id");
+    }
+
+    @Test
+    void betsHoldNoPerBetChoicesOrNames() {
+        for (Class<?> type = FootballBet.class; type != Object.class; type = type.getSuperclass()) {
+            assertNoArrayField(type);
+        }
+        assertNoArrayField(BasketballBet.class);
+
+        Bet first = new FootballBet(new String("Team A vs Team B"), 1.5);
+        Bet second = new FootballBet(new String("Team A vs Team B"), 2.5);
+        assertTrue(first.getGame() == second.getGame(), "Bets of the same game share their name");
+        assertTrue(first.getSport() == second.getSport(), "Bets of the same sport share their choices");
+        assertTrue(first.getAvailableChoices() != second.getAvailableChoices(),
+                "The shared choices are copied when handed out");
+    }
+
+    /**
+     * Asserts that the instances of a class hold no array of their own.
+     *
+     * @param type The class whose instance fields are checked.
+     */
+    private static void assertNoArrayField(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                assertTrue(!field.getType().isArray(), type.getSimpleName() + "." + field.getName() + " is an array");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package customer;
+
+import bet.Bet;
+import bet.FootballBet;
+import main.BetOrganization;
+import support.Test;
+
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link Leaderboard}: the ranking of the customers by net gains, and the reset of the board when
+ * the organization is cleared.
+ */
+public final class LeaderboardTest {
+
+    @Test
+    void customersAreRankedByNetGains() {
+        BetOrganization organization = newOrganization();
+        Bet bet = new FootballBet("Team A vs Team B", 3.0);
+        organization.addBet(bet);
+        Customer winner = new Customer("Winner");
+        Customer loser = new Customer("Loser");
+        organization.addCustomer(winner);
+        organization.addCustomer(loser);
+
+        organization.placeBet(winner, bet, 10, '1');
+        organization.placeBet(loser, bet, 20, '2');
+        bet.setGameResult('1');
+        organization.calculateGainsPerCustomer();
+
+        List<LeaderboardEntry> winners = Leaderboard.INSTANCE.getBiggestWinners(CustomerType.BASIC, 10);
+        assertEquals(2, winners.size(), "Customers on the board");
+        assertTrue(winners.get(0).customer() == winner, "Biggest winner");
+        assertEquals(20.0, winners.get(0).netGains(), "Net gains of the biggest winner");
+        assertTrue(Leaderboard.INSTANCE.getBiggestLosers(CustomerType.BASIC, 1).get(0).customer() == loser,
+                "Biggest loser");
+    }
+
+    @Test
+    void clearEmptiesTheBoard() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        organization.addCustomer(customer);
+        customer.increaseTotalGainsMinorUnits(100);
+        assertEquals(1, Leaderboard.INSTANCE.getBiggestWinners(CustomerType.BASIC, 10).size(), "Customers on the board");
+
+        organization.clear();
+        assertEquals(0, Leaderboard.INSTANCE.getBiggestWinners(CustomerType.BASIC, 10).size(),
+                "Customers on the board once cleared");
+    }
+
+    /**
+     * Returns the organization, cleared of the customers, bets and standings of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+}
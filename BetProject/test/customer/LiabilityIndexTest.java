@@ -0,0 +1,104 @@
+package customer;
+
+import bet.Bet;
+import bet.FootballBet;
+import main.BetOrganization;
+import support.Test;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static support.Assert.assertEquals;
+
+/**
+ * Tests of the {@link LiabilityIndex}: the liabilities of the open customer bets, and the removal of the bets
+ * once settled or voided.
+ */
+public final class LiabilityIndexTest {
+
+    /**
+     * The number of threads placing and voiding customer bets concurrently.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * The number of customer bets placed and voided by each thread.
+     */
+    private static final int WAGERS_PER_THREAD = 50_000;
+
+    @Test
+    void settledBetsAreRemoved() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.5);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+
+        organization.placeBet(customer, bet, 10, '1');
+        organization.placeBet(customer, bet, 20, 'X');
+        assertEquals(25.0, LiabilityIndex.INSTANCE.getLiability(bet, '1'), "Liability of the outcome '1'");
+        assertEquals(50.0, LiabilityIndex.INSTANCE.getWorstCaseLiability(bet), "Worst-case liability");
+        assertEquals(1, LiabilityIndex.INSTANCE.getBetCount(), "Bets with open customer bets");
+
+        bet.setGameResult('1');
+        organization.calculateGainsPerCustomer();
+        assertEquals(0, LiabilityIndex.INSTANCE.getBetCount(), "Bets with open customer bets once settled");
+        assertEquals(0.0, LiabilityIndex.INSTANCE.getWorstCaseLiability(bet), "Liability once settled");
+    }
+
+    @Test
+    void voidedBetsAreRemovedAndCanBeBetAgain() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+
+        organization.placeBet(customer, bet, 10, '1');
+        organization.voidBet(bet);
+        assertEquals(0, LiabilityIndex.INSTANCE.getBetCount(), "Bets with open customer bets once voided");
+
+        organization.placeBet(customer, bet, 5, '2');
+        assertEquals(10.0, LiabilityIndex.INSTANCE.getLiability(bet, '2'), "Liability of a new customer bet");
+        assertEquals(1, LiabilityIndex.INSTANCE.getBetCount(), "Bets with open customer bets");
+    }
+
+    @Test
+    void concurrentPlacementsAndReleasesLoseNoLiability() throws InterruptedException {
+        newOrganization();
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Customer customer = new Customer("Customer " + t);
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < WAGERS_PER_THREAD; i++) {
+                    CustomerBet customerBet = new CustomerBet(bet, 1, '1');
+                    customer.addCustomerBet(customerBet);
+                    if (i < WAGERS_PER_THREAD - 1) {
+                        customerBet.settle(SettlementState.VOID, 0);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(Money.payout(1, bet.getOddsUnits()) * THREADS,
+                LiabilityIndex.INSTANCE.getLiabilityMinorUnits(bet, '1'),
+                "Liability of the last customer bet of each thread, left open");
+        newOrganization();
+    }
+
+    /**
+     * Returns the organization, cleared of the customers, bets and liabilities of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+}
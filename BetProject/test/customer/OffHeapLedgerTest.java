@@ -0,0 +1,170 @@
+package customer;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.BetCatalog;
+import bet.FootballBet;
+import main.BetOrganization;
+import support.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link OffHeapLedger}: placing, settling and voiding the same wagers in the ledger and in the heap
+ * model of the {@link BetOrganization} gives the same states, payouts and totals, and the ledger does not depend
+ * on the {@link BetCatalog} ids.
+ */
+public final class OffHeapLedgerTest {
+
+    /**
+     * The number of customers of the book.
+     */
+    private static final int CUSTOMERS = 60;
+
+    /**
+     * The number of bets of the book.
+     */
+    private static final int BETS = 12;
+
+    /**
+     * The number of wagers placed in each round.
+     */
+    private static final int WAGERS = 600;
+
+    @Test
+    void ledgerMatchesTheHeapModel() {
+        BetOrganization organization = newOrganization();
+        OffHeapLedger ledger = new OffHeapLedger();
+        Random random = new Random(42);
+        List<Bet> bets = new ArrayList<>();
+        for (int i = 0; i < BETS; i++) {
+            Bet bet = i % 3 == 0
+                    ? new BasketballBet("Game " + i, 1.25 + i * 0.35)
+                    : new FootballBet("Game " + i, 1.1 + i * 0.4);
+            organization.addBet(bet);
+            bets.add(bet);
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = switch (i % 3) {
+                case 0 -> new Customer("Customer " + i);
+                case 1 -> new GoldCustomer("Customer " + i);
+                default -> new PlatinumCustomer("Customer " + i);
+            };
+            organization.addCustomer(customer);
+            customers.add(customer);
+            assertEquals(i, ledger.addCustomer(customer.getFullName(), customer.getCustomerType()),
+                    "Ledger customer id");
+        }
+
+        placeWagers(organization, ledger, customers, bets.subList(0, BETS / 2 + 2), random);
+        assertEquals(0L, ledger.settle(), "Wagers settled before any result");
+        for (int i = 0; i < BETS / 2; i++) {
+            Bet bet = bets.get(i);
+            bet.setGameResult(bet.getSport().getChoice(random.nextInt(bet.getSport().getChoiceCount())));
+        }
+        long voided = ledger.voidBet(bets.get(BETS / 2));
+        organization.voidBet(bets.get(BETS / 2));
+        assertTrue(voided > 0, "Voided wagers");
+        assertTrue(ledger.settle() > 0, "Wagers settled once the results are set");
+        organization.calculateGainsPerCustomer();
+        assertEquals(0L, ledger.settle(), "Wagers settled again");
+        assertSameBook(customers, ledger);
+
+        placeWagers(organization, ledger, customers, bets.subList(BETS / 2 + 1, BETS), random);
+        for (int i = BETS / 2 + 1; i < BETS; i += 2) {
+            bets.get(i).setGameResult(bets.get(i).getSport().getChoice(0));
+        }
+        ledger.settle();
+        organization.calculateGainsPerCustomer();
+        assertSameBook(customers, ledger);
+    }
+
+    @Test
+    void ledgerDoesNotDependOnCatalogIds() {
+        OffHeapLedger ledger = new OffHeapLedger();
+        int customer = ledger.addCustomer("Customer", CustomerType.BASIC);
+        Bet first = new FootballBet("Team A vs Team B", 2.0);
+        Bet second = new FootballBet("Team C vs Team D", 3.0);
+        first.getId();
+        ledger.addWager(customer, first, 10, '1');
+
+        BetCatalog.INSTANCE.clear();
+        second.getId();
+        ledger.addWager(customer, second, 20, '2');
+        first.setGameResult('1');
+        second.setGameResult('1');
+
+        assertEquals(2L, ledger.settle(), "Settled wagers");
+        List<LedgerWager> wagers = ledger.getCustomer(customer).getWagers();
+        assertTrue(wagers.get(0).getBet() == first && wagers.get(1).getBet() == second, "Bets of the wagers");
+        assertEquals(SettlementState.WON, wagers.get(0).getSettlementState(), "State of the winning wager");
+        assertEquals(SettlementState.LOST, wagers.get(1).getSettlementState(), "State of the losing wager");
+    }
+
+    /**
+     * Places the same random wagers in the heap model and in the ledger.
+     *
+     * @param organization The {@link BetOrganization} of the heap model.
+     * @param ledger       The {@link OffHeapLedger}.
+     * @param customers    The customers, whose index is their ledger id.
+     * @param bets         The bets wagered on.
+     * @param random       The {@link Random} drawing the wagers.
+     */
+    private static void placeWagers(BetOrganization organization, OffHeapLedger ledger, List<Customer> customers,
+                                    List<Bet> bets, Random random) {
+        for (int i = 0; i < WAGERS; i++) {
+            int customer = random.nextInt(customers.size());
+            Bet bet = bets.get(random.nextInt(bets.size()));
+            char choice = bet.getSport().getChoice(random.nextInt(bet.getSport().getChoiceCount()));
+            int stake = random.nextInt(1, 10);
+            organization.placeBet(customers.get(customer), bet, stake, choice);
+            ledger.addWager(customer, bet, stake, choice);
+        }
+    }
+
+    /**
+     * Asserts that the ledger holds the same totals, wagers, states and payouts as the heap model.
+     *
+     * @param customers The customers of the heap model, whose index is their ledger id.
+     * @param ledger    The {@link OffHeapLedger}.
+     */
+    private static void assertSameBook(List<Customer> customers, OffHeapLedger ledger) {
+        for (int id = 0; id < customers.size(); id++) {
+            Customer customer = customers.get(id);
+            LedgerCustomer ledgerCustomer = ledger.getCustomer(id);
+            assertEquals(customer.getTotalSpentMinorUnits(), ledgerCustomer.getTotalSpentMinorUnits(),
+                    "Spent amount of " + id);
+            assertEquals(customer.getTotalGainsMinorUnits(), ledgerCustomer.getTotalGainsMinorUnits(),
+                    "Gains of " + id);
+            List<CustomerBet> customerBets = customer.getCustomerBetList();
+            List<LedgerWager> wagers = ledgerCustomer.getWagers();
+            assertEquals(customerBets.size(), wagers.size(), "Wagers of " + id);
+            for (int i = 0; i < wagers.size(); i++) {
+                CustomerBet customerBet = customerBets.get(i);
+                LedgerWager wager = wagers.get(i);
+                assertTrue(customerBet.getBet() == wager.getBet(), "Bet of wager " + i + " of " + id);
+                assertEquals(customerBet.getSettlementState(), wager.getSettlementState(),
+                        "State of wager " + i + " of " + id);
+                assertEquals(customerBet.getPayoutMinorUnits(), wager.getPayoutMinorUnits(),
+                        "Payout of wager " + i + " of " + id);
+            }
+        }
+    }
+
+    /**
+     * Returns the organization, cleared of the customers and bets of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+}
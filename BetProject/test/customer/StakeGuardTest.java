@@ -0,0 +1,158 @@
+package customer;
+
+import bet.Bet;
+import bet.FootballBet;
+import main.BetOrganization;
+import support.Test;
+import util.Money;
+
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+
+/**
+ * Tests of the {@link StakeGuard}: the cumulative stake cap, the release of voided wagers, the repeated wagers and
+ * bets, the resets of the filter and the tallies, and the sizing of the Bloom filter.
+ */
+public final class StakeGuardTest {
+
+    @Test
+    void cumulativeStakeIsCappedPerBet() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        Bet otherBet = new FootballBet("Team C vs Team D", 2.0);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+        organization.addBet(otherBet);
+
+        organization.placeBet(customer, bet, customer.getMaxStake() - 1, '1');
+        assertThrows(IllegalArgumentException.class, () -> organization.placeBet(customer, bet, 2, 'X'));
+        organization.placeBet(customer, bet, 1, '2');
+        organization.placeBet(customer, otherBet, customer.getMaxStake(), '1');
+
+        assertEquals(3, customer.getCustomerBetList().size(), "Number of accepted wagers");
+        assertEquals(Money.toMinorUnits(2L * customer.getMaxStake()), customer.getTotalSpentMinorUnits(),
+                "Total spent of the accepted wagers");
+    }
+
+    @Test
+    void voidedWagersReleaseTheirStake() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+
+        organization.placeBet(customer, bet, customer.getMaxStake(), '1');
+        assertThrows(IllegalArgumentException.class, () -> organization.placeBet(customer, bet, 1, '1'));
+        organization.voidBet(bet);
+        organization.placeBet(customer, bet, customer.getMaxStake(), '1');
+
+        assertEquals(0, StakeGuard.INSTANCE.getRepeatedWagers(customer),
+                "A wager repeating a voided one is not repeated");
+    }
+
+    @Test
+    void voidedWagersAreLeftOutOfNewTallies() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+
+        organization.placeBet(customer, bet, customer.getMaxStake(), '1');
+        organization.voidBet(bet);
+        organization.placeBet(customer, bet, customer.getMaxStake(), '1');
+
+        assertThrows(IllegalArgumentException.class, () -> organization.placeBet(customer, bet, 1, '2'));
+    }
+
+    @Test
+    void repeatedWagersAreFlagged() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+
+        organization.placeBet(customer, bet, 1, '1');
+        organization.placeBet(customer, bet, 1, 'X');
+        organization.placeBet(customer, bet, 1, '1');
+        organization.placeBet(customer, bet, 1, '1');
+
+        assertEquals(2, StakeGuard.INSTANCE.getRepeatedWagers(customer), "Repeated wagers of the customer");
+        assertEquals(2L, StakeGuard.INSTANCE.getRepeatedWagers(), "Repeated wagers of every customer");
+    }
+
+    @Test
+    void repeatedBetsAreListedUntilVoided() {
+        BetOrganization organization = newOrganization();
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        Bet otherBet = new FootballBet("Team C vs Team D", 2.0);
+        organization.addCustomer(customer);
+        organization.addBet(bet);
+        organization.addBet(otherBet);
+
+        organization.placeBet(customer, bet, 1, '1');
+        organization.placeBet(customer, bet, 1, '1');
+        organization.placeBet(customer, otherBet, 1, '1');
+        organization.placeBet(customer, otherBet, 1, 'X');
+        assertEquals(List.of(bet), StakeGuard.INSTANCE.getRepeatedBets(customer), "Repeated bets of the customer");
+
+        organization.voidBet(bet);
+        assertEquals(List.of(), StakeGuard.INSTANCE.getRepeatedBets(customer), "Repeated bets once voided");
+    }
+
+    @Test
+    void resetsKeepTheCapExact() {
+        BetOrganization organization = newOrganization();
+        Customer single = new Customer("Single");
+        Customer repeated = new Customer("Repeated");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        organization.addCustomer(single);
+        organization.addCustomer(repeated);
+        organization.addBet(bet);
+        organization.placeBet(single, bet, single.getMaxStake(), '1');
+        organization.placeBet(repeated, bet, 1, '1');
+        organization.placeBet(repeated, bet, repeated.getMaxStake() - 1, '1');
+
+        StakeGuard.INSTANCE.clear();
+        assertEquals(0, StakeGuard.INSTANCE.getRepeatedWagers(repeated), "Repeated wagers after the reset");
+        assertThrows(IllegalArgumentException.class, () -> organization.placeBet(single, bet, 1, '2'));
+        assertThrows(IllegalArgumentException.class, () -> organization.placeBet(repeated, bet, 1, '2'));
+    }
+
+    @Test
+    void filterIsSizedForTheExpectedPairs() {
+        newOrganization();
+        StakeGuard.INSTANCE.clear(1_000_000);
+        assertEquals(1 << 23, StakeGuard.INSTANCE.getFilterBits(), "Bits for a million pairs");
+
+        StakeGuard.INSTANCE.clear(0);
+        assertEquals(1 << 16, StakeGuard.INSTANCE.getFilterBits(), "Bits of the smallest filter");
+
+        Customer customer = new Customer("Customer");
+        for (int i = 0; i < 20_000; i++) {
+            customer.addCustomerBet(new CustomerBet(new FootballBet("Game " + i, 2.0), 1, '1'));
+        }
+        StakeGuard.INSTANCE.clear();
+        assertEquals(1 << 18, StakeGuard.INSTANCE.getFilterBits(), "Bits for the pairs recorded since the reset");
+
+        StakeGuard.INSTANCE.clear(1 << 22);
+        BetOrganization.INSTANCE.clear();
+    }
+
+    /**
+     * Returns the organization, cleared of the customers, bets and stake tallies of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+}
@@ -0,0 +1,70 @@
+package customer;
+
+import bet.Bet;
+import bet.FootballBet;
+import support.Test;
+import util.Money;
+
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+
+/**
+ * Tests of the {@link WagerStore}: wagers are settled once their game result is known, at most once, and
+ * unavailable choices are rejected.
+ */
+public final class WagerStoreTest {
+
+    @Test
+    void settlingAgainCreditsNothing() {
+        WagerStore store = new WagerStore();
+        Bet bet = new FootballBet("Team A vs Team B", 1.75);
+        Customer winner = new Customer("Winner");
+        Customer loser = new Customer("Loser");
+        store.addWager(winner, bet, 10, '1');
+        store.addWager(loser, bet, 10, '2');
+
+        bet.setGameResult('1');
+        store.settle();
+        store.settle();
+
+        long payout = Money.payout(10, bet.getOddsUnits());
+        assertEquals(payout, winner.getTotalGainsMinorUnits(), "Gains of the winner, credited once");
+        assertEquals(0L, loser.getTotalGainsMinorUnits(), "Gains of the loser");
+        assertEquals(SettlementState.WON, store.getCustomerWagers(winner).get(0).getSettlementState(), "Winning wager");
+        assertEquals(SettlementState.LOST, store.getCustomerWagers(loser).get(0).getSettlementState(), "Losing wager");
+    }
+
+    @Test
+    void onlyResolvedWagersAreSettled() {
+        WagerStore store = new WagerStore();
+        Bet resolved = new FootballBet("Team A vs Team B", 2.0);
+        Bet pending = new FootballBet("Team C vs Team D", 2.0);
+        Customer customer = new Customer("Customer");
+        store.addWager(customer, resolved, 5, 'X');
+        store.addWager(customer, pending, 5, 'X');
+
+        resolved.setGameResult('X');
+        store.settle();
+        List<WagerView> wagers = store.getCustomerWagers(customer);
+        assertEquals(SettlementState.WON, wagers.get(0).getSettlementState(), "Wager on the resolved game");
+        assertEquals(SettlementState.OPEN, wagers.get(1).getSettlementState(), "Wager on the pending game");
+
+        pending.setGameResult('X');
+        store.settle();
+        assertEquals(SettlementState.WON, wagers.get(1).getSettlementState(), "Wager on the game resolved later");
+        assertEquals(2 * Money.payout(5, resolved.getOddsUnits()), customer.getTotalGainsMinorUnits(),
+                "Gains of the customer");
+    }
+
+    @Test
+    void unavailableChoicesAreRejected() {
+        WagerStore store = new WagerStore();
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+
+        assertThrows(IllegalArgumentException.class, () -> store.addWager(new Customer("Customer"), bet, 5, 'Z'));
+        assertEquals(0, store.size(), "Wagers in the store");
+    }
+
+}
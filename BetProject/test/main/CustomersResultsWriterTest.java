@@ -0,0 +1,113 @@
+package main;
+
+import customer.Customer;
+import customer.GoldCustomer;
+import support.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link CustomersResultsWriter}: the streamed, chunked report is byte-identical to the report the
+ * organization used to build in memory, in the file and on the console, and reflects the totals of the customers
+ * at the time of each report.
+ */
+public final class CustomersResultsWriterTest {
+
+    /**
+     * The number of customers of the report, spanning several chunks.
+     */
+    private static final int CUSTOMERS = 2 * CustomersResultsWriter.CHUNK_SIZE + 7;
+
+    @Test
+    void reportIsIdenticalToTheInMemoryReport() throws IOException {
+        for (List<Customer> customers : List.of(customers(0), customers(1), customers(CUSTOMERS))) {
+            assertEquals(legacyReport(customers), report(customers), "Report of " + customers.size() + " customers");
+        }
+    }
+
+    @Test
+    void reportReflectsTheCurrentTotals() throws IOException {
+        List<Customer> customers = customers(3);
+        String before = report(customers);
+        customers.get(1).increaseTotalGainsMinorUnits(1_234);
+
+        String after = report(customers);
+        assertTrue(!before.equals(after), "The report changes with the totals");
+        assertEquals(legacyReport(customers), after, "Report after a change of the totals");
+    }
+
+    /**
+     * Writes the report of the customers to a temporary file, checking that the console receives the text the
+     * organization used to print.
+     *
+     * @param customers The customers of the report.
+     * @return The text of the report file.
+     * @throws IOException If the report cannot be written or read.
+     */
+    private static String report(List<Customer> customers) throws IOException {
+        Path path = Files.createTempFile("bet-results", ".txt");
+        path.toFile().deleteOnExit();
+        PrintStream console = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try (CustomersResultsWriter writer = new CustomersResultsWriter(path, true)) {
+            writer.writeHeader();
+            writer.writeCustomers(customers);
+            writer.writeFooter();
+        } finally {
+            System.setOut(console);
+        }
+        assertEquals("\n" + legacyReport(customers) + System.lineSeparator(), printed.toString(StandardCharsets.UTF_8),
+                "Console output of " + customers.size() + " customers");
+        return Files.readString(path);
+    }
+
+    /**
+     * Builds the report as the organization used to, in memory, from the string representation of each customer.
+     *
+     * @param customers The customers of the report.
+     * @return The text of the report file.
+     */
+    private static String legacyReport(List<Customer> customers) {
+        StringBuilder output = new StringBuilder();
+        output.append("\n------------------ Results ------------------\n");
+        for (int index = 0; index < customers.size(); index++) {
+            output.append('\n')
+                    .append("Customer full name: ").append(customers.get(index).getFullName())
+                    .append(",\nCustomer total spent: ").append(customers.get(index).getTotalSpent())
+                    .append(",\nCustomer total gains: ").append(customers.get(index).getTotalGains())
+                    .append(index < customers.size() - 1 ? "\n\n##############################################\n" : '\n');
+        }
+        output.append("\n--------------- End of results ---------------");
+        output.deleteCharAt(0);
+        return output.toString();
+    }
+
+    /**
+     * Creates customers with various totals, not added to any organization.
+     *
+     * @param count The number of customers.
+     * @return The created customers.
+     */
+    private static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Customer customer = i % 2 == 0 ? new Customer("Customer " + i) : new GoldCustomer("Cliente ñ " + i);
+            customer.increaseTotalSpentMinorUnits(i * 137L);
+            customer.increaseTotalGainsMinorUnits(i % 5 == 0 ? 0 : i * 1_001L + 5);
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+}
@@ -0,0 +1,96 @@
+package main;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import support.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the odds-weighted game results of the {@link GameEmulator}: the results depend on the seed only, not on
+ * the parallelism level, and the favourite of a bet wins with the probability implied by its odds.
+ */
+public final class GameEmulatorTest {
+
+    /**
+     * The number of bets resolved by each test, spanning several chunks of {@link GameResultsTask}.
+     */
+    private static final int BETS = 3 * GameResultsTask.CHUNK_SIZE + 17;
+
+    /**
+     * The seed of the generated results.
+     */
+    private static final long SEED = 7L;
+
+    @Test
+    void resultsDoNotDependOnTheParallelism() {
+        String serial = generate(1);
+
+        for (int parallelism : new int[]{2, 4, 8}) {
+            assertEquals(serial, generate(parallelism), "Results generated by " + parallelism + " threads");
+        }
+        assertTrue(!serial.equals(generate(SEED + 1, 4)), "Results generated from another seed");
+    }
+
+    @Test
+    void favouritesWinWithTheirImpliedProbability() {
+        List<Bet> bets = newBets();
+        GameEmulator.INSTANCE.generateOddsWeightedGameResults(bets, SEED, 4);
+
+        int favouriteWins = 0;
+        for (Bet bet : bets) {
+            if (bet.getGameResult() == '1') {
+                favouriteWins++;
+            }
+        }
+        double share = (double) favouriteWins / BETS;
+        assertTrue(Math.abs(share - 0.5) < 0.02, "Share of the favourites winning at odds of 2.0: " + share);
+    }
+
+    /**
+     * Generates the results of new bets from {@link #SEED}.
+     *
+     * @param parallelism The number of worker threads generating the results.
+     * @return The results of the bets, in order.
+     */
+    private static String generate(int parallelism) {
+        return generate(SEED, parallelism);
+    }
+
+    /**
+     * Generates the results of new bets.
+     *
+     * @param seed        The seed the results are generated from.
+     * @param parallelism The number of worker threads generating the results.
+     * @return The results of the bets, in order.
+     */
+    private static String generate(long seed, int parallelism) {
+        List<Bet> bets = newBets();
+        GameEmulator.INSTANCE.generateOddsWeightedGameResults(bets, seed, parallelism);
+        StringBuilder results = new StringBuilder(bets.size());
+        for (Bet bet : bets) {
+            results.append(bet.getGameResult());
+        }
+        return results.toString();
+    }
+
+    /**
+     * Creates {@link #BETS} football and basketball bets at odds of 2.0, without any result.
+     *
+     * @return The new bets.
+     */
+    private static List<Bet> newBets() {
+        List<Bet> bets = new ArrayList<>(BETS);
+        for (int i = 0; i < BETS; i++) {
+            String game = "Team " + i + " vs Team " + (i + BETS);
+            bets.add(i % 2 == 0 ? new FootballBet(game, 2.0) : new BasketballBet(game, 2.0));
+        }
+        return bets;
+    }
+
+}
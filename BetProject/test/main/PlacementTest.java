@@ -0,0 +1,190 @@
+package main;
+
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.SettlementState;
+import support.Test;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the concurrent placement of bets on the {@link BetOrganization}: concurrent placements keep the
+ * totals of the customers consistent, a placement racing with the game result is either rejected or settled, and
+ * a parallel settlement can run while bets are being placed.
+ */
+public final class PlacementTest {
+
+    /**
+     * The number of customers placing bets.
+     */
+    private static final int CUSTOMERS = 50;
+
+    /**
+     * The number of bets the customers bet on.
+     */
+    private static final int BETS = 10;
+
+    /**
+     * The number of rounds of placements racing with a game result.
+     */
+    private static final int ROUNDS = 50;
+
+    @Test
+    void concurrentPlacementsKeepTotalsConsistent() {
+        BetOrganization organization = newOrganization();
+        List<Bet> bets = new ArrayList<>();
+        for (int i = 0; i < BETS; i++) {
+            Bet bet = new FootballBet("Team " + i + " vs Team " + (i + BETS), 2.0);
+            bets.add(bet);
+            organization.addBet(bet);
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Customer " + i);
+            customers.add(customer);
+            organization.addCustomer(customer);
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Customer customer : customers) {
+                for (Bet bet : bets) {
+                    executor.submit(() -> organization.placeBet(customer, bet, 3, '1'));
+                }
+            }
+        }
+
+        for (Customer customer : customers) {
+            assertEquals(BETS, customer.getCustomerBetList().size(), "Wagers of " + customer.getFullName());
+            assertEquals(Money.toMinorUnits(3L * BETS), customer.getTotalSpentMinorUnits(),
+                    "Spent amount of " + customer.getFullName());
+        }
+    }
+
+    @Test
+    void placementsRacingWithTheResultAreRejectedOrSettled() throws InterruptedException {
+        BetOrganization organization = newOrganization();
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Customer " + i);
+            customers.add(customer);
+            organization.addCustomer(customer);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Bet bet = new FootballBet("Round " + round, 2.0);
+            organization.addBet(bet);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger accepted = new AtomicInteger();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Customer customer : customers) {
+                    executor.submit(() -> {
+                        start.await();
+                        try {
+                            organization.placeBet(customer, bet, 1, '1');
+                            accepted.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // The game result was set first.
+                        }
+                        return null;
+                    });
+                }
+                executor.submit(() -> {
+                    start.await();
+                    bet.setGameResult('1');
+                    return null;
+                });
+                start.countDown();
+            }
+            organization.calculateGainsPerCustomer();
+
+            int wagers = 0;
+            for (Customer customer : customers) {
+                for (CustomerBet customerBet : customer.getCustomerBetList()) {
+                    if (customerBet.getBet() == bet) {
+                        wagers++;
+                        assertTrue(customerBet.getSettlementState() == SettlementState.WON,
+                                "Wager of " + customer.getFullName() + " left " + customerBet.getSettlementState());
+                    }
+                }
+            }
+            assertEquals(accepted.get(), wagers, "Wagers recorded in round " + round);
+        }
+
+        long payout = Money.payout(1, Money.toOddsUnits(2.0));
+        for (Customer customer : customers) {
+            long won = customer.getCustomerBetList().size();
+            assertEquals(won * payout, customer.getTotalGainsMinorUnits(), "Gains of " + customer.getFullName());
+        }
+    }
+
+    @Test
+    void parallelSettlementRunsDuringPlacements() throws InterruptedException {
+        BetOrganization organization = newOrganization();
+        Bet settled = new FootballBet("Settled game", 2.0);
+        organization.addBet(settled);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Customer " + i);
+            customers.add(customer);
+            organization.addCustomer(customer);
+            organization.placeBet(customer, settled, 1, '1');
+        }
+        settled.setGameResult('1');
+        List<Bet> bets = new ArrayList<>();
+        for (int i = 0; i < ROUNDS * BETS; i++) {
+            Bet bet = new FootballBet("Game " + i, 2.0);
+            bets.add(bet);
+            organization.addBet(bet);
+        }
+
+        AtomicBoolean placing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread settler = Thread.ofPlatform().start(() -> {
+            try {
+                while (placing.get()) {
+                    organization.calculateGainsPerCustomer(2);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Customer customer : customers) {
+                executor.submit(() -> bets.forEach(bet -> organization.placeBet(customer, bet, 1, '1')));
+            }
+        }
+        placing.set(false);
+        settler.join();
+
+        assertTrue(failure.get() == null, "Settlement failed during the placements: " + failure.get());
+        long payout = Money.payout(1, settled.getOddsUnits());
+        for (Customer customer : customers) {
+            assertEquals(bets.size() + 1, customer.getCustomerBetList().size(), "Wagers of " + customer.getFullName());
+            assertEquals(payout, customer.getTotalGainsMinorUnits(), "Gains of " + customer.getFullName());
+        }
+    }
+
+    /**
+     * Returns the organization, cleared of the customers and bets of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+}
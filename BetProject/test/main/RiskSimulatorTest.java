@@ -0,0 +1,69 @@
+package main;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerBet;
+import support.Test;
+
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link RiskSimulator}: the snapshot it takes of the book, and the trials it runs on it.
+ */
+public final class RiskSimulatorTest {
+
+    @Test
+    void wagersWithAnUnavailableChoiceAreIgnored() {
+        BetOrganization.INSTANCE.clear();
+        Bet football = new FootballBet("Team A vs Team B", 2.0);
+        Bet basketball = new BasketballBet("Team C vs Team D", 2.0);
+        Customer customer = new Customer("Customer");
+        customer.addCustomerBet(new CustomerBet(football, 10, '1'));
+        customer.addCustomerBet(new CustomerBet(basketball, 10, 'X'));
+
+        RiskSimulator simulator = new RiskSimulator(List.of(customer));
+        RiskReport report = simulator.simulate(1_000, 7, 1);
+
+        assertEquals(1, simulator.getBetCount(), "Number of bets with a valid open wager");
+        assertTrue(Math.abs(report.getMean()) <= 10.0, "Mean profit and loss " + report.getMean()
+                + " within the single valid wager");
+    }
+
+    @Test
+    void resultsAreCapturedWhenTheSnapshotIsTaken() {
+        BetOrganization.INSTANCE.clear();
+        RiskSimulator resolvedLater = simulatorOfSingleWager(true);
+        RiskSimulator neverResolved = simulatorOfSingleWager(false);
+
+        RiskReport expected = neverResolved.simulate(1_000, 7, 2);
+        RiskReport actual = resolvedLater.simulate(1_000, 7, 2);
+
+        assertEquals(expected.getMean(), actual.getMean(), "Mean profit and loss");
+        assertTrue(actual.getPercentile(0.0) < actual.getPercentile(100.0),
+                "The result set after the snapshot is not used by the trials");
+    }
+
+    /**
+     * Creates a simulator over a single open wager, optionally setting the result of its bet once the snapshot
+     * has been taken.
+     *
+     * @param resolveLater {@code true} if the result of the bet is set after the snapshot.
+     * @return The {@link RiskSimulator}.
+     */
+    private static RiskSimulator simulatorOfSingleWager(boolean resolveLater) {
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        Customer customer = new Customer("Customer");
+        customer.addCustomerBet(new CustomerBet(bet, 10, '1'));
+        RiskSimulator simulator = new RiskSimulator(List.of(customer));
+        if (resolveLater) {
+            bet.setGameResult('2');
+        }
+        return simulator;
+    }
+
+}
@@ -0,0 +1,222 @@
+package main;
+
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerBetIndex;
+import customer.SettlementState;
+import support.Test;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the settlement of the {@link BetOrganization}: every customer bet is settled at most once, whichever
+ * settlement paths reach it, only the bets resolved since the previous settlement are settled, and settling a bet
+ * settles only the wagers placed on it; the parallel settlement credits exactly what the sequential one does.
+ */
+public final class SettlementTest {
+
+    /**
+     * The number of customers betting on the same bet.
+     */
+    private static final int CUSTOMERS = 1_000;
+
+    @Test
+    void aCustomerBetIsSettledOnlyOnce() {
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        CustomerBet customerBet = new CustomerBet(bet, 10, '1');
+        new Customer("Customer").addCustomerBet(customerBet);
+
+        assertTrue(customerBet.settle(SettlementState.WON, 2_000), "The first settlement settles the bet");
+        assertTrue(!customerBet.settle(SettlementState.LOST, 0), "The second settlement is ignored");
+        assertEquals(SettlementState.WON, customerBet.getSettlementState(), "State of the settled bet");
+        assertEquals(2_000L, customerBet.getPayoutMinorUnits(), "Payout of the settled bet");
+    }
+
+    @Test
+    void settlingAgainCreditsNothing() {
+        BetOrganization organization = newOrganization();
+        Bet bet = new FootballBet("Team A vs Team B", 2.5);
+        organization.addBet(bet);
+        Customer customer = new Customer("Customer");
+        organization.addCustomer(customer);
+        organization.placeBet(customer, bet, 10, '1');
+
+        bet.setGameResult('1');
+        organization.calculateGainsPerCustomer();
+        organization.calculateGainsPerCustomer();
+        organization.settleBet(bet);
+        organization.calculateGainsPerCustomer(4);
+
+        assertEquals(Money.payout(10, bet.getOddsUnits()), customer.getTotalGainsMinorUnits(),
+                "Gains of the customer, credited once");
+    }
+
+    @Test
+    void onlyNewlyResolvedBetsAreSettled() {
+        BetOrganization organization = newOrganization();
+        Bet first = new FootballBet("Team A vs Team B", 2.0);
+        Bet second = new FootballBet("Team C vs Team D", 2.0);
+        organization.addBet(first);
+        organization.addBet(second);
+        Customer customer = new Customer("Customer");
+        organization.addCustomer(customer);
+        CustomerBet onFirst = organization.placeBet(customer, first, 10, '1');
+        CustomerBet onSecond = organization.placeBet(customer, second, 10, '1');
+
+        first.setGameResult('2');
+        organization.calculateGainsPerCustomer();
+        assertEquals(SettlementState.LOST, onFirst.getSettlementState(), "Bet on the resolved game");
+        assertEquals(SettlementState.OPEN, onSecond.getSettlementState(), "Bet on the unresolved game");
+
+        second.setGameResult('1');
+        organization.calculateGainsPerCustomer();
+        assertEquals(SettlementState.WON, onSecond.getSettlementState(), "Bet on the game resolved later");
+    }
+
+    @Test
+    void settlingABetSettlesOnlyItsWagers() {
+        BetOrganization organization = newOrganization();
+        Bet settled = new FootballBet("Team A vs Team B", 2.0);
+        Bet open = new FootballBet("Team C vs Team D", 2.0);
+        organization.addBet(settled);
+        organization.addBet(open);
+        List<CustomerBet> onSettled = new ArrayList<>();
+        List<CustomerBet> onOpen = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Customer customer = new Customer("Customer " + i);
+            organization.addCustomer(customer);
+            onSettled.add(organization.placeBet(customer, settled, 10, i % 2 == 0 ? '1' : 'X'));
+            onOpen.add(organization.placeBet(customer, open, 10, '1'));
+        }
+        assertEquals(5, CustomerBetIndex.INSTANCE.getCustomerBets(settled, '1').size(), "Indexed wagers on '1'");
+        assertEquals(5, CustomerBetIndex.INSTANCE.getCustomerBets(settled, 'X').size(), "Indexed wagers on 'X'");
+
+        settled.setGameResult('X');
+        organization.settleBet(settled);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 2 == 0 ? SettlementState.LOST : SettlementState.WON,
+                    onSettled.get(i).getSettlementState(), "Wager " + i + " on the settled game");
+            assertEquals(SettlementState.OPEN, onOpen.get(i).getSettlementState(), "Wager " + i + " on the open game");
+        }
+    }
+
+    @Test
+    void concurrentSettlementsCreditEachWinOnce() throws InterruptedException {
+        BetOrganization organization = newOrganization();
+        Bet bet = new FootballBet("Team A vs Team B", 1.9);
+        organization.addBet(bet);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Customer " + i);
+            customers.add(customer);
+            organization.addCustomer(customer);
+            organization.placeBet(customer, bet, 10, i % 2 == 0 ? '1' : '2');
+        }
+        bet.setGameResult('1');
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> settlers = List.of(
+                Thread.ofPlatform().start(() -> awaitThen(start, organization::calculateGainsPerCustomer)),
+                Thread.ofPlatform().start(() -> awaitThen(start, () -> organization.settleBet(bet))),
+                Thread.ofPlatform().start(() -> awaitThen(start, () -> organization.calculateGainsPerCustomer(2))));
+        start.countDown();
+        for (Thread settler : settlers) {
+            settler.join();
+        }
+
+        long payout = Money.payout(10, bet.getOddsUnits());
+        for (int i = 0; i < CUSTOMERS; i++) {
+            assertEquals(i % 2 == 0 ? payout : 0L, customers.get(i).getTotalGainsMinorUnits(),
+                    "Gains of customer " + i);
+        }
+    }
+
+    @Test
+    void parallelSettlementMatchesTheSequentialOne() {
+        long[] sequential = settleBook(1);
+
+        for (int parallelism : new int[]{2, 8}) {
+            long[] parallel = settleBook(parallelism);
+            for (int i = 0; i < sequential.length; i++) {
+                assertEquals(sequential[i], parallel[i],
+                        "Gains of customer " + i + " settled by " + parallelism + " threads");
+            }
+        }
+    }
+
+    /**
+     * Places the same book of random wagers on a cleared organization, resolves every bet and settles them.
+     *
+     * @param parallelism The parallelism of the settlement; {@code 1} for the sequential settlement.
+     * @return The total gains of each customer, in minor units.
+     */
+    private static long[] settleBook(int parallelism) {
+        BetOrganization organization = newOrganization();
+        SplittableRandom random = new SplittableRandom(11L);
+        List<Bet> bets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Bet bet = new FootballBet("Team " + i + " vs Team " + (i + 20), 1.5 + random.nextInt(20) / 10.0);
+            bets.add(bet);
+            organization.addBet(bet);
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Customer " + i);
+            customers.add(customer);
+            organization.addCustomer(customer);
+            for (int j = 0; j < 5; j++) {
+                Bet bet = bets.get(random.nextInt(bets.size()));
+                char choice = bet.getSport().getChoice(random.nextInt(3));
+                organization.placeBet(customer, bet, random.nextInt(1, 11), choice);
+            }
+        }
+        bets.forEach(bet -> bet.setGameResult(bet.getSport().getChoice(random.nextInt(3))));
+
+        if (parallelism == 1) {
+            organization.calculateGainsPerCustomer();
+        } else {
+            organization.calculateGainsPerCustomer(parallelism);
+        }
+        long[] gains = new long[customers.size()];
+        for (int i = 0; i < gains.length; i++) {
+            gains[i] = customers.get(i).getTotalGainsMinorUnits();
+        }
+        return gains;
+    }
+
+    /**
+     * Waits for a latch, then runs an action.
+     *
+     * @param latch  The {@link CountDownLatch} to wait for.
+     * @param action The action to be run.
+     */
+    private static void awaitThen(CountDownLatch latch, Runnable action) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        action.run();
+    }
+
+    /**
+     * Returns the organization, cleared of the customers and bets of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+}
@@ -0,0 +1,223 @@
+package main;
+
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerBet;
+import customer.CustomerBetIndex;
+import customer.LiabilityIndex;
+import customer.SettlementState;
+import support.Test;
+import util.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link ShardedBetOrganization}: wagers placed on its shards are kept out of the global
+ * {@link CustomerBetIndex} and of the {@link BetOrganization}, and are settled once by the shards; failed shard
+ * commands are reported to their caller, and clearing the organization leaves the bet organization untouched.
+ */
+public final class ShardedBetOrganizationTest {
+
+    /**
+     * The number of shards of the organization.
+     */
+    private static final int SHARDS = 4;
+
+    /**
+     * The number of customers of the organization.
+     */
+    private static final int CUSTOMERS = 100;
+
+    /**
+     * The number of bets of the organization.
+     */
+    private static final int BETS = 20;
+
+    @Test
+    void shardedWagersStayOutOfTheGlobalIndex() {
+        BetOrganization.INSTANCE.clear();
+        try (ShardedBetOrganization organization = new ShardedBetOrganization(SHARDS)) {
+            List<Bet> bets = addBets(organization);
+            List<Customer> customers = addCustomers(organization);
+            placeEveryPair(organization, customers, bets);
+
+            for (Bet bet : bets) {
+                assertEquals(0, CustomerBetIndex.INSTANCE.getCustomerBets(bet, '1').size(),
+                        "Sharded wagers in the global index for " + bet.getGame());
+            }
+            assertTrue(BetOrganization.INSTANCE.getBets().isEmpty(), "Sharded bets in the bet organization");
+            assertTrue(BetOrganization.INSTANCE.getCustomers().isEmpty(), "Sharded customers in the bet organization");
+        }
+    }
+
+    @Test
+    void shardedWagersAreSettledOnlyByTheShards() {
+        BetOrganization.INSTANCE.clear();
+        try (ShardedBetOrganization organization = new ShardedBetOrganization(SHARDS)) {
+            List<Bet> bets = addBets(organization);
+            List<Customer> customers = addCustomers(organization);
+            placeEveryPair(organization, customers, bets);
+            bets.forEach(bet -> bet.setGameResult('1'));
+
+            BetOrganization.INSTANCE.calculateGainsPerCustomer();
+            assertEquals((long) CUSTOMERS * BETS, countInState(customers, SettlementState.OPEN),
+                    "Open wagers after the settlement of the bet organization");
+
+            organization.calculateGainsPerCustomer();
+            organization.calculateGainsPerCustomer();
+            assertEquals((long) CUSTOMERS * BETS, countInState(customers, SettlementState.WON),
+                    "Won wagers after the settlement of the shards");
+            long payout = Money.payout(1, bets.get(0).getOddsUnits());
+            for (Customer customer : customers) {
+                assertEquals(BETS * payout, customer.getTotalGainsMinorUnits(), "Gains of " + customer.getFullName());
+            }
+        }
+    }
+
+    @Test
+    void asynchronousPlacementsAreAllRecorded() {
+        BetOrganization.INSTANCE.clear();
+        try (ShardedBetOrganization organization = new ShardedBetOrganization(SHARDS)) {
+            List<Bet> bets = addBets(organization);
+            List<Customer> customers = addCustomers(organization);
+            List<CompletableFuture<CustomerBet>> placements = new ArrayList<>();
+            for (Customer customer : customers) {
+                for (Bet bet : bets) {
+                    placements.add(organization.placeBetAsync(customer, bet, 2, '1'));
+                }
+            }
+            CompletableFuture.allOf(placements.toArray(CompletableFuture[]::new)).join();
+
+            for (Customer customer : customers) {
+                assertEquals(BETS, customer.getCustomerBetList().size(), "Wagers of " + customer.getFullName());
+                assertEquals(Money.toMinorUnits(2L * BETS), customer.getTotalSpentMinorUnits(),
+                        "Spent amount of " + customer.getFullName());
+            }
+        }
+    }
+
+    @Test
+    void failedShardCommandsAreReportedAndTheShardGoesOn() {
+        OrganizationShard shard = new OrganizationShard("failing-shard");
+        try {
+            CompletableFuture<Object> failed = shard.submit(() -> {
+                throw new AssertionError("Failed command");
+            });
+            CompletionException exception = assertThrows(CompletionException.class, failed::join);
+            assertTrue(exception.getCause() instanceof AssertionError, "Error of the failed command");
+
+            assertEquals(42, shard.submit(() -> 42).join(), "Result of the next command");
+        } finally {
+            shard.close();
+        }
+    }
+
+    @Test
+    void settlementHonoursTheParallelism() {
+        BetOrganization.INSTANCE.clear();
+        try (ShardedBetOrganization organization = new ShardedBetOrganization(SHARDS)) {
+            List<Bet> bets = addBets(organization);
+            List<Customer> customers = addCustomers(organization);
+            placeEveryPair(organization, customers, bets);
+            bets.forEach(bet -> bet.setGameResult('1'));
+
+            assertThrows(IllegalArgumentException.class, () -> organization.calculateGainsPerCustomer(0));
+            organization.calculateGainsPerCustomer(SHARDS - 1);
+            assertEquals((long) CUSTOMERS * BETS, countInState(customers, SettlementState.WON),
+                    "Won wagers after a settlement with fewer threads than shards");
+        }
+    }
+
+    @Test
+    void clearingLeavesTheBetOrganizationUntouched() {
+        Customer customer = new Customer("Customer");
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        BetOrganization.INSTANCE.clear();
+        BetOrganization.INSTANCE.addBet(bet);
+        BetOrganization.INSTANCE.addCustomer(customer);
+        BetOrganization.INSTANCE.placeBet(customer, bet, 3, '1');
+        long liability = LiabilityIndex.INSTANCE.getLiabilityMinorUnits(bet, '1');
+
+        try (ShardedBetOrganization organization = new ShardedBetOrganization(SHARDS)) {
+            placeEveryPair(organization, addCustomers(organization), addBets(organization));
+            organization.clear();
+        }
+
+        assertEquals(1, CustomerBetIndex.INSTANCE.getCustomerBets(bet, '1').size(),
+                "Wagers of the bet organization in the global index");
+        assertEquals(liability, LiabilityIndex.INSTANCE.getLiabilityMinorUnits(bet, '1'),
+                "Liability of the bet organization's wagers");
+        assertThrows(IllegalArgumentException.class, () -> BetOrganization.INSTANCE.placeBet(customer, bet,
+                customer.getMaxStake(), '1'));
+    }
+
+    /**
+     * Adds new football bets to the organization.
+     *
+     * @param organization The {@link ShardedBetOrganization} the bets are added to.
+     * @return The added bets.
+     */
+    private static List<Bet> addBets(ShardedBetOrganization organization) {
+        List<Bet> bets = new ArrayList<>();
+        for (int i = 0; i < BETS; i++) {
+            Bet bet = new FootballBet("Team " + i + " vs Team " + (i + BETS), 2.0);
+            bets.add(bet);
+            organization.addBet(bet);
+        }
+        return bets;
+    }
+
+    /**
+     * Adds new basic customers to the organization.
+     *
+     * @param organization The {@link ShardedBetOrganization} the customers are added to.
+     * @return The added customers.
+     */
+    private static List<Customer> addCustomers(ShardedBetOrganization organization) {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Customer " + i);
+            customers.add(customer);
+            organization.addCustomer(customer);
+        }
+        return customers;
+    }
+
+    /**
+     * Places a wager of one on the first choice for every customer on every bet.
+     *
+     * @param organization The {@link ShardedBetOrganization} the wagers are placed on.
+     * @param customers    The customers placing the wagers.
+     * @param bets         The bets the customers bet on.
+     */
+    private static void placeEveryPair(ShardedBetOrganization organization, List<Customer> customers, List<Bet> bets) {
+        for (Customer customer : customers) {
+            for (Bet bet : bets) {
+                organization.placeBet(customer, bet, 1, '1');
+            }
+        }
+    }
+
+    /**
+     * Counts the wagers of the customers in a settlement state.
+     *
+     * @param customers The customers whose wagers are counted.
+     * @param state     The {@link SettlementState} of the counted wagers.
+     * @return The number of wagers in the state.
+     */
+    private static long countInState(List<Customer> customers, SettlementState state) {
+        return customers.stream()
+                .flatMap(customer -> customer.getCustomerBetList().stream())
+                .filter(customerBet -> customerBet.getSettlementState() == state)
+                .count();
+    }
+
+}
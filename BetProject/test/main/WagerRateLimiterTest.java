@@ -0,0 +1,132 @@
+package main;
+
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerType;
+import customer.GoldCustomer;
+import support.Test;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link WagerRateLimiter}: a customer gets exactly their burst, even from concurrent threads, the
+ * customers of a type without a limit are not throttled, invalid placements cost no token, and the idle buckets
+ * are swept in the background.
+ */
+public final class WagerRateLimiterTest {
+
+    /**
+     * The burst of the basic customers, refilled too slowly to matter during a test.
+     */
+    private static final int BURST = 5;
+
+    @Test
+    void aBurstIsAcceptedThenRejected() {
+        try (WagerRateLimiter limiter = newLimiter()) {
+            Customer customer = new Customer("Customer");
+            for (int i = 0; i < BURST; i++) {
+                limiter.acquire(customer);
+            }
+
+            assertThrows(RateLimitExceededException.class, () -> limiter.acquire(customer));
+            assertTrue(limiter.tryAcquire(customer) > 0, "Retry delay of a throttled customer");
+            assertEquals(2L, limiter.getRejectedWagers(), "Rejected wagers");
+        }
+    }
+
+    @Test
+    void concurrentPlacementsShareTheBurst() {
+        try (WagerRateLimiter limiter = newLimiter()) {
+            Customer customer = new Customer("Customer");
+            AtomicInteger accepted = new AtomicInteger();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 16 * BURST; i++) {
+                    executor.submit(() -> {
+                        if (limiter.tryAcquire(customer) == 0) {
+                            accepted.incrementAndGet();
+                        }
+                    });
+                }
+            }
+
+            assertEquals(BURST, accepted.get(), "Wagers accepted from concurrent threads");
+            assertEquals(15L * BURST, limiter.getRejectedWagers(), "Rejected wagers");
+        }
+    }
+
+    @Test
+    void customersWithoutALimitAreNotThrottled() {
+        try (WagerRateLimiter limiter = newLimiter()) {
+            Customer customer = new GoldCustomer("Gold Customer");
+            for (int i = 0; i < 100 * BURST; i++) {
+                limiter.acquire(customer);
+            }
+
+            assertEquals(0L, limiter.getRejectedWagers(), "Rejected wagers");
+        }
+    }
+
+    @Test
+    void invalidPlacementsCostNoToken() {
+        BetOrganization.INSTANCE.clear();
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        BetOrganization.INSTANCE.addBet(bet);
+        Customer customer = new Customer("Customer");
+        BetOrganization.INSTANCE.addCustomer(customer);
+        try (WagerRateLimiter limiter = newLimiter()) {
+            BetOrganization.INSTANCE.setRateLimiter(limiter);
+            for (int i = 0; i < 2 * BURST; i++) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> BetOrganization.INSTANCE.placeBet(customer, bet, 1, 'Z'));
+            }
+            for (int i = 0; i < BURST; i++) {
+                BetOrganization.INSTANCE.placeBet(customer, bet, 1, '1');
+            }
+
+            assertThrows(RateLimitExceededException.class,
+                    () -> BetOrganization.INSTANCE.placeBet(customer, bet, 1, '1'));
+        } finally {
+            BetOrganization.INSTANCE.setRateLimiter(null);
+        }
+    }
+
+    @Test
+    void idleBucketsAreSweptInTheBackground() throws InterruptedException {
+        Map<CustomerType, RateLimit> limits = new EnumMap<>(CustomerType.class);
+        limits.put(CustomerType.BASIC, new RateLimit(BURST, 1_000.0));
+        try (WagerRateLimiter limiter = new WagerRateLimiter(limits, Duration.ofMillis(200))) {
+            for (int i = 0; i < 10; i++) {
+                limiter.acquire(new Customer("Customer " + i));
+            }
+            assertEquals(10, limiter.getBucketCount(), "Buckets of the active customers");
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (limiter.getBucketCount() > 0 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, limiter.getBucketCount(), "Buckets left after the idle timeout, without any wager");
+        }
+    }
+
+    /**
+     * Returns a new rate limiter throttling only the basic customers.
+     *
+     * @return The new {@link WagerRateLimiter}.
+     */
+    private static WagerRateLimiter newLimiter() {
+        Map<CustomerType, RateLimit> limits = new EnumMap<>(CustomerType.class);
+        limits.put(CustomerType.BASIC, new RateLimit(BURST, 0.001));
+        return new WagerRateLimiter(limits, Duration.ofMinutes(1));
+    }
+
+}
@@ -0,0 +1,72 @@
+package metrics;
+
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.CustomerBet;
+import main.BetOrganization;
+import main.ShardedBetOrganization;
+import support.Test;
+
+import static support.Assert.assertEquals;
+
+/**
+ * Tests of the wager counters of the {@link BetMetrics}: only the wagers placed through an organization are
+ * counted, and the open wagers go back to zero once they are settled, whichever organization places them.
+ */
+public final class BetMetricsTest {
+
+    @Test
+    void onlyPlacedWagersAreCounted() {
+        BetOrganization organization = newOrganization();
+        Bet bet = new FootballBet("Team A vs Team B", 2.0);
+        organization.addBet(bet);
+        Customer restored = new Customer("Restored");
+        restored.addCustomerBet(new CustomerBet(bet, 10, '1'));
+        organization.addCustomer(restored);
+        Customer placing = new Customer("Placing");
+        organization.addCustomer(placing);
+        organization.placeBet(placing, bet, 10, '1');
+        organization.placeBet(placing, bet, 5, '2');
+
+        assertEquals(2L, BetMetrics.INSTANCE.getWagersPlaced(), "Placed wagers");
+        assertEquals(2L, BetMetrics.INSTANCE.getOpenWagers(), "Open wagers after the placements");
+        assertEquals(15.0, BetMetrics.INSTANCE.getOpenExposure(), "Open exposure after the placements");
+
+        bet.setGameResult('1');
+        organization.calculateGainsPerCustomer();
+        assertEquals(2L, BetMetrics.INSTANCE.getWagersSettled(), "Settled wagers");
+        assertEquals(0L, BetMetrics.INSTANCE.getOpenWagers(), "Open wagers after the settlement");
+        assertEquals(0.0, BetMetrics.INSTANCE.getOpenExposure(), "Open exposure after the settlement");
+    }
+
+    @Test
+    void shardedPlacementsAreCounted() {
+        newOrganization();
+        try (ShardedBetOrganization organization = new ShardedBetOrganization(2)) {
+            Bet bet = new FootballBet("Team C vs Team D", 2.0);
+            organization.addBet(bet);
+            Customer customer = new Customer("Customer");
+            organization.addCustomer(customer);
+            organization.placeBet(customer, bet, 10, '1');
+            assertEquals(1L, BetMetrics.INSTANCE.getWagersPlaced(), "Placed wagers");
+            assertEquals(1L, BetMetrics.INSTANCE.getOpenWagers(), "Open wagers after the placement");
+
+            organization.voidBet(bet);
+            assertEquals(1L, BetMetrics.INSTANCE.getWagersSettled(), "Settled wagers");
+            assertEquals(0L, BetMetrics.INSTANCE.getOpenWagers(), "Open wagers after the cancellation");
+        }
+    }
+
+    /**
+     * Clears the {@link BetOrganization} and the statistics of the {@link BetMetrics}.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        BetMetrics.INSTANCE.resetStatistics();
+        return BetOrganization.INSTANCE;
+    }
+
+}
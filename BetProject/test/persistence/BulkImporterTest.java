@@ -0,0 +1,138 @@
+package persistence;
+
+import bet.Bet;
+import customer.Customer;
+import main.BetOrganization;
+import support.Test;
+import util.Money;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link BulkImporter}: the records are imported in file order across ranges and batches, malformed
+ * lines and odds that are not positive are rejected, and a failed wager import is reported as partial, with the
+ * spent amounts of the imported batches up to date.
+ */
+public final class BulkImporterTest {
+
+    /**
+     * The size of the ranges parsed by a task, small enough to split the test files into several batches.
+     */
+    private static final long RANGE_SIZE = 32;
+
+    /**
+     * The number of wager lines held by a range of {@link #RANGE_SIZE} bytes.
+     */
+    private static final int WAGERS_PER_RANGE = 4;
+
+    @Test
+    void recordsAreImportedInFileOrderAcrossBatches() throws IOException {
+        BetOrganization organization = newOrganization();
+        BulkImporter importer = new BulkImporter(organization, 2, RANGE_SIZE);
+        List<Bet> bets = importer.importFixtures(file("FOOTBALL,Team A vs Team B,1.5\n",
+                "BASKETBALL,Team C vs Team D,2.25,2\n", "\n", "FOOTBALL,Team E vs Team F,3\n"));
+        List<Customer> customers = importer.importCustomers(file("John Smith,BASIC\n", "Jane Doe,GOLD\n"));
+        StringBuilder wagers = new StringBuilder();
+        for (int i = 0; i < 5 * WAGERS_PER_RANGE; i++) {
+            wagers.append(i % 2).append(',').append(i % 3).append(',').append(1 + i % 9).append(",1\n");
+        }
+
+        assertEquals(20L, importer.importWagers(file(wagers.toString()), bets, customers), "Imported wagers");
+        assertEquals(List.of(1.5, 2.25, 3.0), bets.stream().map(Bet::getOdds).toList(), "Odds of the fixtures");
+        assertEquals('2', bets.get(1).getGameResult(), "Result of a decided fixture");
+        assertEquals(bets, organization.getBets(), "Bets of the organization");
+        assertEquals(customers, organization.getCustomers(), "Customers of the organization");
+        for (int customer = 0; customer < customers.size(); customer++) {
+            long spent = 0;
+            for (int i = customer; i < 5 * WAGERS_PER_RANGE; i += 2) {
+                assertTrue(customers.get(customer).getCustomerBetList().get(i / 2).getBet() == bets.get(i % 3),
+                        "Bet of wager " + i);
+                spent += 1 + i % 9;
+            }
+            assertEquals(Money.toMinorUnits(spent), customers.get(customer).getTotalSpentMinorUnits(),
+                    "Spent amount of customer " + customer);
+        }
+    }
+
+    @Test
+    void fixturesWithoutPositiveOddsAreRejected() throws IOException {
+        for (String odds : List.of("0", "0.0", "-1.5", "NaN", "Infinity", "1e400")) {
+            BulkImporter importer = new BulkImporter(newOrganization(), 1);
+            Path fixtures = file("FOOTBALL,Team A vs Team B," + odds + "\n");
+            assertThrows(IOException.class, () -> importer.importFixtures(fixtures));
+        }
+    }
+
+    @Test
+    void malformedLinesAreRejected() throws IOException {
+        BetOrganization organization = newOrganization();
+        BulkImporter importer = new BulkImporter(organization, 1);
+        List<Bet> bets = importer.importFixtures(file("BASKETBALL,Team A vs Team B,1.5\n"));
+        List<Customer> customers = importer.importCustomers(file("John Smith,BASIC\n"));
+
+        assertThrows(IOException.class, () -> importer.importFixtures(file("TENNIS,Team A vs Team B,1.5\n")));
+        assertThrows(IOException.class, () -> importer.importFixtures(file("FOOTBALL,Team A vs Team B,1.5,3\n")));
+        assertThrows(IOException.class, () -> importer.importCustomers(file("John Smith,SILVER\n")));
+        assertThrows(IOException.class, () -> importer.importCustomers(file("John Smith\n")));
+        for (String wager : List.of("1,0,1,1", "0,1,1,1", "0,0,0,1", "0,0,1000000,1", "0,0,1,X", "0,0,1",
+                "0,0,1,1,1", "a,0,1,1")) {
+            assertThrows(IOException.class, () -> importer.importWagers(file(wager + "\n"), bets, customers));
+        }
+        assertEquals(0, customers.get(0).getCustomerBetList().size(), "Wagers imported from malformed lines");
+        assertEquals(0L, customers.get(0).getTotalSpentMinorUnits(), "Spent amount of malformed lines");
+    }
+
+    @Test
+    void failedImportsAreReportedAsPartial() throws IOException {
+        BetOrganization organization = newOrganization();
+        BulkImporter importer = new BulkImporter(organization, 1, RANGE_SIZE);
+        List<Bet> bets = importer.importFixtures(file("FOOTBALL,Team A vs Team B,2\n"));
+        List<Customer> customers = importer.importCustomers(file("John Smith,BASIC\n"));
+        StringBuilder wagers = new StringBuilder();
+        for (int i = 0; i < 2 * WAGERS_PER_RANGE + 1; i++) {
+            wagers.append("0,0,1,1\n");
+        }
+        wagers.append("0,0,1,Y\n");
+        Path path = file(wagers.toString());
+
+        IOException exception = assertThrows(IOException.class, () -> importer.importWagers(path, bets, customers));
+        assertTrue(exception.getMessage().contains("partial"), "Message of the failure: " + exception.getMessage());
+        Customer customer = customers.get(0);
+        assertEquals(2 * WAGERS_PER_RANGE, customer.getCustomerBetList().size(),
+                "Wagers of the batches before the malformed line");
+        assertEquals(Money.toMinorUnits(2L * WAGERS_PER_RANGE), customer.getTotalSpentMinorUnits(),
+                "Spent amount of the imported wagers");
+    }
+
+    /**
+     * Returns the organization, cleared of the customers and bets of the previous tests.
+     *
+     * @return The cleared {@link BetOrganization}.
+     */
+    private static BetOrganization newOrganization() {
+        BetOrganization.INSTANCE.clear();
+        return BetOrganization.INSTANCE;
+    }
+
+    /**
+     * Writes lines to a new temporary file, deleted when the virtual machine exits.
+     *
+     * @param lines The lines of the file, with their line terminators.
+     * @return The {@link Path} of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static Path file(String... lines) throws IOException {
+        Path path = Files.createTempFile("import", ".csv");
+        path.toFile().deleteOnExit();
+        return Files.writeString(path, String.join("", lines), StandardCharsets.UTF_8);
+    }
+
+}
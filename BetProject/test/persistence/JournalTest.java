@@ -0,0 +1,209 @@
+package persistence;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import customer.Customer;
+import customer.GoldCustomer;
+import customer.SettlementState;
+import main.BetOrganization;
+import support.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link Journal}: replaying a journal on the snapshot it was opened on rebuilds the organization,
+ * rejected placements are not replayed, cancelled bets are, and a torn batch at the end of the file is dropped
+ * before appending.
+ */
+public final class JournalTest {
+
+    /**
+     * The number of customers of the organization.
+     */
+    private static final int CUSTOMERS = 200;
+
+    /**
+     * The number of bets of the organization.
+     */
+    private static final int BETS = 20;
+
+    @Test
+    void replayingTheJournalRebuildsTheOrganization() throws IOException {
+        BetOrganization organization = seededOrganization();
+        Path snapshot = temporaryFile("organization.snapshot");
+        Path journal = temporaryFile("organization.journal");
+        OrganizationSnapshot.write(organization, snapshot);
+
+        try (Journal opened = new Journal(journal, organization, Duration.ofMillis(1))) {
+            assertTrue(organization.getJournal() == opened, "Journal set on the organization");
+            List<Customer> customers = organization.getCustomers();
+            List<Bet> bets = organization.getBets();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CUSTOMERS; i++) {
+                    Customer customer = customers.get(i);
+                    Bet bet = bets.get(i % BETS);
+                    executor.submit(() -> organization.placeBet(customer, bet, 1 + customer.getFullName().length() % 5, '1'));
+                }
+            }
+            Customer latecomer = new GoldCustomer("Late Customer");
+            Bet lateBet = new BasketballBet("Team Y vs Team Z", 1.6);
+            organization.addCustomer(latecomer);
+            organization.addBet(lateBet);
+            organization.placeBet(latecomer, lateBet, 12, '2');
+            bets.subList(0, BETS / 2).forEach(bet -> bet.setGameResult('1'));
+            lateBet.setGameResult('2');
+        }
+        assertTrue(organization.getJournal() == null, "Journal still set on the organization after closing");
+        organization.calculateGainsPerCustomer();
+        List<String> journaled = OrganizationState.describe(organization);
+
+        OrganizationSnapshot.load(snapshot, organization);
+        Journal.replay(journal, organization);
+        organization.calculateGainsPerCustomer();
+
+        assertEquals(journaled, OrganizationState.describe(organization), "Organization rebuilt from the journal");
+    }
+
+    @Test
+    void rejectedPlacementsAreNotReplayed() throws IOException {
+        BetOrganization organization = seededOrganization();
+        Path snapshot = temporaryFile("organization.snapshot");
+        Path journal = temporaryFile("organization.journal");
+        OrganizationSnapshot.write(organization, snapshot);
+
+        int rejected = 0;
+        try (Journal opened = new Journal(journal, organization, Duration.ZERO)) {
+            assertTrue(organization.getJournal() == opened, "Journal set on the organization");
+            Customer customer = organization.getCustomers().get(0);
+            Bet bet = organization.getBets().get(0);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    organization.placeBet(customer, bet, customer.getMaxStake(), '1');
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                }
+            }
+        }
+        List<String> journaled = OrganizationState.describe(organization);
+
+        OrganizationSnapshot.load(snapshot, organization);
+        Journal.replay(journal, organization);
+
+        assertEquals(1, rejected, "Placements rejected by the cumulative stake cap");
+        assertEquals(journaled, OrganizationState.describe(organization), "Organization rebuilt from the journal");
+    }
+
+    @Test
+    void cancelledBetsAreReplayed() throws IOException {
+        BetOrganization organization = seededOrganization();
+        Path snapshot = temporaryFile("organization.snapshot");
+        Path journal = temporaryFile("organization.journal");
+        OrganizationSnapshot.write(organization, snapshot);
+
+        try (Journal opened = new Journal(journal, organization, Duration.ZERO)) {
+            assertTrue(organization.getJournal() == opened, "Journal set on the organization");
+            List<Customer> customers = organization.getCustomers();
+            Bet cancelled = organization.getBets().get(0);
+            Bet decided = organization.getBets().get(1);
+            for (int i = 0; i < CUSTOMERS; i++) {
+                organization.placeBet(customers.get(i), cancelled, 2, '1');
+                organization.placeBet(customers.get(i), decided, 3, i % 2 == 0 ? '1' : '2');
+            }
+            organization.voidBet(cancelled);
+            organization.placeBet(customers.get(0), cancelled, 4, 'X');
+            decided.setGameResult('1');
+            organization.voidBet(decided);
+        }
+        organization.calculateGainsPerCustomer();
+        List<String> journaled = OrganizationState.describe(organization);
+
+        OrganizationSnapshot.load(snapshot, organization);
+        Journal.replay(journal, organization);
+        organization.calculateGainsPerCustomer();
+
+        assertEquals(journaled, OrganizationState.describe(organization), "Organization rebuilt from the journal");
+        Customer first = organization.getCustomers().get(0);
+        assertEquals(SettlementState.VOID, first.getCustomerBetList().get(0).getSettlementState(),
+                "Replayed wager on the cancelled bet");
+        assertEquals(SettlementState.OPEN, first.getCustomerBetList().get(2).getSettlementState(),
+                "Replayed wager placed after the cancellation");
+        assertEquals(SettlementState.WON, first.getCustomerBetList().get(1).getSettlementState(),
+                "Replayed wager on the bet decided before its cancellation");
+    }
+
+    @Test
+    void aTornBatchIsDroppedBeforeAppending() throws IOException {
+        BetOrganization organization = seededOrganization();
+        Path snapshot = temporaryFile("organization.snapshot");
+        Path journal = temporaryFile("organization.journal");
+        OrganizationSnapshot.write(organization, snapshot);
+
+        try (Journal opened = new Journal(journal, organization, Duration.ZERO)) {
+            assertTrue(organization.getJournal() == opened, "Journal set on the organization");
+            organization.placeBet(organization.getCustomers().get(0), organization.getBets().get(0), 1, '1');
+            organization.placeBet(organization.getCustomers().get(1), organization.getBets().get(1), 1, '1');
+        }
+        byte[] written = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(written, written.length - 3));
+
+        OrganizationSnapshot.load(snapshot, organization);
+        Journal.replay(journal, organization);
+        assertEquals(1, organization.getCustomers().get(0).getCustomerBetList().size(), "Wagers of the complete batch");
+        assertEquals(0, organization.getCustomers().get(1).getCustomerBetList().size(), "Wagers of the torn batch");
+
+        try (Journal opened = new Journal(journal, organization, Duration.ZERO)) {
+            assertTrue(organization.getJournal() == opened, "Journal set on the organization");
+            organization.placeBet(organization.getCustomers().get(2), organization.getBets().get(2), 1, '1');
+        }
+        List<String> appended = OrganizationState.describe(organization);
+
+        OrganizationSnapshot.load(snapshot, organization);
+        Journal.replay(journal, organization);
+
+        assertEquals(appended, OrganizationState.describe(organization), "Organization rebuilt from the repaired journal");
+    }
+
+    /**
+     * Returns the organization, cleared and then populated with football bets and basic customers.
+     *
+     * @return The seeded {@link BetOrganization}.
+     */
+    private static BetOrganization seededOrganization() {
+        BetOrganization organization = BetOrganization.INSTANCE;
+        organization.clear();
+        for (int i = 0; i < BETS; i++) {
+            organization.addBet(new FootballBet("Team " + i + " vs Team " + (i + BETS), 1.5 + i / 10.0));
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            organization.addCustomer(new Customer("Customer " + i));
+        }
+        return organization;
+    }
+
+    /**
+     * Returns a new file in a new temporary directory, deleted when the virtual machine exits.
+     *
+     * @param name The name of the file.
+     * @return The {@link Path} of the file, which does not exist yet.
+     * @throws IOException If the temporary directory cannot be created.
+     */
+    private static Path temporaryFile(String name) throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        directory.toFile().deleteOnExit();
+        Path path = directory.resolve(name);
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+}
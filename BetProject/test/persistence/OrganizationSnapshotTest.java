@@ -0,0 +1,190 @@
+package persistence;
+
+import bet.BasketballBet;
+import bet.Bet;
+import bet.FootballBet;
+import bet.IGameResultListener;
+import customer.Customer;
+import customer.GoldCustomer;
+import customer.PlatinumCustomer;
+import main.BetOrganization;
+import support.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertThrows;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link OrganizationSnapshot}: a loaded snapshot restores the saved organization exactly, without
+ * notifying the game result listeners again, and only complete, well-formed snapshots of the current version are
+ * accepted, a rejected snapshot leaving the organization untouched.
+ */
+public final class OrganizationSnapshotTest {
+
+    /**
+     * The magic number opening a snapshot file.
+     */
+    private static final int MAGIC = 0x42455453;
+
+    @Test
+    void loadingASnapshotRestoresTheOrganization() throws IOException {
+        BetOrganization organization = populatedOrganization();
+        List<String> saved = OrganizationState.describe(organization);
+        Path path = temporaryFile();
+
+        OrganizationSnapshot.write(organization, path);
+        organization.clear();
+        OrganizationSnapshot.load(path, organization);
+
+        assertEquals(saved, OrganizationState.describe(organization), "Organization restored from the snapshot");
+        assertTrue(!Files.exists(path.resolveSibling(path.getFileName() + ".tmp")), "Temporary file left behind");
+    }
+
+    @Test
+    void restoredWagersAreNotSettledAgain() throws IOException {
+        BetOrganization organization = populatedOrganization();
+        Path path = temporaryFile();
+        OrganizationSnapshot.write(organization, path);
+        List<String> saved = OrganizationState.describe(organization);
+
+        OrganizationSnapshot.load(path, organization);
+        organization.calculateGainsPerCustomer();
+
+        assertEquals(saved, OrganizationState.describe(organization), "Organization settled after the restoration");
+    }
+
+    @Test
+    void loadingASnapshotNotifiesNoListener() throws IOException {
+        BetOrganization organization = populatedOrganization();
+        Path path = temporaryFile();
+        OrganizationSnapshot.write(organization, path);
+
+        AtomicInteger notifications = new AtomicInteger();
+        IGameResultListener listener = bet -> notifications.incrementAndGet();
+        Bet.addGameResultListener(listener);
+        try {
+            OrganizationSnapshot.load(path, organization);
+        } finally {
+            Bet.removeGameResultListener(listener);
+        }
+
+        assertEquals(0, notifications.get(), "Game result notifications during the load");
+    }
+
+    @Test
+    void snapshotsOfAnotherVersionAreRejected() throws IOException {
+        Path path = temporaryFile();
+        try (OutputStream file = Files.newOutputStream(path); DataOutputStream output = new DataOutputStream(file)) {
+            output.writeInt(MAGIC);
+            output.writeInt(1);
+            output.writeInt(0);
+            output.writeInt(0);
+        }
+
+        assertThrows(IOException.class, () -> OrganizationSnapshot.load(path, BetOrganization.INSTANCE));
+    }
+
+    @Test
+    void truncatedSnapshotsLeaveTheOrganizationUntouched() throws IOException {
+        BetOrganization organization = populatedOrganization();
+        Path path = temporaryFile();
+        OrganizationSnapshot.write(organization, path);
+        List<String> saved = OrganizationState.describe(organization);
+        byte[] snapshot = Files.readAllBytes(path);
+
+        Path truncated = temporaryFile();
+        for (int length = 0; length < snapshot.length; length++) {
+            Files.write(truncated, Arrays.copyOf(snapshot, length));
+            assertThrows(IOException.class, () -> OrganizationSnapshot.load(truncated, organization));
+        }
+
+        assertEquals(saved, OrganizationState.describe(organization), "Organization after the failed loads");
+    }
+
+    @Test
+    void corruptedCountsAndLengthsAreRejected() throws IOException {
+        BetOrganization organization = populatedOrganization();
+        Path path = temporaryFile();
+        OrganizationSnapshot.write(organization, path);
+        List<String> saved = OrganizationState.describe(organization);
+        byte[] snapshot = Files.readAllBytes(path);
+
+        Path corrupted = temporaryFile();
+        for (int value : new int[]{-1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 20}) {
+            for (int offset = 8; offset + 4 <= snapshot.length; offset++) {
+                byte[] bytes = snapshot.clone();
+                ByteBuffer.wrap(bytes).putInt(offset, value);
+                Files.write(corrupted, bytes);
+                try {
+                    OrganizationSnapshot.load(corrupted, organization);
+                } catch (IOException e) {
+                    continue;
+                }
+                // A corrupted amount or odds may still be a valid snapshot: restore the saved state.
+                OrganizationSnapshot.load(path, organization);
+            }
+        }
+
+        assertEquals(saved, OrganizationState.describe(organization), "Organization after the corrupted loads");
+    }
+
+    /**
+     * Returns the organization, cleared and then populated with customers of every type, wagers in every
+     * settlement state and bets with and without a game result.
+     *
+     * @return The populated {@link BetOrganization}.
+     */
+    private static BetOrganization populatedOrganization() {
+        BetOrganization organization = BetOrganization.INSTANCE;
+        organization.clear();
+        Bet football = new FootballBet("Team A vs Team B", 1.85);
+        Bet basketball = new BasketballBet("Team C vs Team D", 2.35);
+        Bet pending = new FootballBet("Team E vs Team F", 3.1);
+        organization.addBet(football);
+        organization.addBet(basketball);
+        organization.addBet(pending);
+
+        Customer basic = new Customer("Basic Customer");
+        Customer gold = new GoldCustomer("Gold Customer");
+        Customer platinum = new PlatinumCustomer("Platinum Customer");
+        organization.addCustomer(basic);
+        organization.addCustomer(gold);
+        organization.addCustomer(platinum);
+        organization.placeBet(basic, football, 10, '1');
+        organization.placeBet(basic, pending, 7, 'X');
+        organization.placeBet(gold, football, 20, '2');
+        organization.placeBet(gold, basketball, 15, '1');
+        organization.placeBet(platinum, basketball, 30, '2');
+        organization.placeBet(platinum, pending, 5, '1');
+
+        football.setGameResult('1');
+        basketball.setGameResult('2');
+        organization.calculateGainsPerCustomer();
+        return organization;
+    }
+
+    /**
+     * Returns a new file in a new temporary directory, deleted when the virtual machine exits.
+     *
+     * @return The {@link Path} of the file, which does not exist yet.
+     * @throws IOException If the temporary directory cannot be created.
+     */
+    private static Path temporaryFile() throws IOException {
+        Path directory = Files.createTempDirectory("snapshot");
+        directory.toFile().deleteOnExit();
+        Path path = directory.resolve("organization.snapshot");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+}
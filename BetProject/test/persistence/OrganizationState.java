@@ -0,0 +1,49 @@
+package persistence;
+
+import customer.Customer;
+import customer.CustomerBet;
+import main.BetOrganization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the state of a {@link BetOrganization}, to compare it before saving and after restoring.
+ */
+final class OrganizationState {
+
+    /**
+     * Prevents the instantiation of this class.
+     */
+    private OrganizationState() {
+    }
+
+    /**
+     * Describes the customers of the organization, their totals and their wagers, in an order that does not
+     * depend on the order in which they were added.
+     *
+     * @param betOrganization The {@link BetOrganization} to be described.
+     * @return The description of the organization.
+     */
+    static List<String> describe(BetOrganization betOrganization) {
+        List<String> customers = new ArrayList<>();
+        for (Customer customer : betOrganization.getCustomers()) {
+            StringBuilder description = new StringBuilder()
+                    .append(customer.getFullName()).append(' ')
+                    .append(customer.getCustomerType()).append(' ')
+                    .append(customer.getTotalSpentMinorUnits()).append(' ')
+                    .append(customer.getTotalGainsMinorUnits());
+            List<String> wagers = new ArrayList<>();
+            for (CustomerBet customerBet : customer.getCustomerBetList()) {
+                wagers.add(customerBet.getBet().getGame() + ' ' + customerBet.getBet().getGameResult() + ' '
+                        + customerBet.getStake() + ' ' + customerBet.getChoice() + ' '
+                        + customerBet.getSettlementState() + ' ' + customerBet.getPayoutMinorUnits());
+            }
+            wagers.sort(null);
+            customers.add(description.append(' ').append(wagers).toString());
+        }
+        customers.sort(null);
+        return customers;
+    }
+
+}
@@ -0,0 +1,44 @@
+package support;
+
+/**
+ * Runs every test class of the project, exiting with a non-zero status if any test case fails.
+ */
+public final class AllTests {
+
+    /**
+     * Prevents the instantiation of this class.
+     */
+    private AllTests() {
+    }
+
+    /**
+     * Runs every test class.
+     *
+     * @param args The command-line arguments (ignored).
+     */
+    public static void main(String[] args) {
+        int failed = TestRunner.run(
+                bet.BetCatalogTest.class,
+                customer.LeaderboardTest.class,
+                customer.LiabilityIndexTest.class,
+                customer.OffHeapLedgerTest.class,
+                customer.StakeGuardTest.class,
+                customer.WagerStoreTest.class,
+                main.CustomersResultsWriterTest.class,
+                main.GameEmulatorTest.class,
+                main.PlacementTest.class,
+                main.RiskSimulatorTest.class,
+                main.SettlementTest.class,
+                main.ShardedBetOrganizationTest.class,
+                main.WagerRateLimiterTest.class,
+                metrics.BetMetricsTest.class,
+                persistence.BulkImporterTest.class,
+                persistence.JournalTest.class,
+                persistence.OrganizationSnapshotTest.class,
+                util.MoneyTest.class,
+                util.WorkloadGeneratorTest.class
+        );
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+}
@@ -0,0 +1,79 @@
+package support;
+
+import java.util.Objects;
+
+/**
+ * Assertions used by the test cases, throwing an {@link AssertionError} describing the failed expectation.
+ */
+public final class Assert {
+
+    /**
+     * Prevents the instantiation of this utility class.
+     */
+    private Assert() {
+    }
+
+    /**
+     * Asserts that a condition holds.
+     *
+     * @param condition The condition to be checked.
+     * @param message   The description of the expectation.
+     * @throws AssertionError If the condition does not hold.
+     */
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Asserts that two values are equal.
+     *
+     * @param expected The expected value.
+     * @param actual   The actual value.
+     * @param message  The description of the expectation.
+     * @throws AssertionError If the values are not equal.
+     */
+    public static void assertEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    /**
+     * Asserts that an action throws an exception of the given type.
+     *
+     * @param type    The expected type of exception.
+     * @param action  The action expected to throw.
+     * @param <T>     The expected type of exception.
+     * @return The thrown exception.
+     * @throws AssertionError If the action returns normally or throws an exception of another type.
+     */
+    public static <T extends Throwable> T assertThrows(Class<T> type, ThrowingRunnable action) {
+        try {
+            action.run();
+        } catch (Throwable e) {
+            if (type.isInstance(e)) {
+                return type.cast(e);
+            }
+            throw new AssertionError("Expected " + type.getSimpleName() + " but was " + e, e);
+        }
+        throw new AssertionError("Expected " + type.getSimpleName() + " but nothing was thrown");
+    }
+
+    /**
+     * An action that may throw any exception.
+     */
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+
+        /**
+         * Runs the action.
+         *
+         * @throws Throwable If the action fails.
+         */
+        void run() throws Throwable;
+
+    }
+
+}
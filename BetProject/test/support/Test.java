@@ -0,0 +1,18 @@
+package support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a test class as a test case, run by the {@link TestRunner}.
+ * <p>
+ * A test case is an instance method without parameters; it passes if it returns normally, and fails if it
+ * throws.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Test {
+}
@@ -0,0 +1,58 @@
+package support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Runs the {@link Test} methods of test classes, each on a new instance of its class, and reports the failures.
+ */
+public final class TestRunner {
+
+    /**
+     * Prevents the instantiation of this utility class.
+     */
+    private TestRunner() {
+    }
+
+    /**
+     * Runs every test case of the given test classes, in the order of the classes and of the method names.
+     *
+     * @param testClasses The test classes.
+     * @return The number of failed test cases.
+     */
+    public static int run(Class<?>... testClasses) {
+        int passed = 0;
+        int failed = 0;
+        for (Class<?> testClass : testClasses) {
+            Method[] methods = testClass.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (!method.isAnnotationPresent(Test.class)) {
+                    continue;
+                }
+                String name = testClass.getSimpleName() + "." + method.getName();
+                try {
+                    Constructor<?> constructor = testClass.getDeclaredConstructor();
+                    constructor.setAccessible(true);
+                    method.setAccessible(true);
+                    method.invoke(constructor.newInstance());
+                    passed++;
+                    System.out.printf("PASS %s%n", name);
+                } catch (InvocationTargetException e) {
+                    failed++;
+                    System.out.printf("FAIL %s: %s%n", name, e.getCause());
+                    e.getCause().printStackTrace(System.out);
+                } catch (ReflectiveOperationException e) {
+                    failed++;
+                    System.out.printf("FAIL %s: %s%n", name, e);
+                }
+            }
+        }
+        System.out.printf("%d passed, %d failed%n", passed, failed);
+        return failed;
+    }
+
+}
@@ -0,0 +1,36 @@
+package util;
+
+import support.Test;
+
+import static support.Assert.assertEquals;
+
+/**
+ * Tests of {@link Money}: amounts are exact in minor units and payouts are rounded half up to the nearest minor unit.
+ */
+public final class MoneyTest {
+
+    @Test
+    void amountsAreExactInMinorUnits() {
+        long total = 0;
+        for (int i = 0; i < 1_000; i++) {
+            total += Money.toMinorUnits(0.1);
+        }
+
+        assertEquals(10_000L, total, "Sum of a thousand tenths, in minor units");
+        assertEquals(100.0, Money.toAmount(total), "Sum of a thousand tenths");
+    }
+
+    @Test
+    void payoutsAreRoundedHalfUp() {
+        assertEquals(1_850L, Money.payout(10, Money.toOddsUnits(1.85)), "Payout of an exact product");
+        assertEquals(2L, Money.payout(1, 150), "Payout of half a minor unit, rounded up");
+        assertEquals(1L, Money.payout(1, 149), "Payout below half a minor unit, rounded down");
+    }
+
+    @Test
+    void largeStakesDoNotOverflow() {
+        assertEquals(214_748_364_700L, Money.payout(Integer.MAX_VALUE, Money.toOddsUnits(1.0)),
+                "Payout of the largest stake at even odds");
+    }
+
+}
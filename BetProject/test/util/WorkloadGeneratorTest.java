@@ -0,0 +1,93 @@
+package util;
+
+import bet.Bet;
+import customer.Customer;
+import customer.CustomerBet;
+import main.BetOrganization;
+import support.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static support.Assert.assertEquals;
+import static support.Assert.assertTrue;
+
+/**
+ * Tests of the {@link WorkloadGenerator}: the workload depends on the seed only, not on the number of threads
+ * generating it, and the stakes cover the whole range allowed for each customer.
+ */
+public final class WorkloadGeneratorTest {
+
+    /**
+     * The profile of the generated workloads, spanning several chunks of customers.
+     */
+    private static final WorkloadProfile PROFILE =
+            new WorkloadProfile(2 * WorkloadGenerator.CHUNK_SIZE + 100, 20, 10, 5, 1.0, 0.2, 0.1);
+
+    /**
+     * The seed of the generated workloads.
+     */
+    private static final long SEED = 42L;
+
+    @Test
+    void workloadDoesNotDependOnTheParallelism() {
+        List<String> serial = describe(generate(1));
+        List<String> parallel = describe(generate(4));
+
+        assertEquals(serial.size(), parallel.size(), "Number of generated customers");
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i), parallel.get(i), "Customer " + i);
+        }
+    }
+
+    @Test
+    void stakesReachTheMaximumStake() {
+        boolean maximumReached = false;
+        for (Customer customer : generate(4)) {
+            for (CustomerBet customerBet : customer.getCustomerBetList()) {
+                assertTrue(customerBet.getStake() >= 1 && customerBet.getStake() <= customer.getMaxStake(),
+                        "Stake of " + customer.getFullName() + " out of range: " + customerBet.getStake());
+                maximumReached |= customerBet.getStake() == customer.getMaxStake();
+            }
+        }
+        assertTrue(maximumReached, "No stake reaches the maximum stake of its customer");
+    }
+
+    /**
+     * Generates the workload of {@link #PROFILE} from {@link #SEED}, once the {@link BetOrganization} (and the
+     * indexes the wagers are registered in) has been cleared.
+     *
+     * @param parallelism The number of threads generating the customers.
+     * @return The generated customers, in order.
+     */
+    private static List<Customer> generate(int parallelism) {
+        BetOrganization.INSTANCE.clear();
+        List<Bet> bets = new ArrayList<>();
+        List<Customer> customers = new ArrayList<>();
+        new WorkloadGenerator(PROFILE, SEED, parallelism).generate(bets::add, customers::add);
+        assertEquals(PROFILE.footballBets() + PROFILE.basketballBets(), bets.size(), "Number of generated bets");
+        return customers;
+    }
+
+    /**
+     * Describes each customer by their name, type, totals and wagers.
+     *
+     * @param customers The customers to be described.
+     * @return The description of each customer.
+     */
+    private static List<String> describe(List<Customer> customers) {
+        List<String> descriptions = new ArrayList<>();
+        for (Customer customer : customers) {
+            StringBuilder description = new StringBuilder()
+                    .append(customer.getFullName()).append(' ').append(customer.getCustomerType())
+                    .append(' ').append(customer.getTotalSpentMinorUnits());
+            for (CustomerBet customerBet : customer.getCustomerBetList()) {
+                description.append(" | ").append(customerBet.getBet().getGame())
+                        .append(' ').append(customerBet.getStake()).append(' ').append(customerBet.getChoice());
+            }
+            descriptions.add(description.toString());
+        }
+        return descriptions;
+    }
+
+}